@@ -0,0 +1,74 @@
+package com.foodie.application.config;
+
+import com.foodie.application.domain.Allergen;
+import com.foodie.application.domain.Establishment;
+import com.foodie.application.domain.Ingredient;
+import com.foodie.application.domain.Product;
+import com.foodie.application.domain.Role;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for the Hibernate second-level cache with a JCache (Caffeine) backend.
+ *
+ * Reference entities that are small and rarely change are cached by ID, so loading them
+ * through an association (a user's role, a product's allergens and ingredients) or by ID
+ * (the establishment) does not query the database:
+ * - Role, Allergen, Ingredient and Establishment entities
+ * - Product allergen and ingredient collections, holding the IDs of their elements
+ *
+ * Hibernate keeps these regions up to date on writes made through JPA. Writes that change
+ * existing cached rows with plain SQL, such as the catalog import rewriting the product
+ * collections, are evicted by {@link com.foodie.application.service.SecondLevelCacheService}.
+ * Allergens and ingredients created by name are inserted with plain SQL too, but only as
+ * new rows with new IDs, which cannot be cached yet; no query cache is enabled.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    /**
+     * Configure the cache regions with a maximum size and an expiration as a safety net
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        createRegion(cacheManager, Role.class.getName(), 100);
+        createRegion(cacheManager, Allergen.class.getName(), 1000);
+        createRegion(cacheManager, Ingredient.class.getName(), 10000);
+        createRegion(cacheManager, Establishment.class.getName(), 10);
+        createRegion(cacheManager, Product.class.getName() + ".allergens", 10000);
+        createRegion(cacheManager, Product.class.getName() + ".ingredients", 10000);
+
+        return properties -> properties.putAll(Map.of(
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, true,
+                AvailableSettings.CACHE_REGION_FACTORY, "jcache",
+                "hibernate.javax.cache.cache_manager", cacheManager,
+                "hibernate.javax.cache.missing_cache_strategy", "fail",
+                AvailableSettings.GENERATE_STATISTICS, true
+        ));
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maximumSize) {
+        if (cacheManager.getCache(region) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.HOURS.toNanos(2)));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
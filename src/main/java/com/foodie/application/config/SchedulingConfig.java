@@ -0,0 +1,13 @@
+package com.foodie.application.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling Spring's scheduled task execution.
+ * Used by background maintenance jobs such as the order archival.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
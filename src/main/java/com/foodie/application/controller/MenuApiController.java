@@ -0,0 +1,75 @@
+package com.foodie.application.controller;
+
+import com.foodie.application.service.MenuSnapshotService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Read-only JSON API with the menus and their items, for kiosks and mobile clients.
+ * <p>
+ * Responses come from the pre-serialized {@link MenuSnapshotService.Snapshot}. Clients
+ * accepting gzip get the precompressed body, which has its own entity tag, and clients
+ * sending the current tag in {@code If-None-Match} get a 304 response without body, so
+ * polling costs nothing while the catalog does not change.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@RestController
+public class MenuApiController {
+
+    // Cached, but revalidated on every use so clients see catalog changes immediately
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    /**
+     * Constructs a MenuApiController.
+     *
+     * @param menuSnapshotService the service keeping the serialized menu
+     */
+    public MenuApiController(MenuSnapshotService menuSnapshotService) {
+        this.menuSnapshotService = menuSnapshotService;
+    }
+
+    /**
+     * Returns every menu with its items, prices after discount, allergens and ingredients.
+     *
+     * @param acceptEncoding the encodings accepted by the client, may be null
+     * @return the menus as JSON, gzip-compressed when the client accepts it
+     */
+    @GetMapping("/api/menu")
+    public ResponseEntity<byte[]> getMenu(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                          String acceptEncoding) {
+        MenuSnapshotService.Snapshot snapshot = menuSnapshotService.getSnapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        // Conditional requests matching the ETag are answered with 304 by Spring MVC
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(gzip ? snapshot.etag() + "-gzip" : snapshot.etag())
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
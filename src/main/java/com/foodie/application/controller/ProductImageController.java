@@ -0,0 +1,64 @@
+package com.foodie.application.controller;
+
+import com.foodie.application.service.ProductImageService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serves the stored variants of product images.
+ * <p>
+ * A variant URL contains the hash of the image content, so the response never changes
+ * and is cached by browsers and proxies for a year without revalidation. The ETag lets
+ * clients that revalidate anyway get a 304 response without the body.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@RestController
+public class ProductImageController {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ProductImageService productImageService;
+
+    /**
+     * Constructs a ProductImageController.
+     *
+     * @param productImageService the service storing product images
+     */
+    public ProductImageController(ProductImageService productImageService) {
+        this.productImageService = productImageService;
+    }
+
+    /**
+     * Returns a variant of a stored product image.
+     *
+     * @param hash the hash of the image
+     * @param variant the name of the variant, such as {@code card}
+     * @return the JPEG image, or 404 if the image or the variant do not exist
+     */
+    @GetMapping(ProductImageService.URL_PREFIX + "{hash}/{variant}")
+    public ResponseEntity<Resource> getImage(@PathVariable String hash, @PathVariable String variant) {
+        Optional<ProductImageService.Variant> imageVariant = ProductImageService.Variant.fromPathName(variant);
+        Optional<Path> file = imageVariant.flatMap(v -> productImageService.findVariant(hash, v));
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Conditional requests matching the ETag are answered with 304 by Spring MVC
+        return ResponseEntity.ok()
+                .eTag(hash + "-" + variant)
+                .cacheControl(CACHE_CONTROL)
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(new FileSystemResource(file.get()));
+    }
+}
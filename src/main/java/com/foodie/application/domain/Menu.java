@@ -21,6 +21,7 @@ public class Menu {
     private String name;
 
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "menu")
+    @OrderBy("position ASC, id ASC")
     private List<MenuItem> menuItems;
 
     public MenuDto toDto(){
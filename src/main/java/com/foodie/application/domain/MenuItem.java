@@ -10,7 +10,10 @@ import lombok.*;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "menu_item")
+// A product appears at most once per menu; menu item upserts rely on this unique index
+@Table(name = "menu_item", indexes = {
+    @Index(name = "uk_menu_item_menu_product", columnList = "menu_id, product_id", unique = true)
+})
 public class MenuItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,4 +29,38 @@ public class MenuItem {
 
     private Boolean featured;
     private Integer discountPercentage;
+
+    /**
+     * Order of the item within its menu, lowest first.
+     */
+    private Integer position;
+
+    /**
+     * Price of the product in this menu after the discount, rounded to cents. Stored so
+     * that menus and checkout read it instead of recomputing it; kept up to date when
+     * the item is saved and, for product price changes, by
+     * {@code MenuItemRepository#refreshDiscountedPrices}.
+     */
+    private Double discountedPrice;
+
+    @PrePersist
+    @PreUpdate
+    private void computeDiscountedPrice() {
+        discountedPrice = product != null ? discountedPrice(product.getPrice(), discountPercentage) : null;
+    }
+
+    /**
+     * Applies a discount to a price. Must match the SQL of
+     * {@code MenuItemRepository#refreshDiscountedPrices}.
+     *
+     * @param price the price of the product, may be null
+     * @param discountPercentage the discount percentage, may be null
+     * @return the discounted price rounded to cents, or the price if there is no discount
+     */
+    public static Double discountedPrice(Double price, Integer discountPercentage) {
+        if (price == null || discountPercentage == null || discountPercentage <= 0) {
+            return price;
+        }
+        return Math.round(price * (100 - discountPercentage)) / 100.0;
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -21,7 +22,8 @@ import java.util.List;
     @Index(name = "idx_status", columnList = "status"),
     @Index(name = "idx_date", columnList = "date"),
     @Index(name = "idx_user_date", columnList = "user_id, date"),
-    @Index(name = "idx_status_date", columnList = "status, date")
+    @Index(name = "idx_status_date", columnList = "status, date"),
+    @Index(name = "uk_orders_idempotency_key", columnList = "idempotency_key", unique = true)
 })
 public class Order {
     @Id
@@ -53,6 +55,33 @@ public class Order {
     @Column
     private String deliveryAddress;
 
+    // Exact creation instant; date keeps the calendar day used by filters and reports
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    // Moment the order entered its current status
+    @Column(name = "status_changed_at")
+    private Instant statusChangedAt;
+
+    @Column(name = "confirmed_at")
+    private Instant confirmedAt;
+
+    @Column(name = "preparing_at")
+    private Instant preparingAt;
+
+    @Column(name = "ready_at")
+    private Instant readyAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "cancelled_at")
+    private Instant cancelledAt;
+
+    // Key of the checkout attempt that placed the order, so a replayed submission finds it
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
 
 
 
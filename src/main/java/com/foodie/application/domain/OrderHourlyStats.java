@@ -0,0 +1,46 @@
+package com.foodie.application.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Hourly rollup of order intake.
+ * One row per calendar day and hour of the day (local time), maintained on every
+ * order write so peak-hour questions never need to scan raw orders.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "order_hourly_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_hourly_stats_bucket", columnNames = {"bucket_date", "bucket_hour"})
+})
+public class OrderHourlyStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "bucket_hour", nullable = false)
+    private Integer bucketHour;
+
+    @Column(nullable = false)
+    private Integer orderCount;
+
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    @Column(nullable = false)
+    private Double revenue;
+
+    @Column(nullable = false)
+    private Integer cancelledCount;
+}
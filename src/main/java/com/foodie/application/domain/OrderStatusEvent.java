@@ -0,0 +1,47 @@
+package com.foodie.application.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Append-only log entry of an order status transition.
+ * Rows are never updated; the order is referenced by ID only so that the log
+ * survives the archival of the order itself.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "order_status_event", indexes = {
+    @Index(name = "idx_order_status_event_order", columnList = "order_id"),
+    @Index(name = "idx_order_status_event_changed_at", columnList = "changed_at")
+})
+public class OrderStatusEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 16)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 16)
+    private OrderStatus toStatus;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    // Time spent in fromStatus, null when unknown
+    @Column(name = "duration_ms")
+    private Long durationMs;
+}
@@ -2,6 +2,8 @@ package com.foodie.application.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
@@ -34,6 +36,7 @@ public class Product {
     private String imageUrl;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     @JoinTable(
             name = "product_allergen",
             joinColumns = @JoinColumn(name = "product_id"),
@@ -42,6 +45,7 @@ public class Product {
     private Set<Allergen> allergens;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     @JoinTable(
             name = "product_ingredient",
             joinColumns = @JoinColumn(name = "product_id"),
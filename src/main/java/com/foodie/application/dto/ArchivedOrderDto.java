@@ -0,0 +1,33 @@
+package com.foodie.application.dto;
+
+import com.foodie.application.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * DTO for an order that has been moved to the archive table.
+ * Archived orders are read-only and only used for exports and statistics,
+ * so the line items are flattened into a textual summary.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderDto implements Serializable {
+    private Integer id;
+    private LocalDate date;
+    private String username;
+    private OrderStatus status;
+    private Integer itemCount;
+    private Double total;
+    private String paymentMethod;
+    private String paymentStatus;
+    private String deliveryAddress;
+    private String notes;
+    private String detail;
+}
@@ -0,0 +1,22 @@
+package com.foodie.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * DTO for a product ranked among the recent best sellers.
+ * Quantities are estimates kept in memory by the best-seller tracker.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestSellerDto implements Serializable {
+    private Integer productId;
+    private String productName;
+    private Long quantity;
+}
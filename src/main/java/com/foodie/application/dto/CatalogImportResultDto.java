@@ -0,0 +1,25 @@
+package com.foodie.application.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO summarizing a catalog import: what was (or, on a dry run, would be) created
+ * and updated, and the rows rejected by validation. The detail lists are truncated
+ * for large catalogs; the counters always cover every row.
+ */
+@Data
+public class CatalogImportResultDto implements Serializable {
+    private boolean dryRun;
+    private int createdProducts;
+    private int updatedProducts;
+    private int unchangedProducts;
+    private int createdMenus;
+    private int menuItems;
+    private int rejectedRows;
+    private final List<String> changes = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+}
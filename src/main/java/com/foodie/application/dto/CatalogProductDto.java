@@ -0,0 +1,45 @@
+package com.foodie.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DTO for a product of an exported or imported catalog, with its allergens,
+ * ingredients and the menus it belongs to. Products, allergens, ingredients and
+ * menus are identified by name, so a catalog can be moved between environments.
+ * On import, a null description, image, allergen set or ingredient set keeps the
+ * current value of an existing product.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogProductDto implements Serializable {
+    private String name;
+    private String description;
+    private Double price;
+    private String imageUrl;
+    private Set<String> allergens;
+    private Set<String> ingredients;
+    @Builder.Default
+    private List<MenuEntry> menus = new ArrayList<>();
+
+    /**
+     * Entry of the product in a menu.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MenuEntry implements Serializable {
+        private String menu;
+        private Boolean featured;
+        private Integer discountPercentage;
+    }
+}
@@ -14,7 +14,7 @@ import java.time.LocalTime;
  * Transfers establishment data from service to presentation layer without exposing domain model.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class EstablishmentDto implements Serializable {
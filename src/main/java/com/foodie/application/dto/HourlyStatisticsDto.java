@@ -0,0 +1,26 @@
+package com.foodie.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+
+/**
+ * DTO for one cell of the hourly sales heatmap.
+ * Contains the orders received on a given day of the week and hour of the day.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlyStatisticsDto implements Serializable {
+    private DayOfWeek dayOfWeek;
+    private Integer hour;
+    private Integer orderCount;
+    private Integer itemCount;
+    private Double revenue;
+    private Integer cancelledCount;
+}
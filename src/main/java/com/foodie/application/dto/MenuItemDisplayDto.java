@@ -1,6 +1,9 @@
 package com.foodie.application.dto;
 
+import com.foodie.application.domain.Allergen;
+import com.foodie.application.domain.Ingredient;
 import com.foodie.application.domain.MenuItem;
+import com.foodie.application.domain.Product;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,6 +11,7 @@ import lombok.AllArgsConstructor;
 
 import java.io.Serializable;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * DTO for displaying menu items with complete product information including ingredients and allergens
@@ -33,30 +37,36 @@ public class MenuItemDisplayDto implements Serializable {
     // Product details
     private Set<String> ingredients;
     private Set<String> allergenNames;
+    // Allergens compiled by AllergenService#getProductAllergenMask, compared against a user's allergies
+    private long allergenMask;
 
     /**
-     * Converts a MenuItem entity with all product details to MenuItemDisplayDto
+     * Converts a MenuItem entity with all product details to MenuItemDisplayDto.
+     * The discounted price is the one stored with the menu item.
      */
     public static MenuItemDisplayDto fromMenuItem(MenuItem menuItem) {
-        ProductDto productDto = ProductDto.fromProduct(menuItem.getProduct());
-
-        Double discountedPrice = menuItem.getDiscountPercentage() != null && menuItem.getDiscountPercentage() > 0
-                ? menuItem.getProduct().getPrice() * (1 - menuItem.getDiscountPercentage() / 100.0)
-                : menuItem.getProduct().getPrice();
+        Product product = menuItem.getProduct();
+        Double discountedPrice = menuItem.getDiscountedPrice() != null
+                ? menuItem.getDiscountedPrice()
+                : MenuItem.discountedPrice(product.getPrice(), menuItem.getDiscountPercentage());
 
         return MenuItemDisplayDto.builder()
                 .id(menuItem.getId())
-                .productId(menuItem.getProduct().getId())
+                .productId(product.getId())
                 .menuId(menuItem.getMenu().getId())
                 .featured(menuItem.getFeatured())
                 .discountPercentage(menuItem.getDiscountPercentage())
-                .productName(productDto.getName())
-                .description(productDto.getDescription())
-                .originalPrice(menuItem.getProduct().getPrice())
+                .productName(product.getName())
+                .description(product.getDescription())
+                .originalPrice(product.getPrice())
                 .discountedPrice(discountedPrice)
-                .imageUrl(productDto.getImageUrl())
-                .ingredients(productDto.getIngredients())
-                .allergenNames(productDto.getAllergenNames())
+                .imageUrl(product.getImageUrl())
+                .ingredients(product.getIngredients() != null
+                        ? product.getIngredients().stream().map(Ingredient::getName).collect(Collectors.toSet())
+                        : Set.of())
+                .allergenNames(product.getAllergens() != null
+                        ? product.getAllergens().stream().map(Allergen::getName).collect(Collectors.toSet())
+                        : Set.of())
                 .build();
     }
 }
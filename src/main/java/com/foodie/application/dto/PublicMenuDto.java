@@ -0,0 +1,49 @@
+package com.foodie.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DTO for a menu published by the read-only menu API, with every item it offers
+ * and the price after discount, for clients outside the web application.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicMenuDto implements Serializable {
+    private Integer id;
+    private String name;
+    @Builder.Default
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * Product offered in a menu.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item implements Serializable {
+        private Integer productId;
+        private String name;
+        private String description;
+        private String imageUrl;
+        // URL of each stored size of the image by variant name, null for external images
+        private Map<String, String> imageVariants;
+        private Double price;
+        private Integer discountPercentage;
+        private Double discountedPrice;
+        private Boolean featured;
+        private Set<String> allergens;
+        private Set<String> ingredients;
+    }
+}
@@ -0,0 +1,26 @@
+package com.foodie.application.dto;
+
+import com.foodie.application.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * DTO for the time orders spend in a status over the recent window.
+ * Percentiles are estimates computed from a streaming histogram.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusLatencyDto implements Serializable {
+    private OrderStatus status;
+    private Long sampleCount;
+    private Duration p50;
+    private Duration p95;
+    private Duration p99;
+}
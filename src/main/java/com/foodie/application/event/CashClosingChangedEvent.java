@@ -0,0 +1,11 @@
+package com.foodie.application.event;
+
+import java.time.LocalDate;
+
+/**
+ * Application event published whenever a cash register is opened, closed or deleted.
+ *
+ * @param date the day of the cash closing that changed
+ */
+public record CashClosingChangedEvent(LocalDate date) {
+}
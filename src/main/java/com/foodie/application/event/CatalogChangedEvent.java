@@ -0,0 +1,20 @@
+package com.foodie.application.event;
+
+/**
+ * Application event published whenever the product catalog changes.
+ *
+ * @param productId the ID of the product that was created, updated or deleted,
+ *                  or null when the change may affect any product (e.g. an allergen
+ *                  or ingredient was renamed)
+ */
+public record CatalogChangedEvent(Integer productId) {
+
+    /**
+     * Creates an event for a change that may affect any product.
+     *
+     * @return the event
+     */
+    public static CatalogChangedEvent all() {
+        return new CatalogChangedEvent(null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.foodie.application.event;
+
+/**
+ * Application event published whenever the establishment settings are updated.
+ *
+ * @param establishmentId the ID of the establishment that changed
+ */
+public record EstablishmentChangedEvent(Integer establishmentId) {
+}
@@ -0,0 +1,10 @@
+package com.foodie.application.event;
+
+/**
+ * Application event published whenever a menu or its items change.
+ *
+ * @param menuId the ID of the menu that was created, renamed, deleted or whose
+ *               items were added, updated or removed
+ */
+public record MenuChangedEvent(Integer menuId) {
+}
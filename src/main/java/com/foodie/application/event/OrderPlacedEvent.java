@@ -0,0 +1,18 @@
+package com.foodie.application.event;
+
+import com.foodie.application.dto.ProductListDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Application event published when a new order is placed.
+ *
+ * @param orderId the ID of the order
+ * @param placedAt the instant the order was created
+ * @param items the products and quantities ordered
+ */
+public record OrderPlacedEvent(Integer orderId,
+                               Instant placedAt,
+                               List<ProductListDto> items) {
+}
@@ -0,0 +1,23 @@
+package com.foodie.application.event;
+
+import com.foodie.application.domain.OrderStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Application event published whenever an order enters a new status, including
+ * its creation in PENDING.
+ *
+ * @param orderId the ID of the order
+ * @param previousStatus the status the order left, or null when the order was just created
+ * @param newStatus the status the order entered
+ * @param changedAt the instant of the transition
+ * @param timeInPreviousStatus how long the order stayed in the previous status, or null if unknown
+ */
+public record OrderStatusChangedEvent(Integer orderId,
+                                      OrderStatus previousStatus,
+                                      OrderStatus newStatus,
+                                      Instant changedAt,
+                                      Duration timeInPreviousStatus) {
+}
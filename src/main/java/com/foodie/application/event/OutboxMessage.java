@@ -0,0 +1,30 @@
+package com.foodie.application.event;
+
+import java.time.Instant;
+
+/**
+ * Domain event relayed from the transactional outbox once the transaction that recorded
+ * it has committed. Published to in-process listeners as an application event and handed
+ * to every {@link OutboxSink}.
+ * <p>
+ * Delivery is at least once: a message may be delivered again after a failure or a
+ * restart, so consumers must deduplicate by {@link #id()}. Messages of the same order
+ * are delivered in the order they were recorded.
+ * </p>
+ *
+ * @param id the ID of the outbox entry, increasing in recording order
+ * @param aggregateType the type of the entity the event is about, e.g. "Order"
+ * @param aggregateId the ID of that entity
+ * @param eventType the type of the event, e.g. "OrderPlaced"
+ * @param payload the event serialized as JSON
+ * @param createdAt the instant the event was recorded
+ * @param attempt the delivery attempt, starting at 1
+ */
+public record OutboxMessage(Long id,
+                            String aggregateType,
+                            Integer aggregateId,
+                            String eventType,
+                            String payload,
+                            Instant createdAt,
+                            int attempt) {
+}
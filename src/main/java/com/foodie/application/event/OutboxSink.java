@@ -0,0 +1,26 @@
+package com.foodie.application.event;
+
+/**
+ * Destination the outbox relay delivers committed domain events to, e.g. a message
+ * broker or a file. Every bean implementing this interface receives every message.
+ * <p>
+ * A message is marked as delivered only once all sinks accept it; if any sink fails it
+ * is delivered again to all of them later, so sinks must tolerate duplicates.
+ * </p>
+ */
+public interface OutboxSink {
+
+    /**
+     * @return the unique name of the sink, used in logs and as the {@code sink} tag of
+     *         {@code foodie.outbox.sink.failures}
+     */
+    String getName();
+
+    /**
+     * Delivers a message, returning only once the destination has accepted it.
+     *
+     * @param message the message to deliver
+     * @throws Exception if the message could not be delivered and must be retried
+     */
+    void deliver(OutboxMessage message) throws Exception;
+}
@@ -0,0 +1,24 @@
+package com.foodie.application.event;
+
+import com.foodie.application.domain.PaymentStatus;
+
+import java.time.Instant;
+
+/**
+ * Application event published whenever the payment of an order changes status after
+ * being created in PENDING along with the order.
+ *
+ * @param paymentId the ID of the payment
+ * @param orderId the ID of the order the payment belongs to
+ * @param previousStatus the status the payment left
+ * @param newStatus the status the payment entered
+ * @param amount the amount of the payment
+ * @param changedAt the instant of the transition
+ */
+public record PaymentStatusChangedEvent(Integer paymentId,
+                                        Integer orderId,
+                                        PaymentStatus previousStatus,
+                                        PaymentStatus newStatus,
+                                        Double amount,
+                                        Instant changedAt) {
+}
@@ -0,0 +1,9 @@
+package com.foodie.application.event;
+
+/**
+ * Application event published whenever a user account is created, updated or deleted.
+ *
+ * @param userId the ID of the user that changed
+ */
+public record UserChangedEvent(Integer userId) {
+}
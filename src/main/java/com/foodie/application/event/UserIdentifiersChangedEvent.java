@@ -0,0 +1,16 @@
+package com.foodie.application.event;
+
+/**
+ * Application event published when the username or email of a user is taken or
+ * released: on creation, on an email change and on deletion.
+ *
+ * @param releasedUsername the username no longer taken, or null
+ * @param releasedEmail the email no longer taken, or null
+ * @param takenUsername the username newly taken, or null
+ * @param takenEmail the email newly taken, or null
+ */
+public record UserIdentifiersChangedEvent(String releasedUsername,
+                                          String releasedEmail,
+                                          String takenUsername,
+                                          String takenEmail) {
+}
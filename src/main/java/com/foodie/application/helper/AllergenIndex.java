@@ -0,0 +1,133 @@
+package com.foodie.application.helper;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns bit positions to the allergens of the catalog so allergen sets can be
+ * compared as {@code long} bitmasks.
+ * <p>
+ * Names are matched ignoring case, accents and surrounding whitespace, so the
+ * allergies typed by a user match the allergen names of the catalog. Only catalog
+ * allergens are registered, and only the first 63 of them get a bit; any other name,
+ * such as a free-text allergy or a catalog allergen registered later, is kept out of
+ * the bitmask and compared by name instead, so a conflict is never missed.
+ * Bit positions are never reassigned, so masks stay valid while the application runs.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+public class AllergenIndex {
+
+    private static final int MAX_BITS = 63;
+
+    private final Map<String, Long> bits = new ConcurrentHashMap<>();
+
+    /**
+     * Allergies of a user: the ones with a bit as a mask, and the rest as folded names.
+     *
+     * @param mask the bits of the allergies registered in the index
+     * @param unindexed the folded names of the allergies without a bit
+     */
+    public record Profile(long mask, Set<String> unindexed) {
+
+        /**
+         * Profile without allergies, conflicting with nothing.
+         */
+        public static final Profile NONE = new Profile(0L, Set.of());
+
+        /**
+         * Checks whether a product contains any of the allergies.
+         *
+         * @param itemMask the allergen mask of the product
+         * @param itemAllergens the allergen names of the product, compared only for allergies without a bit
+         * @return true if the product contains at least one of the allergies
+         */
+        public boolean conflictsWith(long itemMask, Collection<String> itemAllergens) {
+            if ((itemMask & mask) != 0) {
+                return true;
+            }
+            if (unindexed.isEmpty() || itemAllergens == null) {
+                return false;
+            }
+            for (String allergen : itemAllergens) {
+                if (unindexed.contains(TextHelper.fold(allergen))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Compiles the allergens of a catalog product into a bitmask, registering the
+     * allergens not seen before while there are bits left.
+     *
+     * @param catalogNames the names of catalog allergens, may be null
+     * @return the union of the bits of every name
+     */
+    public long maskOfCatalog(Collection<String> catalogNames) {
+        long mask = 0L;
+        if (catalogNames != null) {
+            for (String name : catalogNames) {
+                mask |= register(name);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Compiles the allergies of a user, without registering any name.
+     *
+     * @param allergies the allergy names, may be null
+     * @return the profile of the allergies
+     */
+    public Profile profileOf(Collection<String> allergies) {
+        if (allergies == null || allergies.isEmpty()) {
+            return Profile.NONE;
+        }
+        long mask = 0L;
+        Set<String> unindexed = new HashSet<>();
+        for (String allergy : allergies) {
+            String key = TextHelper.fold(allergy);
+            if (key.isEmpty()) {
+                continue;
+            }
+            Long bit = bits.get(key);
+            if (bit != null) {
+                mask |= bit;
+            } else {
+                unindexed.add(key);
+            }
+        }
+        return new Profile(mask, Set.copyOf(unindexed));
+    }
+
+    private long register(String name) {
+        String key = TextHelper.fold(name);
+        if (key.isEmpty()) {
+            return 0L;
+        }
+        Long bit = bits.get(key);
+        if (bit != null) {
+            return bit;
+        }
+        if (bits.size() >= MAX_BITS) {
+            return 0L;
+        }
+        synchronized (bits) {
+            if (bits.size() >= MAX_BITS && !bits.containsKey(key)) {
+                return 0L;
+            }
+            return bits.computeIfAbsent(key, k -> 1L << bits.size());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.foodie.application.helper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Counting Bloom filter of strings.
+ * <p>
+ * Answers whether a string might have been added: a negative answer is always right,
+ * a positive one is wrong with about the false positive rate the filter was sized for,
+ * as long as no more strings than expected are stored. Each position holds a small
+ * counter instead of a bit, so strings can also be removed. Counters saturate at 255
+ * and are never decremented from there, which can only cause false positives.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+public class CountingBloomFilter {
+
+    private static final int MAX_COUNT = 0xFF;
+    private static final int MAX_COUNTERS = 1 << 28;
+
+    private final byte[] counters;
+    private final int hashCount;
+    private final int expectedInsertions;
+    private int size;
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param expectedInsertions the number of strings the filter is sized for
+     * @param falsePositiveRate the false positive rate with that number of strings, between 0 and 1
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public CountingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the false positive rate between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        long optimal = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.counters = new byte[(int) Math.max(64, Math.min(MAX_COUNTERS, optimal))];
+        this.hashCount = (int) Math.max(1, Math.round((double) counters.length / expectedInsertions * ln2));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value the string; null is ignored
+     */
+    public synchronized void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            int position = position(hash, i);
+            int count = counters[position] & MAX_COUNT;
+            if (count < MAX_COUNT) {
+                counters[position] = (byte) (count + 1);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Removes a string. Only strings that were added may be removed, otherwise
+     * other strings may stop being found.
+     *
+     * @param value the string; null is ignored
+     */
+    public synchronized void remove(String value) {
+        if (value == null || !mightContain(value)) {
+            return;
+        }
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            int position = position(hash, i);
+            int count = counters[position] & MAX_COUNT;
+            if (count < MAX_COUNT) {
+                counters[position] = (byte) (count - 1);
+            }
+        }
+        size--;
+    }
+
+    /**
+     * Checks whether a string might have been added.
+     *
+     * @param value the string
+     * @return false if the string was certainly not added, true if it probably was
+     */
+    public synchronized boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            if (counters[position(hash, i)] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of strings stored
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return whether more strings are stored than the filter was sized for
+     */
+    public synchronized boolean isOverloaded() {
+        return size > expectedInsertions;
+    }
+
+    // Double hashing: the i-th position is h1 + i * h2, both halves of one 64-bit hash
+    private int position(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + i * h2, counters.length);
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, followed by a finalizer spreading the bits
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,135 @@
+package com.foodie.application.helper;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utility class providing helper methods for writing and reading CSV files.
+ * Values are written following RFC 4180: fields containing separators,
+ * quotes or line breaks are enclosed in double quotes.
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+@UtilityClass
+public class CsvHelper {
+
+    public static final char SEPARATOR = ',';
+
+    /**
+     * Writes a single CSV row terminated by CRLF.
+     *
+     * @param writer the writer to append the row to
+     * @param values the field values; nulls are written as empty fields
+     * @throws IOException if the writer fails
+     */
+    public static void writeRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(escape(format(values[i])));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Reads a single CSV row written following the same rules as {@link #writeRow}:
+     * quoted fields may contain separators, doubled quotes and line breaks. Rows may
+     * end with CRLF or LF. Characters are consumed one at a time, so large files are
+     * read in constant memory when the reader is buffered.
+     *
+     * @param reader the reader, positioned at the start of a row
+     * @return the field values, or null at the end of the input
+     * @throws IOException if the reader fails
+     */
+    public static List<String> readRow(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean afterQuote = false;
+        boolean empty = true;
+        int c;
+        while ((c = reader.read()) != -1) {
+            empty = false;
+            char ch = (char) c;
+            if (inQuotes) {
+                if (ch == '"') {
+                    inQuotes = false;
+                    afterQuote = true;
+                } else {
+                    field.append(ch);
+                }
+                continue;
+            }
+            if (ch == '"') {
+                // A quote right after a closing quote is an escaped quote
+                if (afterQuote) {
+                    field.append('"');
+                }
+                inQuotes = true;
+                afterQuote = false;
+                continue;
+            }
+            afterQuote = false;
+            if (ch == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+        if (empty) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Formats a value for CSV output. Decimal numbers are written with two
+     * decimals and a dot separator regardless of the server locale.
+     *
+     * @param value the value to format
+     * @return the formatted value, empty string if null
+     */
+    public static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%.2f", ((Number) value).doubleValue());
+        }
+        return value.toString();
+    }
+
+    /**
+     * Escapes a field value, quoting it when needed.
+     *
+     * @param value the raw field value
+     * @return the escaped value
+     */
+    public static String escape(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        boolean needsQuotes = value.indexOf(SEPARATOR) >= 0
+                || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
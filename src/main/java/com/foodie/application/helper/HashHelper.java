@@ -0,0 +1,34 @@
+package com.foodie.application.helper;
+
+import lombok.experimental.UtilityClass;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utility class deriving short content identifiers, used for stored image
+ * folders and HTTP entity tags.
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+@UtilityClass
+public class HashHelper {
+
+    /**
+     * Hashes content with SHA-256 and keeps the first 16 bytes, as 32 lowercase hex characters.
+     *
+     * @param data the content to hash
+     * @return the hex-encoded hash
+     */
+    public static String contentHash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.foodie.application.helper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Streaming top-K tracker of integer keys over a rolling time window.
+ * <p>
+ * Occurrences are counted in a count-min sketch, so the memory used does not grow
+ * with the number of distinct keys, and a small min-heap keeps the keys with the
+ * highest estimated counts. The window is split into slices, each with its own
+ * sketch; when a slice falls out of the window its counts are discarded, so the
+ * ranking decays and always reflects the most recent occurrences. Estimates never
+ * undercount and may overcount by a small fraction of the total on hash collisions;
+ * counters are raised with conservative update, which keeps that overcount low.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+public class HeavyHitters {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L};
+
+    private final int width;
+    private final int capacity;
+    private final long sliceMillis;
+    private final long[][][] counts;
+    private final long[] sliceIndex;
+
+    private final Map<Integer, Candidate> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::getCount));
+
+    /**
+     * Creates a tracker over a rolling window.
+     *
+     * @param window the length of the window
+     * @param slices the number of slices the window is divided in
+     * @param width the number of counters per sketch row
+     * @param capacity the maximum number of keys kept as top-K candidates
+     * @throws IllegalArgumentException if any argument is not positive
+     */
+    public HeavyHitters(Duration window, int slices, int width, int capacity) {
+        if (window.isZero() || window.isNegative() || slices <= 0 || width <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Window, slices, width and capacity must be positive");
+        }
+        this.width = width;
+        this.capacity = capacity;
+        this.sliceMillis = Math.max(1, window.toMillis() / slices);
+        this.counts = new long[slices][DEPTH][width];
+        this.sliceIndex = new long[slices];
+        Arrays.fill(sliceIndex, -1);
+    }
+
+    /**
+     * Records occurrences of a key observed at the given instant.
+     *
+     * @param key the key
+     * @param count the number of occurrences; non-positive values are ignored
+     * @param nowMillis the observation time in epoch milliseconds
+     */
+    public synchronized void add(int key, long count, long nowMillis) {
+        if (count <= 0) {
+            return;
+        }
+        long[][] slice = sliceFor(nowMillis);
+        if (slice == null) {
+            return;
+        }
+        // Conservative update: raise each row only as far as needed for the new estimate
+        long[] rowSums = rowSums(key, nowMillis);
+        long estimate = Arrays.stream(rowSums).min().orElse(0) + count;
+        for (int row = 0; row < DEPTH; row++) {
+            if (rowSums[row] < estimate) {
+                slice[row][column(key, row)] += estimate - rowSums[row];
+            }
+        }
+
+        Candidate candidate = candidates.get(key);
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.count = estimate;
+            heap.add(candidate);
+        } else if (candidates.size() < capacity) {
+            offer(key, estimate);
+        } else {
+            refreshMinimum(nowMillis);
+            if (estimate > heap.peek().count) {
+                candidates.remove(heap.poll().key);
+                offer(key, estimate);
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of occurrences of a key within the window.
+     *
+     * @param key the key
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the estimated count, never lower than the real one
+     */
+    public synchronized long estimate(int key, long nowMillis) {
+        return Arrays.stream(rowSums(key, nowMillis)).min().orElse(0);
+    }
+
+    /**
+     * Returns the keys with the highest estimated counts within the window.
+     *
+     * @param limit the maximum number of keys returned
+     * @param nowMillis the current time in epoch milliseconds
+     * @return key and estimated count pairs, highest count first
+     */
+    public synchronized List<Map.Entry<Integer, Long>> top(int limit, long nowMillis) {
+        heap.clear();
+        candidates.values().removeIf(candidate -> {
+            candidate.count = estimate(candidate.key, nowMillis);
+            return candidate.count == 0;
+        });
+        heap.addAll(candidates.values());
+
+        List<Map.Entry<Integer, Long>> top = new ArrayList<>(candidates.size());
+        candidates.values().forEach(candidate -> top.add(Map.entry(candidate.key, candidate.count)));
+        top.sort(Map.Entry.<Integer, Long>comparingByValue().reversed());
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    private void offer(int key, long estimate) {
+        Candidate candidate = new Candidate(key, estimate);
+        candidates.put(key, candidate);
+        heap.add(candidate);
+    }
+
+    // Stored counts go stale as slices expire, so re-estimate until the head is up to date
+    private void refreshMinimum(long nowMillis) {
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate minimum = heap.peek();
+            long estimate = estimate(minimum.key, nowMillis);
+            if (estimate == minimum.count) {
+                return;
+            }
+            heap.poll();
+            minimum.count = estimate;
+            heap.add(minimum);
+        }
+    }
+
+    // Returns null for occurrences older than the slice already occupying their position
+    private long[][] sliceFor(long nowMillis) {
+        long index = nowMillis / sliceMillis;
+        int position = (int) (index % counts.length);
+        if (sliceIndex[position] > index) {
+            return null;
+        }
+        if (sliceIndex[position] != index) {
+            for (long[] row : counts[position]) {
+                Arrays.fill(row, 0);
+            }
+            sliceIndex[position] = index;
+        }
+        return counts[position];
+    }
+
+    // Counter of the key in each row, summed over the slices within the window
+    private long[] rowSums(int key, long nowMillis) {
+        long current = nowMillis / sliceMillis;
+        long[] sums = new long[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            int column = column(key, row);
+            for (int position = 0; position < counts.length; position++) {
+                if (isLive(sliceIndex[position], current)) {
+                    sums[row] += counts[position][row][column];
+                }
+            }
+        }
+        return sums;
+    }
+
+    private boolean isLive(long index, long current) {
+        return index >= 0 && index > current - counts.length && index <= current;
+    }
+
+    private int column(int key, int row) {
+        long hash = (key + 1L) * SEEDS[row];
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) width);
+    }
+
+    private static final class Candidate {
+        private final int key;
+        private long count;
+
+        private Candidate(int key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+}
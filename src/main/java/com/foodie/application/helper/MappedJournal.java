@@ -0,0 +1,262 @@
+package com.foodie.application.helper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable append-only journal of byte records, stored in memory-mapped segment files.
+ * <p>
+ * Records are appended to the current segment and forced to disk before
+ * {@link #append(byte[])} returns, so an appended record survives a crash of the
+ * process or the machine. Each record is stored as its length, a CRC32C checksum and its
+ * bytes; reading stops at the first empty or corrupt record, so a write torn by a crash
+ * is ignored and later overwritten. Once the records up to a position have been
+ * processed they are marked with {@link #commit(long)}: the position is saved in the
+ * header of its segment, and fully processed segments are deleted.
+ * {@link #readUncommitted()} returns the records appended but not committed yet, which
+ * must be processed again after a restart.
+ * </p>
+ * <p>
+ * Positions are global and only grow: segment number times segment size plus the
+ * offset just past the record. Records must be committed in the order they were
+ * appended. This class is thread-safe.
+ * </p>
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+public class MappedJournal {
+
+    private static final int HEADER_BYTES = Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(.+)-(\\d{10})\\.journal");
+
+    /**
+     * Record read back from the journal.
+     *
+     * @param position the position just past the record, to commit once processed
+     * @param payload the bytes of the record
+     */
+    public record Entry(long position, byte[] payload) {
+    }
+
+    private final Path directory;
+    private final String name;
+    private final int segmentBytes;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long currentSegment;
+    private MappedByteBuffer current;
+
+    /**
+     * Opens the journal, creating the directory if needed, and positions appends after
+     * the last valid record.
+     *
+     * @param directory the directory holding the segment files
+     * @param name the prefix of the segment file names
+     * @param segmentBytes the size of each segment file, which bounds the size of a record
+     * @throws UncheckedIOException if the segments cannot be opened
+     */
+    public MappedJournal(Path directory, String name, int segmentBytes) {
+        if (segmentBytes <= HEADER_BYTES + RECORD_HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size is too small");
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches() && matcher.group(1).equals(name)) {
+                        long number = Long.parseLong(matcher.group(2));
+                        segments.put(number, map(number));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal " + name + " in " + directory, e);
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            currentSegment = segments.lastKey();
+            current = segments.get(currentSegment);
+            current.position(endOfRecords(current, checkpoint(current)));
+        }
+    }
+
+    /**
+     * Checks whether a directory holds segment files of a journal, without opening or creating any.
+     *
+     * @param directory the directory holding the segment files
+     * @param name the prefix of the segment file names
+     * @return true if at least one segment file of the journal exists
+     * @throws UncheckedIOException if the directory cannot be listed
+     */
+    public static boolean hasSegments(Path directory, String name) {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.anyMatch(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                return matcher.matches() && matcher.group(1).equals(name);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list journal " + name + " in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a record and forces it to disk.
+     *
+     * @param payload the bytes of the record
+     * @return the position just past the record
+     * @throws IllegalArgumentException if the record does not fit in a segment
+     */
+    public synchronized long append(byte[] payload) {
+        int size = RECORD_HEADER_BYTES + payload.length;
+        if (HEADER_BYTES + size > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a journal segment");
+        }
+        if (current.remaining() < size) {
+            openSegment(currentSegment + 1);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int start = current.position();
+        // The length is written last, so a torn record reads as the end of the journal
+        current.putInt(start + Integer.BYTES, (int) crc.getValue());
+        current.put(start + RECORD_HEADER_BYTES, payload);
+        current.force(start + Integer.BYTES, size - Integer.BYTES);
+        current.putInt(start, payload.length);
+        current.force(start, Integer.BYTES);
+        current.position(start + size);
+        return currentSegment * segmentBytes + current.position();
+    }
+
+    /**
+     * Reads the records appended but not committed yet, in the order they were appended.
+     *
+     * @return the uncommitted records
+     */
+    public synchronized List<Entry> readUncommitted() {
+        List<Entry> entries = new ArrayList<>();
+        segments.forEach((number, segment) -> {
+            int offset = checkpoint(segment);
+            int length;
+            while ((length = validRecordLength(segment, offset)) >= 0) {
+                byte[] payload = new byte[length];
+                segment.get(offset + RECORD_HEADER_BYTES, payload);
+                offset += RECORD_HEADER_BYTES + length;
+                entries.add(new Entry(number * segmentBytes + offset, payload));
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Marks every record up to a position as processed, deleting the segments that
+     * hold no unprocessed record.
+     *
+     * @param position a position returned by {@link #append(byte[])} or read with an entry
+     */
+    public synchronized void commit(long position) {
+        long number = position / segmentBytes;
+        int offset = (int) (position % segmentBytes);
+        if (offset == 0 && number > 0) {
+            // Just past the end of the previous segment
+            number--;
+            offset = segmentBytes;
+        }
+        MappedByteBuffer segment = segments.get(number);
+        if (segment != null) {
+            segment.putLong(0, offset);
+            segment.force(0, HEADER_BYTES);
+        }
+        while (!segments.isEmpty() && segments.firstKey() < number) {
+            deleteSegment(segments.firstKey());
+        }
+        if (segment != null && number < currentSegment && offset >= endOfRecords(segment, offset)) {
+            deleteSegment(number);
+        }
+    }
+
+    private void openSegment(long number) {
+        try {
+            MappedByteBuffer segment = map(number);
+            segment.putLong(0, HEADER_BYTES);
+            segment.force(0, HEADER_BYTES);
+            segment.position(HEADER_BYTES);
+            segments.put(number, segment);
+            currentSegment = number;
+            current = segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + number + " of " + name, e);
+        }
+    }
+
+    private MappedByteBuffer map(long number) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private void deleteSegment(long number) {
+        segments.remove(number);
+        try {
+            Files.deleteIfExists(segmentPath(number));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete journal segment " + number + " of " + name, e);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s-%010d.journal", name, number));
+    }
+
+    // Offset of the first unprocessed record of a segment; a new file reads as zero
+    private int checkpoint(MappedByteBuffer segment) {
+        long checkpoint = segment.getLong(0);
+        return checkpoint < HEADER_BYTES || checkpoint > segmentBytes ? HEADER_BYTES : (int) checkpoint;
+    }
+
+    private int endOfRecords(MappedByteBuffer segment, int offset) {
+        int length;
+        while ((length = validRecordLength(segment, offset)) >= 0) {
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    // Length of the record at an offset, or -1 if there is no complete record there
+    private int validRecordLength(MappedByteBuffer segment, int offset) {
+        if (offset + RECORD_HEADER_BYTES > segmentBytes) {
+            return -1;
+        }
+        int length = segment.getInt(offset);
+        if (length <= 0 || length > segmentBytes - offset - RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        byte[] payload = new byte[length];
+        segment.get(offset + RECORD_HEADER_BYTES, payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue() == segment.getInt(offset + Integer.BYTES) ? length : -1;
+    }
+}
@@ -1,8 +1,11 @@
 package com.foodie.application.helper;
 
 import com.foodie.application.domain.Order;
+import com.foodie.application.domain.OrderStatus;
 import com.foodie.application.domain.ProductList;
 import lombok.experimental.UtilityClass;
+
+import java.time.Instant;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -164,4 +167,46 @@ public class OrderHelper {
                                 item.getQuantity() >= 0
                 );
     }
-}
\ No newline at end of file
+
+    /**
+     * Changes the status of the order and stamps the transition time.
+     * The specific timestamp of the new status is only set the first time it is reached,
+     * while the status change time always reflects the latest transition.
+     *
+     * @param order the order entity to update
+     * @param newStatus the status the order moves to
+     * @param at the instant of the transition
+     * @throws IllegalArgumentException if order or newStatus is null
+     */
+    public static void changeStatus(Order order, OrderStatus newStatus, Instant at) {
+        if (order == null || newStatus == null) {
+            throw new IllegalArgumentException("Order and status cannot be null");
+        }
+
+        order.setStatus(newStatus);
+        order.setStatusChangedAt(at);
+        switch (newStatus) {
+            case PENDING -> {
+                if (order.getCreatedAt() == null) order.setCreatedAt(at);
+            }
+            case CONFIRMED -> {
+                if (order.getConfirmedAt() == null) order.setConfirmedAt(at);
+            }
+            case PREPARING -> {
+                if (order.getPreparingAt() == null) order.setPreparingAt(at);
+            }
+            case READY -> {
+                if (order.getReadyAt() == null) order.setReadyAt(at);
+            }
+            case COMPLETED -> {
+                if (order.getCompletedAt() == null) order.setCompletedAt(at);
+            }
+            case CANCELLED, FAILED -> {
+                if (order.getCancelledAt() == null) order.setCancelledAt(at);
+            }
+            default -> {
+                // ON_THE_WAY only updates the status change time
+            }
+        }
+    }
+}
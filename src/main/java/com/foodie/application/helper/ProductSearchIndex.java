@@ -0,0 +1,281 @@
+package com.foodie.application.helper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index of products with typo tolerance.
+ * <p>
+ * Product names, descriptions, ingredients and allergens are folded (lower case,
+ * without accents) and split into terms. An inverted index maps every term to the
+ * products containing it, and a trigram index over the vocabulary finds the terms
+ * close to a query word, which are then verified with a bounded edit distance.
+ * Query words match exact terms, prefixes (for search as you type) and terms with
+ * up to one or two typos depending on their length; every query word must match.
+ * </p>
+ * <p>
+ * Products are added, replaced and removed individually, so the index is kept up
+ * to date without rebuilding it. This class is thread-safe.
+ * </p>
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+public class ProductSearchIndex {
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double INGREDIENT_WEIGHT = 2.0;
+    private static final double ALLERGEN_WEIGHT = 1.5;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.8;
+    private static final double FUZZY_MATCH = 0.6;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "o", "para", "por", "sin", "su", "un", "una", "y");
+
+    private final Map<Integer, Map<String, Double>> documents = new HashMap<>();
+    private final Map<String, Map<Integer, Double>> postings = new HashMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a product to the index, replacing any previous version of it.
+     *
+     * @param productId the ID of the product
+     * @param name the product name
+     * @param description the product description, may be null
+     * @param ingredients the ingredient names, may be null
+     * @param allergens the allergen names, may be null
+     */
+    public void put(int productId, String name, String description,
+                    Collection<String> ingredients, Collection<String> allergens) {
+        Map<String, Double> terms = new HashMap<>();
+        addTerms(terms, description, DESCRIPTION_WEIGHT);
+        if (allergens != null) {
+            allergens.forEach(allergen -> addTerms(terms, allergen, ALLERGEN_WEIGHT));
+        }
+        if (ingredients != null) {
+            ingredients.forEach(ingredient -> addTerms(terms, ingredient, INGREDIENT_WEIGHT));
+        }
+        addTerms(terms, name, NAME_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+            documents.put(productId, terms);
+            terms.forEach((term, weight) -> {
+                Map<Integer, Double> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    termPostings = new HashMap<>();
+                    postings.put(term, termPostings);
+                    for (String gram : trigramsOf(term, true)) {
+                        trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                    }
+                }
+                termPostings.put(productId, weight);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param productId the ID of the product
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every product from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            trigrams.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed products.
+     *
+     * @return the number of products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the products matching every word of a query.
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of results
+     * @return the IDs of the matching products, best match first; empty for a blank query
+     */
+    public List<Integer> search(String query, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (String word : words) {
+                Map<Integer, Double> wordScores = new HashMap<>();
+                matchTerms(word).forEach((term, quality) ->
+                        postings.get(term).forEach((productId, weight) ->
+                                wordScores.merge(productId, quality * weight, Math::max)));
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((productId, score) -> score + wordScores.get(productId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Vocabulary terms close to a query word, with the quality of the match
+    private Map<String, Double> matchTerms(String word) {
+        int maxEdits = word.length() <= 3 ? 0 : word.length() <= 6 ? 1 : 2;
+        Set<String> candidates = new HashSet<>();
+        for (String gram : trigramsOf(word, false)) {
+            Set<String> terms = trigrams.get(gram);
+            if (terms != null) {
+                candidates.addAll(terms);
+            }
+        }
+
+        Map<String, Double> matches = new HashMap<>();
+        for (String term : candidates) {
+            if (term.equals(word)) {
+                matches.put(term, EXACT_MATCH);
+            } else if (term.startsWith(word)) {
+                matches.put(term, PREFIX_MATCH);
+            } else if (maxEdits > 0 && Math.abs(term.length() - word.length()) <= maxEdits) {
+                int distance = editDistance(word, term, maxEdits);
+                if (distance <= maxEdits) {
+                    matches.put(term, FUZZY_MATCH / distance);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void removeDocument(int productId) {
+        Map<String, Double> terms = documents.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Integer, Double> termPostings = postings.get(term);
+            termPostings.remove(productId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                for (String gram : trigramsOf(term, true)) {
+                    Set<String> gramTerms = trigrams.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Double> terms, String text, double weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TextHelper.fold(text).split("[^\\p{Alnum}]+")) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Terms are padded at both ends; query words only at the start, so prefixes share all their trigrams
+    private static Set<String> trigramsOf(String term, boolean padEnd) {
+        String padded = "$$" + term + (padEnd ? "$" : "");
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Optimal string alignment distance, giving up as soon as it exceeds max
+    private static int editDistance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,157 @@
+package com.foodie.application.helper;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Streaming histogram of durations over a rolling time window.
+ * <p>
+ * Values are counted in logarithmic buckets that grow by {@link #GROWTH} each,
+ * so percentiles are answered with a bounded relative error (about 5%) using
+ * constant memory, without keeping the individual samples. The window is split
+ * into slices; when a slice falls out of the window its counts are discarded,
+ * so percentiles always reflect the most recent samples.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+public class RollingHistogram {
+
+    private static final double GROWTH = 1.1;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    // 1 ms .. ~8 days
+    private static final int BUCKETS = (int) Math.ceil(Math.log(Duration.ofDays(8).toMillis()) / LOG_GROWTH) + 1;
+
+    private final long sliceMillis;
+    private final long[][] counts;
+    private final long[] sliceIndex;
+
+    /**
+     * Creates a histogram over a rolling window.
+     *
+     * @param window the length of the window
+     * @param slices the number of slices the window is divided in
+     * @throws IllegalArgumentException if the window or number of slices is not positive
+     */
+    public RollingHistogram(Duration window, int slices) {
+        if (window.isZero() || window.isNegative() || slices <= 0) {
+            throw new IllegalArgumentException("Window and slices must be positive");
+        }
+        this.sliceMillis = Math.max(1, window.toMillis() / slices);
+        this.counts = new long[slices][BUCKETS];
+        this.sliceIndex = new long[slices];
+        Arrays.fill(sliceIndex, -1);
+    }
+
+    /**
+     * Records a duration observed at the given instant.
+     *
+     * @param value the observed duration; negative values are ignored
+     * @param nowMillis the observation time in epoch milliseconds
+     */
+    public synchronized void record(Duration value, long nowMillis) {
+        long millis = value.toMillis();
+        if (millis < 0) {
+            return;
+        }
+        long[] slice = sliceFor(nowMillis);
+        if (slice != null) {
+            slice[bucketOf(millis)]++;
+        }
+    }
+
+    /**
+     * Returns the number of samples within the window.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the number of samples
+     */
+    public synchronized long count(long nowMillis) {
+        long total = 0;
+        for (long bucketCount : merged(nowMillis)) {
+            total += bucketCount;
+        }
+        return total;
+    }
+
+    /**
+     * Estimates a percentile of the samples within the window.
+     *
+     * @param quantile the quantile between 0 and 1 (e.g. 0.95)
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the estimated duration, or {@link Duration#ZERO} if there are no samples
+     * @throws IllegalArgumentException if quantile is outside [0, 1]
+     */
+    public synchronized Duration percentile(double quantile, long nowMillis) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        long[] merged = merged(nowMillis);
+        long total = 0;
+        for (long bucketCount : merged) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < merged.length; bucket++) {
+            seen += merged[bucket];
+            if (seen >= rank) {
+                return Duration.ofMillis(representative(bucket));
+            }
+        }
+        return Duration.ofMillis(representative(merged.length - 1));
+    }
+
+    // Returns null for samples older than the slice already occupying their position
+    private long[] sliceFor(long nowMillis) {
+        long index = nowMillis / sliceMillis;
+        int position = (int) (index % counts.length);
+        if (sliceIndex[position] > index) {
+            return null;
+        }
+        if (sliceIndex[position] != index) {
+            Arrays.fill(counts[position], 0);
+            sliceIndex[position] = index;
+        }
+        return counts[position];
+    }
+
+    private long[] merged(long nowMillis) {
+        long current = nowMillis / sliceMillis;
+        long[] merged = new long[BUCKETS];
+        for (int position = 0; position < counts.length; position++) {
+            long index = sliceIndex[position];
+            if (index >= 0 && index > current - counts.length && index <= current) {
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    merged[bucket] += counts[position][bucket];
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static int bucketOf(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, (int) (Math.log(millis) / LOG_GROWTH) + 1);
+    }
+
+    // Geometric middle of the bucket, which bounds the relative error to half the growth factor
+    private static long representative(int bucket) {
+        if (bucket == 0) {
+            return 1;
+        }
+        double lower = Math.pow(GROWTH, bucket - 1);
+        return Math.round(lower * Math.sqrt(GROWTH));
+    }
+}
@@ -0,0 +1,36 @@
+package com.foodie.application.helper;
+
+import lombok.experimental.UtilityClass;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class providing text normalization helpers used for matching
+ * user input against catalog names.
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+@UtilityClass
+public class TextHelper {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Folds a text for comparison: trims it, removes accents and diacritics
+     * (so "Jamón" and "jamon" are equal) and converts it to lower case.
+     *
+     * @param text the text to fold, may be null
+     * @return the folded text, or an empty string for null
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
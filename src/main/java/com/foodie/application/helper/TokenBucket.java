@@ -0,0 +1,74 @@
+package com.foodie.application.helper;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * The bucket holds up to {@code capacity} tokens and regains one every refill interval.
+ * Instead of a token count and a refill timestamp, its whole state is the instant at
+ * which it will be full again (the generic cell rate algorithm), kept in a single
+ * {@link AtomicLong} and updated with compare-and-set, so concurrent callers never block.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Foodie Team
+ * @version 1.0
+ * @since 2025
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity the maximum number of tokens, which is the largest burst allowed
+     * @param refillInterval the time to regain one token
+     * @param nowNanos the current time, from {@link System#nanoTime()}
+     * @throws IllegalArgumentException if the capacity or the interval is not positive
+     */
+    public TokenBucket(int capacity, Duration refillInterval, long nowNanos) {
+        if (capacity <= 0 || refillInterval.isZero() || refillInterval.isNegative()) {
+            throw new IllegalArgumentException("Capacity and refill interval must be positive");
+        }
+        this.intervalNanos = refillInterval.toNanos();
+        this.toleranceNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token if there is any.
+     *
+     * @param nowNanos the current time, from {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current - nowNanos, 0) + intervalNanos;
+            if (next > toleranceNanos) {
+                return next - toleranceNanos;
+            }
+            if (fullAt.compareAndSet(current, nowNanos + next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Tells how long until a token is available, without taking it.
+     *
+     * @param nowNanos the current time, from {@link System#nanoTime()}
+     * @return 0 if a token is available, otherwise the nanoseconds until one is
+     */
+    public long waitTime(long nowNanos) {
+        long next = Math.max(fullAt.get() - nowNanos, 0) + intervalNanos;
+        return Math.max(next - toleranceNanos, 0);
+    }
+}
@@ -3,5 +3,14 @@ package com.foodie.application.repository;
 import com.foodie.application.domain.Establishment;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface EstablishmentRepository extends JpaRepository<Establishment, Integer> {
+
+    /**
+     * Finds the establishment the application runs, which is the first one created.
+     *
+     * @return the establishment, if any
+     */
+    Optional<Establishment> findFirstByOrderByIdAsc();
 }
@@ -2,9 +2,126 @@ package com.foodie.application.repository;
 
 import com.foodie.application.domain.MenuItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MenuItemRepository extends JpaRepository<MenuItem, Integer> {
+
+    // Applies the discount of each menu item to the price of its product, rounding to cents
+    String DISCOUNTED_PRICE_UPDATE = "UPDATE menu_item mi SET discounted_price = CASE " +
+            "WHEN mi.discount_percentage > 0 THEN ROUND(CAST(p.price * (100 - mi.discount_percentage) AS numeric)) / 100 " +
+            "ELSE p.price END FROM product p WHERE p.id = mi.product_id ";
+
     List<MenuItem> findByMenuId(Integer menuId);
-}
\ No newline at end of file
+
+    boolean existsByMenuIdAndProductId(Integer menuId, Integer productId);
+
+    /**
+     * Finds the position following the last item of a menu.
+     *
+     * @param menuId the menu ID
+     * @return the position for a new item, 0 for an empty menu
+     */
+    @Query("SELECT COALESCE(MAX(mi.position) + 1, 0) FROM MenuItem mi WHERE mi.menu.id = :menuId")
+    int findNextPosition(@Param("menuId") Integer menuId);
+
+    /**
+     * Removes products from a menu with a single statement.
+     *
+     * @param menuId the menu ID
+     * @param productIds the IDs of the products to remove
+     * @return the number of menu items deleted
+     */
+    @Modifying
+    @Query("DELETE FROM MenuItem mi WHERE mi.menu.id = :menuId AND mi.product.id IN :productIds")
+    int deleteByMenuIdAndProductIds(@Param("menuId") Integer menuId, @Param("productIds") Collection<Integer> productIds);
+
+    /**
+     * Updates the featured flag and discount of a product in a menu with a single
+     * statement, recomputing its discounted price like {@code MenuItem#discountedPrice}.
+     *
+     * @param menuId the menu ID
+     * @param productId the product ID
+     * @param featured whether the item is featured
+     * @param discountPercentage the discount percentage, may be null
+     * @return the number of menu items updated, 0 if the product is not in the menu
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE menu_item mi SET featured = CAST(:featured AS boolean), " +
+            "discount_percentage = CAST(:discount AS integer), discounted_price = CASE " +
+            "WHEN CAST(:discount AS integer) > 0 THEN ROUND(CAST(p.price * (100 - CAST(:discount AS integer)) AS numeric)) / 100 " +
+            "ELSE p.price END FROM product p " +
+            "WHERE p.id = mi.product_id AND mi.menu_id = :menuId AND mi.product_id = :productId", nativeQuery = true)
+    int updateByMenuIdAndProductId(@Param("menuId") Integer menuId, @Param("productId") Integer productId,
+                                   @Param("featured") Boolean featured, @Param("discount") Integer discountPercentage);
+
+    /**
+     * Entry of a product in a menu, with the ID and name of the menu.
+     */
+    interface MenuEntry {
+        Integer getProductId();
+
+        Integer getMenuId();
+
+        String getMenuName();
+
+        Boolean getFeatured();
+
+        Integer getDiscountPercentage();
+
+        Double getDiscountedPrice();
+    }
+
+    /**
+     * Finds the menu entries of every product with a single query.
+     *
+     * @return one row per menu item, ordered by menu and item
+     */
+    @Query("SELECT mi.product.id AS productId, m.id AS menuId, m.name AS menuName, mi.featured AS featured, " +
+            "mi.discountPercentage AS discountPercentage, mi.discountedPrice AS discountedPrice " +
+            "FROM MenuItem mi JOIN mi.menu m ORDER BY m.id, mi.position, mi.id")
+    List<MenuEntry> findAllEntries();
+
+    /**
+     * Current price of a product, the lowest of its menu items after discount.
+     */
+    interface ProductPrice {
+        Integer getProductId();
+
+        Double getPrice();
+    }
+
+    /**
+     * Finds the current price of products with a single query.
+     *
+     * @param productIds the product IDs
+     * @return the price of every product offered in some menu
+     */
+    @Query("SELECT mi.product.id AS productId, MIN(COALESCE(mi.discountedPrice, mi.product.price)) AS price " +
+            "FROM MenuItem mi WHERE mi.product.id IN :productIds GROUP BY mi.product.id")
+    List<ProductPrice> findPrices(@Param("productIds") Collection<Integer> productIds);
+
+    /**
+     * Recomputes the stored discounted price of the menu items of some products,
+     * e.g. after their price changed. Rounds like {@code MenuItem#discountedPrice}.
+     *
+     * @param productIds the product IDs
+     * @return the number of menu items updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = DISCOUNTED_PRICE_UPDATE + "AND mi.product_id IN (:productIds)", nativeQuery = true)
+    int refreshDiscountedPrices(@Param("productIds") Collection<Integer> productIds);
+
+    /**
+     * Recomputes the stored discounted price of every menu item.
+     *
+     * @return the number of menu items updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = DISCOUNTED_PRICE_UPDATE, nativeQuery = true)
+    int refreshAllDiscountedPrices();
+}
@@ -0,0 +1,141 @@
+package com.foodie.application.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves names of a catalog dictionary table (an identity {@code id} and a unique
+ * {@code name}, such as ingredients or allergens) to their IDs, creating the missing ones.
+ * <p>
+ * Known names are answered from an in-memory dictionary. The rest are resolved with
+ * one set-based select and, for names that still do not exist, one batch
+ * {@code INSERT ... ON CONFLICT (name) DO NOTHING RETURNING}, so a concurrent creation
+ * of the same name never fails; names that lost such a race are selected again.
+ * IDs of newly inserted rows are only remembered once the transaction commits.
+ * </p>
+ * <p>
+ * The SQL is PostgreSQL specific. This class is thread-safe.
+ * </p>
+ */
+public class NameIdDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String selectSql;
+    private final String insertSql;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a dictionary over a table.
+     *
+     * @param jdbcTemplate the JDBC template, sharing the connection of the current transaction
+     * @param table the name of the table, with {@code id} and unique {@code name} columns
+     */
+    public NameIdDictionary(JdbcTemplate jdbcTemplate, String table) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.selectSql = "SELECT id, name FROM " + table + " WHERE name = ANY (?)";
+        this.insertSql = "INSERT INTO " + table + " (name) SELECT unnest(?) " +
+                "ON CONFLICT (name) DO NOTHING RETURNING id, name";
+    }
+
+    /**
+     * Resolves names to IDs, inserting the names that do not exist yet.
+     *
+     * @param names the names to resolve
+     * @return the ID of every name
+     * @throws IllegalStateException if a name could not be resolved nor inserted
+     */
+    public Map<String, Integer> resolve(Collection<String> names) {
+        Map<String, Integer> resolved = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                resolved.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            ids.putAll(query(selectSql, missing, resolved));
+        }
+        if (!missing.isEmpty()) {
+            rememberAfterCommit(query(insertSql, missing, resolved));
+        }
+        if (!missing.isEmpty()) {
+            // Inserted by a concurrent transaction after our select
+            ids.putAll(query(selectSql, missing, resolved));
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Could not resolve names: " + missing);
+        }
+        return resolved;
+    }
+
+    /**
+     * Remembers the ID of a name created elsewhere, once the current transaction commits.
+     *
+     * @param name the name
+     * @param id the ID of the row
+     */
+    public void put(String name, Integer id) {
+        rememberAfterCommit(Map.of(name, id));
+    }
+
+    /**
+     * Forgets every known name, e.g. after a rename or a deletion. The dictionary is
+     * cleared again when the current transaction commits, dropping entries that
+     * concurrent readers could have loaded in between.
+     */
+    public void clear() {
+        ids.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.clear();
+                }
+            });
+        }
+    }
+
+    // Runs the statement for the missing names, moving the rows found from missing to resolved
+    private Map<String, Integer> query(String sql, Set<String> missing, Map<String, Integer> resolved) {
+        Map<String, Integer> found = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("varchar", missing.toArray()));
+            return statement;
+        }, rs -> {
+            found.put(rs.getString("name"), rs.getInt("id"));
+        });
+        resolved.putAll(found);
+        missing.removeAll(found.keySet());
+        return found;
+    }
+
+    private void rememberAfterCommit(Map<String, Integer> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.putAll(created);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.putAll(created);
+            }
+        });
+    }
+}
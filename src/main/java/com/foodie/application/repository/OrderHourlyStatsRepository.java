@@ -0,0 +1,62 @@
+package com.foodie.application.repository;
+
+import com.foodie.application.domain.OrderHourlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for the hourly order rollup.
+ * <p>
+ * Counters are incremented with single-statement upserts so concurrent orders
+ * in the same hour never lose updates.
+ * </p>
+ */
+public interface OrderHourlyStatsRepository extends JpaRepository<OrderHourlyStats, Long> {
+
+    /**
+     * Adds one order to the rollup bucket of the given day and hour.
+     *
+     * @param date the local day of the order
+     * @param hour the local hour of the order (0-23)
+     * @param items the number of items in the order
+     * @param revenue the total amount of the order
+     * @return the number of affected rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_hourly_stats (bucket_date, bucket_hour, order_count, item_count, revenue, cancelled_count) " +
+            "VALUES (:date, :hour, 1, :items, :revenue, 0) " +
+            "ON CONFLICT (bucket_date, bucket_hour) DO UPDATE SET " +
+            "order_count = order_hourly_stats.order_count + 1, " +
+            "item_count = order_hourly_stats.item_count + EXCLUDED.item_count, " +
+            "revenue = order_hourly_stats.revenue + EXCLUDED.revenue", nativeQuery = true)
+    int recordOrder(@Param("date") LocalDate date, @Param("hour") int hour,
+                    @Param("items") int items, @Param("revenue") double revenue);
+
+    /**
+     * Counts one cancelled order in the rollup bucket where the order was created.
+     *
+     * @param date the local day the order was created
+     * @param hour the local hour the order was created (0-23)
+     * @return the number of affected rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_hourly_stats (bucket_date, bucket_hour, order_count, item_count, revenue, cancelled_count) " +
+            "VALUES (:date, :hour, 0, 0, 0, 1) " +
+            "ON CONFLICT (bucket_date, bucket_hour) DO UPDATE SET " +
+            "cancelled_count = order_hourly_stats.cancelled_count + 1", nativeQuery = true)
+    int recordCancellation(@Param("date") LocalDate date, @Param("hour") int hour);
+
+    /**
+     * Finds the rollup rows within a date range.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return the hourly rows of the range
+     */
+    List<OrderHourlyStats> findByBucketDateBetween(LocalDate startDate, LocalDate endDate);
+}
@@ -2,12 +2,18 @@ package com.foodie.application.repository;
 
 import com.foodie.application.domain.Order;
 import com.foodie.application.domain.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Order entity.
@@ -18,6 +24,11 @@ import java.util.List;
  */
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 
+    /**
+     * Number of rows fetched per round trip when streaming orders.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
     /**
      * Finds all orders placed by a specific user.
      *
@@ -34,6 +45,24 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
      */
     List<Order> findByStatus(OrderStatus status);
 
+    /**
+     * Finds the IDs of the orders in any of the given statuses.
+     *
+     * @param statuses the statuses to filter by
+     * @return the IDs of the matching orders
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses")
+    List<Integer> findIdsByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    /**
+     * Finds the ID of the order placed by a checkout attempt.
+     *
+     * @param idempotencyKey the key of the checkout attempt
+     * @return the ID of the order, if the attempt placed one
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.idempotencyKey = :idempotencyKey")
+    Optional<Integer> findIdByIdempotencyKey(@Param("idempotencyKey") String idempotencyKey);
+
     /**
      * Finds all orders created within a specified date range.
      * <p>
@@ -62,4 +91,28 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByStatusAndDateRange(@Param("status") OrderStatus status,
                                          @Param("startDate") LocalDate startDate,
                                          @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+
+    /**
+     * Streams the orders created within a date range, optionally restricted to one status.
+     * <p>
+     * The result is read through a forward-only cursor using the JDBC fetch size hint,
+     * so rows are pulled from the database in chunks instead of being materialized at once.
+     * Must be consumed inside a transaction and closed after use.
+     * </p>
+     *
+     * @param status the OrderStatus to filter by, or null for every status
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return a stream of orders ordered by date and ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.payment " +
+            "WHERE (:status IS NULL OR o.status = :status) AND o.date >= :startDate AND o.date <= :endDate " +
+            "ORDER BY o.date, o.id")
+    Stream<Order> streamByStatusAndDateRange(@Param("status") OrderStatus status,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+}
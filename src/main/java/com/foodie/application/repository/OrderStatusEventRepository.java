@@ -0,0 +1,29 @@
+package com.foodie.application.repository;
+
+import com.foodie.application.domain.OrderStatusEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for the order status transition log.
+ */
+public interface OrderStatusEventRepository extends JpaRepository<OrderStatusEvent, Long> {
+
+    /**
+     * Finds the transitions of one order in chronological order.
+     *
+     * @param orderId the ID of the order
+     * @return the status history of the order
+     */
+    List<OrderStatusEvent> findByOrderIdOrderByChangedAtAsc(Integer orderId);
+
+    /**
+     * Finds the transitions that happened after an instant and carry a duration.
+     *
+     * @param since the lower bound (exclusive)
+     * @return the transitions with a known time in the previous status
+     */
+    List<OrderStatusEvent> findByChangedAtAfterAndDurationMsNotNull(Instant since);
+}
@@ -1,9 +1,53 @@
 package com.foodie.application.repository;
 
 import com.foodie.application.domain.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
+/**
+ * Repository interface for Product entity.
+ * <p>
+ * Besides the entity queries, it provides set-based queries returning the allergen
+ * and ingredient names of every product, so the whole catalog can be assembled
+ * with a fixed number of queries instead of one per product and association.
+ * </p>
+ */
 public interface ProductRepository extends JpaRepository<Product, Integer> {
-}
\ No newline at end of file
+
+    /**
+     * Name of an allergen or ingredient linked to a product.
+     */
+    interface ProductAssociationName {
+        Integer getProductId();
+
+        String getName();
+    }
+
+    /**
+     * Finds all products with their allergens fetched in the same query.
+     *
+     * @return all products ordered by ID
+     */
+    @EntityGraph(attributePaths = "allergens")
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    List<Product> findAllWithAllergens();
+
+    /**
+     * Finds the allergen names of every product.
+     *
+     * @return one row per product and allergen
+     */
+    @Query("SELECT p.id AS productId, a.name AS name FROM Product p JOIN p.allergens a")
+    List<ProductAssociationName> findAllAllergenNames();
+
+    /**
+     * Finds the ingredient names of every product.
+     *
+     * @return one row per product and ingredient
+     */
+    @Query("SELECT p.id AS productId, i.name AS name FROM Product p JOIN p.ingredients i")
+    List<ProductAssociationName> findAllIngredientNames();
+}
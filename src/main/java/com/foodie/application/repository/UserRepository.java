@@ -1,8 +1,12 @@
 package com.foodie.application.repository;
 
 import com.foodie.application.domain.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
@@ -10,4 +14,36 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+    List<User> findByRoleId(Integer roleId);
+
+    /**
+     * Condition of the user search: the lowercase username, email or a word of the full name
+     * starts with the pattern, which the trigram indexes created by UserService serve.
+     */
+    String SEARCH_CONDITION = "(LOWER(u.username) LIKE :prefix ESCAPE '\\' " +
+            "OR LOWER(u.email) LIKE :prefix ESCAPE '\\' " +
+            "OR LOWER(u.fullName) LIKE :prefix ESCAPE '\\' " +
+            "OR LOWER(u.fullName) LIKE CONCAT('% ', :prefix) ESCAPE '\\') " +
+            "AND (:roleId IS NULL OR u.role.id = :roleId)";
+
+    /**
+     * Finds a page of users matching a search, with their roles.
+     *
+     * @param prefix the lowercase prefix followed by {@code %}, with {@code %}, {@code _} and {@code \} escaped
+     * @param roleId the ID of the role of the users, or null for any role
+     * @param pageable the page and sort order
+     * @return the users of the page
+     */
+    @Query("SELECT u FROM User u JOIN FETCH u.role WHERE " + SEARCH_CONDITION)
+    List<User> search(@Param("prefix") String prefix, @Param("roleId") Integer roleId, Pageable pageable);
+
+    /**
+     * Counts the users matching a search.
+     *
+     * @param prefix the lowercase prefix, as in {@link #search}
+     * @param roleId the ID of the role of the users, or null for any role
+     * @return the number of matching users
+     */
+    @Query("SELECT COUNT(u) FROM User u WHERE " + SEARCH_CONDITION)
+    long countSearch(@Param("prefix") String prefix, @Param("roleId") Integer roleId);
+}
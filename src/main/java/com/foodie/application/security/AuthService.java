@@ -3,6 +3,7 @@ package com.foodie.application.security;
 import com.foodie.application.domain.User;
 import com.foodie.application.repository.UserRepository;
 import com.foodie.application.service.RoleService;
+import com.foodie.application.service.UserService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -15,11 +16,14 @@ public class AuthService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final RoleService roleService;
+    private final UserService userService;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleService roleService) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleService roleService,
+                       UserService userService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.roleService = roleService;
+        this.userService = userService;
     }
 
     @Override
@@ -42,6 +46,11 @@ public class AuthService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Registers a user with a single insert; the role is looked up in the roles cache.
+     *
+     * @throws IllegalArgumentException if the username or email is already taken
+     */
     public User registerUser(String username, String password, String email, String role) {
         User newUser = User.builder()
                 .username(username)
@@ -50,6 +59,6 @@ public class AuthService implements UserDetailsService {
                 .role(roleService.findOrCreateRole(role.toUpperCase()))
                 .build();
 
-        return userRepository.save(newUser);
+        return userService.createUser(newUser);
     }
 }
@@ -0,0 +1,178 @@
+package com.foodie.application.security;
+
+import com.foodie.application.helper.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rate limiter of login and registration attempts, checked before any password is hashed.
+ * <p>
+ * Each attempt takes a token from the bucket of the client IP for the endpoint, and is
+ * rejected if it is empty. Registrations also take a token from the bucket of the
+ * username. For logins, the username bucket is kept per client IP and only failed
+ * attempts take tokens from it, so successful logins are never limited by it and
+ * nobody can lock a user out from another address by sending wrong passwords. Buckets are
+ * {@link TokenBucket}s kept in bounded Caffeine caches, which are striped and lock-free
+ * on reads, and expire once unused for as long as an empty bucket takes to fill up, so
+ * forgetting them never lets an extra attempt through. Allowed and rejected attempts
+ * are counted in the {@code foodie.auth.rate.limit} meter.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Component
+public class AuthenticationRateLimiter {
+
+    /**
+     * Endpoints with their own buckets.
+     */
+    public enum Endpoint {
+        LOGIN,
+        REGISTER
+    }
+
+    private final boolean enabled;
+    private final int ipCapacity;
+    private final Duration ipRefillInterval;
+    private final int usernameCapacity;
+    private final Duration usernameRefillInterval;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> usernameBuckets;
+    private final Map<Endpoint, Counter> allowed = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> rejectedByIp = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> rejectedByUsername = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Constructs an AuthenticationRateLimiter and registers its meters.
+     *
+     * @param meterRegistry the registry the counters are published to
+     * @param enabled whether attempts are limited at all
+     * @param ipCapacity the burst of attempts allowed per client IP
+     * @param ipRefillSeconds the seconds to regain one attempt per client IP
+     * @param usernameCapacity the burst of attempts allowed per username
+     * @param usernameRefillSeconds the seconds to regain one attempt per username
+     * @param maxBuckets the maximum number of buckets kept per kind of key
+     */
+    public AuthenticationRateLimiter(MeterRegistry meterRegistry,
+                                     @Value("${foodie.security.rate-limit.enabled:true}") boolean enabled,
+                                     @Value("${foodie.security.rate-limit.ip.capacity:20}") int ipCapacity,
+                                     @Value("${foodie.security.rate-limit.ip.refill-seconds:6}") long ipRefillSeconds,
+                                     @Value("${foodie.security.rate-limit.username.capacity:5}") int usernameCapacity,
+                                     @Value("${foodie.security.rate-limit.username.refill-seconds:60}") long usernameRefillSeconds,
+                                     @Value("${foodie.security.rate-limit.max-buckets:100000}") long maxBuckets) {
+        this.enabled = enabled;
+        this.ipCapacity = ipCapacity;
+        this.ipRefillInterval = Duration.ofSeconds(ipRefillSeconds);
+        this.usernameCapacity = usernameCapacity;
+        this.usernameRefillInterval = Duration.ofSeconds(usernameRefillSeconds);
+        this.ipBuckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(ipRefillInterval.multipliedBy(ipCapacity))
+                .build();
+        this.usernameBuckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(usernameRefillInterval.multipliedBy(usernameCapacity))
+                .build();
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            allowed.put(endpoint, counter(meterRegistry, endpoint, "allowed"));
+            rejectedByIp.put(endpoint, counter(meterRegistry, endpoint, "rejected_ip"));
+            rejectedByUsername.put(endpoint, counter(meterRegistry, endpoint, "rejected_username"));
+        }
+        Gauge.builder("foodie.auth.rate.limit.buckets", ipBuckets, Cache::estimatedSize)
+                .description("Number of rate limit buckets in memory")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("foodie.auth.rate.limit.buckets", usernameBuckets, Cache::estimatedSize)
+                .description("Number of rate limit buckets in memory")
+                .tag("key", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token for an attempt from the buckets of its client IP and, for
+     * registrations, its username. Logins are only checked against the failed attempts
+     * recorded for the username from the same IP.
+     *
+     * @param endpoint the endpoint attempted
+     * @param ip the address of the client
+     * @param username the username attempted, may be null or blank
+     * @return {@link Duration#ZERO} if the attempt is allowed, otherwise how long to wait before retrying
+     */
+    public Duration tryAcquire(Endpoint endpoint, String ip, String username) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        long now = System.nanoTime();
+        long wait = ipBuckets.get(endpoint + ":" + ip, key -> new TokenBucket(ipCapacity, ipRefillInterval, now))
+                .tryConsume(now);
+        if (wait > 0) {
+            rejectedByIp.get(endpoint).increment();
+            log.debug("Rate limited {} attempt from {}", endpoint, ip);
+            return Duration.ofNanos(wait);
+        }
+        if (username != null && !username.isBlank()) {
+            TokenBucket bucket = usernameBucket(endpoint, ip, username, now);
+            wait = endpoint == Endpoint.LOGIN ? bucket.waitTime(now) : bucket.tryConsume(now);
+            if (wait > 0) {
+                rejectedByUsername.get(endpoint).increment();
+                log.debug("Rate limited {} attempt for user {}", endpoint, username);
+                return Duration.ofNanos(wait);
+            }
+        }
+        allowed.get(endpoint).increment();
+        return Duration.ZERO;
+    }
+
+    /**
+     * Records a failed login, taking a token from the bucket of its username and client IP.
+     *
+     * @param ip the address of the client
+     * @param username the username attempted, may be null or blank
+     */
+    public void recordFailedLogin(String ip, String username) {
+        if (!enabled || username == null || username.isBlank()) {
+            return;
+        }
+        long now = System.nanoTime();
+        usernameBucket(Endpoint.LOGIN, ip, username, now).tryConsume(now);
+    }
+
+    @EventListener
+    public void onBadCredentials(AuthenticationFailureBadCredentialsEvent event) {
+        Authentication authentication = event.getAuthentication();
+        if (authentication.getDetails() instanceof WebAuthenticationDetails details) {
+            recordFailedLogin(details.getRemoteAddress(), authentication.getName());
+        }
+    }
+
+    private TokenBucket usernameBucket(Endpoint endpoint, String ip, String username, long now) {
+        String key = endpoint + ":" + username.trim().toLowerCase(Locale.ROOT)
+                + (endpoint == Endpoint.LOGIN ? "@" + ip : "");
+        return usernameBuckets.get(key, k -> new TokenBucket(usernameCapacity, usernameRefillInterval, now));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Endpoint endpoint, String outcome) {
+        return Counter.builder("foodie.auth.rate.limit")
+                .description("Login and registration attempts checked by the rate limiter")
+                .tag("endpoint", endpoint.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
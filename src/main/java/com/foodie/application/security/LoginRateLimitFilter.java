@@ -0,0 +1,51 @@
+package com.foodie.application.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Filter placed before the form login, answering 429 to login attempts over the rate
+ * limit so they are rejected before the password is hashed. Failed attempts are
+ * recorded by {@link AuthenticationRateLimiter} from the authentication failure events.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final RequestMatcher LOGIN = PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, "/login");
+
+    private final AuthenticationRateLimiter rateLimiter;
+
+    public LoginRateLimitFilter(AuthenticationRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !LOGIN.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Duration wait = rateLimiter.tryAcquire(AuthenticationRateLimiter.Endpoint.LOGIN,
+                request.getRemoteAddr(), request.getParameter("username"));
+        if (!wait.isZero()) {
+            long seconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(seconds));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Demasiados intentos de inicio de sesión. Inténtalo de nuevo en " + seconds + " segundos.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @EnableWebSecurity
@@ -21,9 +22,12 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 public class SecurityConfig extends VaadinWebSecurity {
 
     private final AccessDeniedHandler customAccessDeniedHandler;
+    private final AuthenticationRateLimiter authenticationRateLimiter;
 
-    public SecurityConfig(CustomAccessDeniedHandler customAccessDeniedHandler) {
+    public SecurityConfig(CustomAccessDeniedHandler customAccessDeniedHandler,
+                          AuthenticationRateLimiter authenticationRateLimiter) {
         this.customAccessDeniedHandler = customAccessDeniedHandler;
+        this.authenticationRateLimiter = authenticationRateLimiter;
     }
 
     @Override
@@ -37,6 +41,8 @@ public class SecurityConfig extends VaadinWebSecurity {
             .requestMatchers(new AntPathRequestMatcher("/images/**")).permitAll()
             .requestMatchers(new AntPathRequestMatcher("/image/**")).permitAll()
             .requestMatchers(new AntPathRequestMatcher("/icons/**")).permitAll()
+            .requestMatchers(new AntPathRequestMatcher("/media/**")).permitAll()
+            .requestMatchers(new AntPathRequestMatcher("/api/menu", "GET")).permitAll()
         );
         
         // Llamar a super.configure - configura Vaadin
@@ -63,6 +69,10 @@ public class SecurityConfig extends VaadinWebSecurity {
         http.formLogin(form -> form
             .successHandler(authenticationSuccessHandler())
         );
+
+        // Limitar los intentos de login antes de comprobar la contraseña (BCrypt)
+        http.addFilterBefore(new LoginRateLimitFilter(authenticationRateLimiter),
+            UsernamePasswordAuthenticationFilter.class);
     }
 
     @Bean
@@ -1,6 +1,7 @@
 package com.foodie.application.security.ui.views;
 
 import com.foodie.application.security.AuthService;
+import com.foodie.application.security.AuthenticationRateLimiter;
 import com.foodie.application.domain.User;
 import com.foodie.application.service.UserService;
 import com.vaadin.flow.component.button.Button;
@@ -15,14 +16,17 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.EmailField;
 import com.vaadin.flow.component.textfield.PasswordField;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import jakarta.annotation.security.PermitAll;
-import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
 
 @Route("register")
 @PageTitle("Registro | Foodie")
@@ -31,10 +35,12 @@ public class RegisterView extends VerticalLayout implements BeforeEnterObserver
 
     private final AuthService authService;
     private final UserService userService;
+    private final AuthenticationRateLimiter rateLimiter;
 
-    public RegisterView(AuthService authService, UserService userService) {
+    public RegisterView(AuthService authService, UserService userService, AuthenticationRateLimiter rateLimiter) {
         this.authService = authService;
         this.userService = userService;
+        this.rateLimiter = rateLimiter;
 
         setSizeFull();
         setAlignItems(Alignment.CENTER);
@@ -82,6 +88,22 @@ public class RegisterView extends VerticalLayout implements BeforeEnterObserver
         confirmPassword.setRequired(true);
         confirmPassword.setWidthFull();
 
+        // Availability is checked as the user types; most values are answered from memory
+        username.setManualValidation(true);
+        username.setValueChangeMode(ValueChangeMode.LAZY);
+        username.addValueChangeListener(e -> {
+            boolean taken = !e.getValue().isBlank() && userService.usernameExists(e.getValue());
+            username.setErrorMessage(taken ? "Este nombre de usuario ya está en uso" : null);
+            username.setInvalid(taken);
+        });
+        email.setManualValidation(true);
+        email.setValueChangeMode(ValueChangeMode.LAZY);
+        email.addValueChangeListener(e -> {
+            boolean taken = !e.getValue().isBlank() && userService.emailExists(e.getValue());
+            email.setErrorMessage(taken ? "Este correo electrónico ya está en uso" : null);
+            email.setInvalid(taken);
+        });
+
         // Botón de registro
         Button registerButton = new Button("Registrarse", event -> {
             if (username.isEmpty() || email.isEmpty() || password.isEmpty() || confirmPassword.isEmpty()) {
@@ -96,6 +118,16 @@ public class RegisterView extends VerticalLayout implements BeforeEnterObserver
                 return;
             }
 
+            // Los intentos por encima del límite se rechazan antes de cifrar la contraseña
+            Duration wait = rateLimiter.tryAcquire(AuthenticationRateLimiter.Endpoint.REGISTER,
+                    VaadinSession.getCurrent().getBrowser().getAddress(), username.getValue());
+            if (!wait.isZero()) {
+                Notification.show("Demasiados intentos de registro. Inténtalo de nuevo en "
+                                + Math.max(1, wait.toSeconds()) + " segundos", 3000, Notification.Position.MIDDLE)
+                        .addThemeVariants(NotificationVariant.LUMO_ERROR);
+                return;
+            }
+
             try {
                 User user = authService.registerUser(
                         username.getValue(),
@@ -110,7 +142,7 @@ public class RegisterView extends VerticalLayout implements BeforeEnterObserver
 
                 // Redirige al login
                 getUI().ifPresent(ui -> ui.navigate("login"));
-            } catch (DataIntegrityViolationException e) {
+            } catch (IllegalArgumentException e) {
                 Notification.show("El usuario o correo ya está en uso", 3000, Notification.Position.MIDDLE)
                         .addThemeVariants(NotificationVariant.LUMO_ERROR);
             } catch (Exception e) {
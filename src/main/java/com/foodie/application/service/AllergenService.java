@@ -1,13 +1,19 @@
 package com.foodie.application.service;
 
 import com.foodie.application.domain.Allergen;
+import com.foodie.application.event.CatalogChangedEvent;
+import com.foodie.application.helper.AllergenIndex;
 import com.foodie.application.repository.AllergenRepository;
+import com.foodie.application.repository.NameIdDictionary;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -15,9 +21,36 @@ import java.util.stream.Collectors;
 @Service
 public class AllergenService {
     private final AllergenRepository allergenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NameIdDictionary allergenIds;
+    private final AllergenIndex allergenIndex = new AllergenIndex();
 
-    public AllergenService(AllergenRepository allergenRepository) {
+    public AllergenService(AllergenRepository allergenRepository, ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate) {
         this.allergenRepository = allergenRepository;
+        this.eventPublisher = eventPublisher;
+        this.allergenIds = new NameIdDictionary(jdbcTemplate, "allergen");
+    }
+
+    /**
+     * Compiles the allergens of a catalog product into a bitmask, so it can be checked
+     * against a user's allergies with a single AND.
+     *
+     * @param allergenNames the names of the product allergens, may be null
+     * @return the bitmask of the allergens
+     */
+    public long getProductAllergenMask(Collection<String> allergenNames) {
+        return allergenIndex.maskOfCatalog(allergenNames);
+    }
+
+    /**
+     * Compiles the allergies of a user for checking them against product allergen masks.
+     * Allergies that are not catalog allergens are kept as names and never take a bit.
+     *
+     * @param allergies the allergy names, may be null
+     * @return the allergy profile
+     */
+    public AllergenIndex.Profile getAllergyProfile(Collection<String> allergies) {
+        return allergenIndex.profileOf(allergies);
     }
 
     @Cacheable(value = "allergens")
@@ -30,15 +63,23 @@ public class AllergenService {
         return allergenRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Allergen not found with id: " + id));
     }
 
+    /**
+     * Finds the allergens with the given names, creating the missing ones.
+     * Resolves every name with at most one select and one batch insert, and none
+     * for names already known, without racing a concurrent creation of the same name.
+     * The returned instances only carry ID and name, enough to link them to a product.
+     *
+     * @param names the allergen names
+     * @return the allergens, one per name
+     */
     @Transactional
-    @Cacheable(value = "allergens", key = "#names")
+    @CacheEvict(value = "allergens", allEntries = true)
     public Set<Allergen> findOrCreateByNames(Set<String> names) {
         if (names == null || names.isEmpty()) {
             return Set.of();
         }
-        return names.stream()
-                .map(name -> allergenRepository.findByName(name)
-                        .orElseGet(() -> allergenRepository.save(Allergen.builder().name(name).build())))
+        return allergenIds.resolve(names).entrySet().stream()
+                .map(entry -> Allergen.builder().id(entry.getValue()).name(entry.getKey()).build())
                 .collect(Collectors.toSet());
     }
 
@@ -48,7 +89,9 @@ public class AllergenService {
         Allergen allergen = new Allergen();
         allergen.setName(allergenName);
 
-        return allergenRepository.save(allergen);
+        Allergen saved = allergenRepository.save(allergen);
+        allergenIds.put(saved.getName(), saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -57,6 +100,8 @@ public class AllergenService {
         var allergen = allergenRepository.findById(allergenId)
                 .orElseThrow(() -> new EntityNotFoundException("Allergen not found with id: " + allergenId));
         allergen.setName(newName);
+        allergenIds.clear();
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 
     @Transactional
@@ -65,5 +110,7 @@ public class AllergenService {
             throw new EntityNotFoundException("Allergen not found with id: " + allergenId);
         }
         allergenRepository.deleteById(allergenId);
+        allergenIds.clear();
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 }
@@ -0,0 +1,149 @@
+package com.foodie.application.service;
+
+import com.foodie.application.domain.OrderStatus;
+import com.foodie.application.dto.BestSellerDto;
+import com.foodie.application.dto.ProductListDto;
+import com.foodie.application.event.OrderPlacedEvent;
+import com.foodie.application.helper.HeavyHitters;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class tracking the products that are selling the most right now.
+ * <p>
+ * Every placed order feeds an in-memory heavy-hitters sketch per time window
+ * (last hour, day and week), so the current best sellers can be read instantly
+ * without querying the database. The trackers are rebuilt on startup from the
+ * orders of the last week, leaving out cancelled and failed ones.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class BestSellerService {
+
+    /**
+     * Rolling windows the best sellers are tracked over.
+     */
+    @Getter
+    public enum Window {
+        LAST_HOUR(Duration.ofHours(1), 12),
+        LAST_DAY(Duration.ofDays(1), 24),
+        LAST_WEEK(Duration.ofDays(7), 28);
+
+        private final Duration length;
+        private final int slices;
+
+        Window(Duration length, int slices) {
+            this.length = length;
+            this.slices = slices;
+        }
+    }
+
+    private static final int SKETCH_WIDTH = 512;
+    private static final Set<OrderStatus> NOT_SOLD = EnumSet.of(OrderStatus.CANCELLED, OrderStatus.FAILED);
+
+    private final OrderService orderService;
+    private final Map<Window, HeavyHitters> trackers = new EnumMap<>(Window.class);
+    private final Map<Integer, String> productNames = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a BestSellerService.
+     *
+     * @param orderService the order service used to replay recent orders on startup
+     * @param trackedProducts maximum number of products ranked per window
+     */
+    public BestSellerService(OrderService orderService,
+                             @Value("${foodie.best-sellers.tracked-products:50}") int trackedProducts) {
+        this.orderService = orderService;
+        for (Window window : Window.values()) {
+            trackers.put(window, new HeavyHitters(window.getLength(), window.getSlices(), SKETCH_WIDTH, trackedProducts));
+        }
+    }
+
+    /**
+     * Replays the orders placed during the last week so the rankings survive restarts.
+     * Cancelled and failed orders sold nothing and are skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate today = LocalDate.now(zone);
+            int[] replayed = {0};
+            orderService.forEachOrder(null, today.minusDays(7), today, order -> {
+                if (NOT_SOLD.contains(order.getStatus())) {
+                    return;
+                }
+                Instant placedAt = order.getCreatedAt() != null
+                        ? order.getCreatedAt()
+                        : order.getDate().atStartOfDay(zone).toInstant();
+                if (order.getItems() != null) {
+                    order.getItems().forEach(item -> record(item.getProductId(), item.getProductName(),
+                            item.getQuantity(), placedAt));
+                }
+                replayed[0]++;
+            });
+            log.info("Loaded {} recent orders into the best-seller trackers", replayed[0]);
+        } catch (Exception e) {
+            log.warn("Could not load recent orders into the best-seller trackers", e);
+        }
+    }
+
+    /**
+     * Counts the products of a committed order.
+     *
+     * @param event the placed order
+     */
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (ProductListDto item : event.items()) {
+            record(item.getProductId(), item.getProductName(), item.getQuantity(), event.placedAt());
+        }
+    }
+
+    /**
+     * Retrieves the best-selling products within a window.
+     *
+     * @param window the window to rank
+     * @param limit the maximum number of products returned
+     * @return the best sellers, highest estimated quantity first
+     */
+    public List<BestSellerDto> getBestSellers(Window window, int limit) {
+        return trackers.get(window).top(limit, System.currentTimeMillis()).stream()
+                .map(entry -> BestSellerDto.builder()
+                        .productId(entry.getKey())
+                        .productName(productNames.get(entry.getKey()))
+                        .quantity(entry.getValue())
+                        .build())
+                .toList();
+    }
+
+    private void record(Integer productId, String productName, Integer quantity, Instant placedAt) {
+        if (productId == null || quantity == null) {
+            return;
+        }
+        if (productName != null) {
+            productNames.put(productId, productName);
+        }
+        long placedAtMillis = placedAt.toEpochMilli();
+        trackers.values().forEach(tracker -> tracker.add(productId, quantity, placedAtMillis));
+    }
+}
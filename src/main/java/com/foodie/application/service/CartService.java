@@ -23,6 +23,17 @@ public class CartService {
 
     private static final String CART_SESSION_KEY = "foodie_shopping_cart";
 
+    private final MenuItemService menuItemService;
+
+    /**
+     * Constructs a CartService.
+     *
+     * @param menuItemService the menu item service, used to check the prices of the cart
+     */
+    public CartService(MenuItemService menuItemService) {
+        this.menuItemService = menuItemService;
+    }
+
     /**
      * Gets the shopping cart from the current Vaadin session.
      * If no cart exists in the session, creates and stores a new empty cart.
@@ -124,6 +135,41 @@ public class CartService {
         return false;
     }
 
+    /**
+     * Updates the price of every cart item to the current price of its product, and
+     * removes the products that are no longer offered in any menu. Prices are read
+     * with a single query.
+     *
+     * @return true if any price changed or any item was removed
+     */
+    public boolean refreshPrices() {
+        List<ProductList> cart = getCart();
+        List<Integer> productIds;
+        synchronized (cart) {
+            productIds = cart.stream().map(ProductList::getProductId).toList();
+        }
+        Map<Integer, Double> prices = menuItemService.getCurrentPrices(productIds);
+
+        boolean changed = false;
+        synchronized (cart) {
+            Iterator<ProductList> items = cart.iterator();
+            while (items.hasNext()) {
+                ProductList item = items.next();
+                Double price = prices.get(item.getProductId());
+                if (price == null) {
+                    items.remove();
+                    changed = true;
+                    log.debug("Removed product {} from cart (no longer available)", item.getProductId());
+                } else if (!price.equals(item.getPrice())) {
+                    item.setPrice(price);
+                    changed = true;
+                    log.debug("Updated product {} price in cart to {}", item.getProductId(), price);
+                }
+            }
+        }
+        return changed;
+    }
+
     /**
      * Clears all items from the shopping cart.
      */
@@ -5,9 +5,11 @@ import com.foodie.application.domain.OrderStatus;
 import com.foodie.application.domain.PaymentMethod;
 import com.foodie.application.dto.CashClosingDto;
 import com.foodie.application.dto.OrderDto;
+import com.foodie.application.event.CashClosingChangedEvent;
 import com.foodie.application.repository.CashClosingRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -25,10 +27,13 @@ public class CashClosingService {
 
     private final CashClosingRepository cashClosingRepository;
     private final OrderService orderService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CashClosingService(CashClosingRepository cashClosingRepository, OrderService orderService) {
+    public CashClosingService(CashClosingRepository cashClosingRepository, OrderService orderService,
+                              ApplicationEventPublisher eventPublisher) {
         this.cashClosingRepository = cashClosingRepository;
         this.orderService = orderService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -88,6 +93,7 @@ public class CashClosingService {
         cashClosing.setIsClosed(false);
 
         cashClosing = cashClosingRepository.save(cashClosing);
+        eventPublisher.publishEvent(new CashClosingChangedEvent(today));
         return CashClosingDto.fromCashClosing(cashClosing);
     }
 
@@ -140,6 +146,7 @@ public class CashClosingService {
         cashClosing.setIsClosed(true);
 
         cashClosing = cashClosingRepository.save(cashClosing);
+        eventPublisher.publishEvent(new CashClosingChangedEvent(today));
         return CashClosingDto.fromCashClosing(cashClosing);
     }
 
@@ -188,6 +195,7 @@ public class CashClosingService {
         CashClosing cashClosing = cashClosingRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Cash closing not found with id: " + id));
         cashClosingRepository.delete(cashClosing);
+        eventPublisher.publishEvent(new CashClosingChangedEvent(cashClosing.getDate()));
     }
 }
 
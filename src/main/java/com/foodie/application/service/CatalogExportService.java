@@ -0,0 +1,157 @@
+package com.foodie.application.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodie.application.dto.CatalogProductDto;
+import com.foodie.application.dto.ProductDto;
+import com.foodie.application.helper.CsvHelper;
+import com.foodie.application.repository.MenuItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Service class for exporting the product catalog as CSV or JSON.
+ * <p>
+ * The catalog is read with a fixed number of set-based queries and every product is
+ * written with its allergens, ingredients and menu entries, all identified by name, so
+ * the file can be imported into another environment with {@link CatalogImportService};
+ * image URLs are written as stored, and the import drops those of images it does not have.
+ * The CSV format has one row per product and menu (or a single row with empty menu
+ * columns for products in no menu), with allergens and ingredients separated by
+ * {@value #LIST_SEPARATOR}. The JSON format is an array with one object per product.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class CatalogExportService {
+
+    /**
+     * Columns of the catalog CSV format, in the order they are exported.
+     */
+    public static final List<String> CSV_COLUMNS = List.of("nombre", "descripcion", "precio", "imagen",
+            "alergenos", "ingredientes", "menu", "destacado", "descuento");
+
+    /**
+     * Separator of the allergen and ingredient names in a CSV field.
+     */
+    public static final String LIST_SEPARATOR = "|";
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final ProductService productService;
+    private final MenuItemRepository menuItemRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a CatalogExportService with the services used to read the catalog.
+     *
+     * @param productService the product service
+     * @param menuItemRepository the menu item repository
+     * @param objectMapper the JSON mapper
+     */
+    public CatalogExportService(ProductService productService, MenuItemRepository menuItemRepository,
+                                ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.menuItemRepository = menuItemRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the whole catalog with four queries, regardless of the number of products.
+     *
+     * @return every product with its menu entries by product ID, ordered by ID
+     */
+    public Map<Integer, CatalogProductDto> getCatalog() {
+        Map<Integer, CatalogProductDto> products = new LinkedHashMap<>();
+        for (ProductDto product : productService.getAllProductsAsDto()) {
+            products.put(product.getId(), CatalogProductDto.builder()
+                    .name(product.getName())
+                    .description(product.getDescription())
+                    .price(product.getPrice())
+                    .imageUrl(product.getImageUrl())
+                    .allergens(new TreeSet<>(product.getAllergenNames()))
+                    .ingredients(new TreeSet<>(product.getIngredients()))
+                    .build());
+        }
+        for (MenuItemRepository.MenuEntry entry : menuItemRepository.findAllEntries()) {
+            CatalogProductDto product = products.get(entry.getProductId());
+            if (product != null) {
+                product.getMenus().add(new CatalogProductDto.MenuEntry(
+                        entry.getMenuName(), entry.getFeatured(), entry.getDiscountPercentage()));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Writes the catalog as CSV.
+     *
+     * @param out the output stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the output stream fails
+     */
+    public void writeCatalogCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM so that spreadsheet applications detect UTF-8 (accents in product names)
+        writer.write('\uFEFF');
+        CsvHelper.writeRow(writer, CSV_COLUMNS.toArray());
+
+        Collection<CatalogProductDto> catalog = getCatalog().values();
+        int rows = 0;
+        for (CatalogProductDto product : catalog) {
+            List<CatalogProductDto.MenuEntry> entries = product.getMenus().isEmpty()
+                    ? List.of(new CatalogProductDto.MenuEntry())
+                    : product.getMenus();
+            for (CatalogProductDto.MenuEntry entry : entries) {
+                CsvHelper.writeRow(writer,
+                        product.getName(),
+                        product.getDescription(),
+                        product.getPrice(),
+                        product.getImageUrl(),
+                        String.join(LIST_SEPARATOR, product.getAllergens()),
+                        String.join(LIST_SEPARATOR, product.getIngredients()),
+                        entry.getMenu(),
+                        entry.getFeatured(),
+                        entry.getDiscountPercentage());
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} products as CSV", catalog.size());
+    }
+
+    /**
+     * Writes the catalog as a JSON array, one object per product.
+     *
+     * @param out the output stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the output stream fails
+     */
+    public void writeCatalogJson(OutputStream out) throws IOException {
+        Collection<CatalogProductDto> catalog = getCatalog().values();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartArray();
+        for (CatalogProductDto product : catalog) {
+            generator.writeObject(product);
+        }
+        generator.writeEndArray();
+        generator.close();
+        log.info("Exported {} products as JSON", catalog.size());
+    }
+}
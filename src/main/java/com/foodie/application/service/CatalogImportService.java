@@ -0,0 +1,730 @@
+package com.foodie.application.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodie.application.domain.Allergen;
+import com.foodie.application.domain.Ingredient;
+import com.foodie.application.domain.Menu;
+import com.foodie.application.dto.CatalogImportResultDto;
+import com.foodie.application.dto.CatalogProductDto;
+import com.foodie.application.event.CatalogChangedEvent;
+import com.foodie.application.helper.CsvHelper;
+import com.foodie.application.helper.TextHelper;
+import com.foodie.application.repository.MenuItemRepository;
+import com.foodie.application.repository.MenuRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for importing a product catalog from the CSV or JSON formats written
+ * by {@link CatalogExportService}.
+ * <p>
+ * The file is parsed one row at a time and every row is validated on its own: invalid
+ * rows are reported and skipped. Products are matched by name, ignoring case and accents,
+ * against a snapshot of the current catalog loaded once with set-based queries, and each
+ * one is classified as new, updated or unchanged. Changes are written in chunks, each in
+ * its own transaction: the allergen and ingredient names of a chunk are resolved at once,
+ * new products are inserted with a single statement and updates, associations and menu
+ * items are sent as JDBC batches.
+ * </p>
+ * <p>
+ * A dry run computes the same classification without writing anything, so an import can
+ * be reviewed before applying it. Imports are additive: products and menu entries missing
+ * from the file are kept, and so are the description, image, allergens or ingredients of
+ * an existing product when the file leaves them out; when given, allergens and ingredients
+ * replace the current ones. Chunks written before a fatal error, such as a malformed JSON
+ * document, stay committed.
+ * </p>
+ * <p>
+ * Exported files reference images stored by {@link ProductImageService} with URLs of the
+ * form {@code /media/products/{hash}}, which only resolve where the image is stored. Such
+ * a URL is kept when the image is stored in this environment and otherwise treated as
+ * left out, so the product keeps its current image instead of pointing at a missing one.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class CatalogImportService {
+
+    private static final int MAX_MESSAGES = 200;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final Pattern LIST_SPLITTER = Pattern.compile(Pattern.quote(CatalogExportService.LIST_SEPARATOR));
+
+    private final CatalogExportService catalogExportService;
+    private final AllergenService allergenService;
+    private final IngredientService ingredientService;
+    private final MenuRepository menuRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ProductImageService productImageService;
+    private final int chunkSize;
+
+    /**
+     * Row read from a catalog file: either a parsed product or the reason it could not be parsed.
+     */
+    private record CatalogRow(int number, CatalogProductDto product, String error) {
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        /**
+         * @return the next row, or null at the end of the file
+         */
+        CatalogRow next() throws IOException;
+    }
+
+    /**
+     * Constructs a CatalogImportService.
+     *
+     * @param catalogExportService the export service, used to read the current catalog
+     * @param allergenService the allergen service, used to resolve allergen names
+     * @param ingredientService the ingredient service, used to resolve ingredient names
+     * @param menuRepository the menu repository
+     * @param menuItemRepository the menu item repository, used to refresh discounted prices
+     * @param jdbcTemplate the JDBC template used for set-based and batch statements
+     * @param transactionManager the transaction manager used to run each chunk in its own transaction
+     * @param objectMapper the JSON mapper
+     * @param eventPublisher the publisher of catalog change events
+     * @param cacheManager the cache manager holding the cached menus and products
+     * @param productImageService the product image service, used to check stored image URLs
+     * @param chunkSize maximum number of products written per transaction
+     */
+    public CatalogImportService(CatalogExportService catalogExportService,
+                                AllergenService allergenService,
+                                IngredientService ingredientService,
+                                MenuRepository menuRepository,
+                                MenuItemRepository menuItemRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                CacheManager cacheManager,
+                                ProductImageService productImageService,
+                                @Value("${foodie.catalog.import.chunk-size:500}") int chunkSize) {
+        this.catalogExportService = catalogExportService;
+        this.allergenService = allergenService;
+        this.ingredientService = ingredientService;
+        this.menuRepository = menuRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.productImageService = productImageService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports a catalog in CSV format. Columns are matched by header name, in any order;
+     * {@code nombre} and {@code precio} are required. Several rows of the same product
+     * add it to several menus.
+     *
+     * @param in the CSV input, UTF-8 encoded with an optional BOM; it is not closed
+     * @param dryRun true to only report the changes without writing them
+     * @return the summary of the import
+     * @throws IOException if reading the input fails
+     * @throws IllegalArgumentException if the file has no header or lacks a required column
+     */
+    public CatalogImportResultDto importCsv(InputStream in, boolean dryRun) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+        List<String> header = CsvHelper.readRow(reader);
+        if (header == null) {
+            throw new IllegalArgumentException("El fichero está vacío");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(TextHelper.fold(header.get(i)), i);
+        }
+        if (!columns.containsKey("nombre") || !columns.containsKey("precio")) {
+            throw new IllegalArgumentException("El fichero CSV debe tener las columnas 'nombre' y 'precio'");
+        }
+
+        int[] number = {1};
+        return importRows("Fila", dryRun, () -> {
+            List<String> fields;
+            do {
+                fields = CsvHelper.readRow(reader);
+                number[0]++;
+            } while (fields != null && fields.stream().allMatch(String::isBlank));
+            if (fields == null) {
+                return null;
+            }
+            try {
+                return new CatalogRow(number[0], parseCsvRow(fields, columns), null);
+            } catch (IllegalArgumentException e) {
+                return new CatalogRow(number[0], null, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Imports a catalog in JSON format: an array with one object per product. The array
+     * is read one product at a time, so the file is never fully loaded in memory.
+     *
+     * @param in the JSON input; it is not closed
+     * @param dryRun true to only report the changes without writing them
+     * @return the summary of the import
+     * @throws IOException if reading the input fails or the document is malformed
+     * @throws IllegalArgumentException if the document is not an array
+     */
+    public CatalogImportResultDto importJson(InputStream in, boolean dryRun) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("El fichero JSON debe contener una lista de productos");
+        }
+
+        int[] number = {0};
+        return importRows("Producto", dryRun, () -> {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            number[0]++;
+            JsonNode node = objectMapper.readTree(parser);
+            try {
+                return new CatalogRow(number[0], objectMapper.treeToValue(node, CatalogProductDto.class), null);
+            } catch (JsonProcessingException e) {
+                return new CatalogRow(number[0], null, "formato no válido: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    private CatalogImportResultDto importRows(String rowLabel, boolean dryRun, RowSource source) throws IOException {
+        long start = System.nanoTime();
+        CatalogImportResultDto result = new CatalogImportResultDto();
+        result.setDryRun(dryRun);
+        CatalogSnapshot catalog = loadSnapshot();
+
+        Map<String, CatalogProductDto> chunk = new LinkedHashMap<>();
+        boolean written = false;
+        try {
+            CatalogRow row;
+            while ((row = source.next()) != null) {
+                String error = row.error() != null ? row.error() : normalize(row.product(), catalog);
+                if (error != null) {
+                    result.setRejectedRows(result.getRejectedRows() + 1);
+                    addMessage(result.getErrors(), rowLabel + " " + row.number() + ": " + error);
+                    continue;
+                }
+                String key = TextHelper.fold(row.product().getName());
+                // Rows of the same product are usually consecutive, keep them in the same chunk
+                if (chunk.size() >= chunkSize && !chunk.containsKey(key)) {
+                    written |= processChunk(chunk.values(), catalog, result);
+                    chunk.clear();
+                }
+                chunk.merge(key, row.product(), CatalogImportService::merge);
+            }
+            if (!chunk.isEmpty()) {
+                written |= processChunk(chunk.values(), catalog, result);
+            }
+        } finally {
+            // Chunks commit on their own, so whatever was written stays even if a later one fails
+            if (written) {
+                evictCaches();
+                eventPublisher.publishEvent(CatalogChangedEvent.all());
+            }
+        }
+        log.info("{} catalog in {} ms: {} created, {} updated, {} unchanged, {} rejected",
+                dryRun ? "Checked" : "Imported", (System.nanoTime() - start) / 1_000_000,
+                result.getCreatedProducts(), result.getUpdatedProducts(),
+                result.getUnchangedProducts(), result.getRejectedRows());
+        return result;
+    }
+
+    /**
+     * Classifies the products of a chunk against the catalog and writes the changes in one transaction.
+     *
+     * @return true if changes were written
+     */
+    private boolean processChunk(Collection<CatalogProductDto> products, CatalogSnapshot catalog,
+                              CatalogImportResultDto result) {
+        List<ProductChange> changes = new ArrayList<>();
+        Set<String> newMenus = new LinkedHashSet<>();
+        for (CatalogProductDto product : products) {
+            Integer id = catalog.productIds.get(TextHelper.fold(product.getName()));
+            CatalogProductDto current = id != null ? catalog.products.get(id) : null;
+            fillUnspecified(product, current);
+            ProductChange change = new ProductChange(id, product, current);
+
+            for (CatalogProductDto.MenuEntry entry : product.getMenus()) {
+                if (!catalog.menuIds.containsKey(TextHelper.fold(entry.getMenu())) && newMenus.add(entry.getMenu())) {
+                    result.setCreatedMenus(result.getCreatedMenus() + 1);
+                    addMessage(result.getChanges(), "Nuevo menú: " + entry.getMenu());
+                }
+            }
+            if (change.created) {
+                result.setCreatedProducts(result.getCreatedProducts() + 1);
+                addMessage(result.getChanges(), "Nuevo producto: " + product.getName());
+            } else if (change.changedFields.isEmpty()) {
+                result.setUnchangedProducts(result.getUnchangedProducts() + 1);
+                continue;
+            } else {
+                result.setUpdatedProducts(result.getUpdatedProducts() + 1);
+                addMessage(result.getChanges(), "Producto actualizado: " + product.getName()
+                        + " (" + String.join(", ", change.changedFields) + ")");
+            }
+            result.setMenuItems(result.getMenuItems() + change.newEntries.size() + change.changedEntries.size());
+            changes.add(change);
+        }
+
+        boolean written = !result.isDryRun() && !changes.isEmpty();
+        if (written) {
+            transactionTemplate.executeWithoutResult(status -> write(changes, newMenus, catalog));
+        }
+
+        // Later chunks are compared against the catalog as this chunk left it
+        for (String menu : newMenus) {
+            catalog.menuIds.putIfAbsent(TextHelper.fold(menu), catalog.nextDryRunId--);
+        }
+        for (ProductChange change : changes) {
+            if (change.id == null) {
+                change.id = catalog.nextDryRunId--;
+            }
+            CatalogProductDto current = catalog.products.get(change.id);
+            if (current != null) {
+                Map<String, CatalogProductDto.MenuEntry> menus = byMenu(current.getMenus());
+                menus.putAll(byMenu(change.product.getMenus()));
+                change.product.setMenus(new ArrayList<>(menus.values()));
+            }
+            catalog.productIds.put(TextHelper.fold(change.product.getName()), change.id);
+            catalog.products.put(change.id, change.product);
+        }
+        return written;
+    }
+
+    private void evictCaches() {
+        for (String name : List.of("menus", "products")) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private void write(List<ProductChange> changes, Set<String> newMenus, CatalogSnapshot catalog) {
+        for (String menu : newMenus) {
+            catalog.menuIds.put(TextHelper.fold(menu), menuRepository.save(Menu.builder().name(menu).build()).getId());
+        }
+
+        List<CatalogProductDto> created = changes.stream().filter(c -> c.created).map(c -> c.product).toList();
+        if (!created.isEmpty()) {
+            Map<String, Integer> ids = insertProducts(created);
+            changes.stream().filter(c -> c.created).forEach(c -> c.id = ids.get(c.product.getName()));
+        }
+
+        List<Object[]> updates = changes.stream()
+                .filter(c -> !c.created && c.fieldsChanged)
+                .map(c -> new Object[]{c.product.getName(), c.product.getDescription(), c.product.getPrice(),
+                        c.product.getImageUrl(), c.id})
+                .toList();
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE product SET name = ?, description = ?, price = ?, image_url = ? WHERE id = ?",
+                    updates);
+        }
+
+        List<ProductChange> allergenChanges = changes.stream().filter(c -> c.allergensChanged).toList();
+        Map<String, Integer> allergenIds = allergenService.findOrCreateByNames(namesOf(allergenChanges, CatalogProductDto::getAllergens))
+                .stream().collect(Collectors.toMap(Allergen::getName, Allergen::getId));
+        replaceAssociations("product_allergen", "allergen_id", allergenChanges, CatalogProductDto::getAllergens, allergenIds);
+
+        List<ProductChange> ingredientChanges = changes.stream().filter(c -> c.ingredientsChanged).toList();
+        Map<String, Integer> ingredientIds = ingredientService.findOrCreateByNames(namesOf(ingredientChanges, CatalogProductDto::getIngredients))
+                .stream().collect(Collectors.toMap(Ingredient::getName, Ingredient::getId));
+        replaceAssociations("product_ingredient", "ingredient_id", ingredientChanges, CatalogProductDto::getIngredients, ingredientIds);
+
+        List<Object[]> newItems = new ArrayList<>();
+        List<Object[]> changedItems = new ArrayList<>();
+        for (ProductChange change : changes) {
+            for (CatalogProductDto.MenuEntry entry : change.newEntries) {
+                Integer menuId = catalog.menuIds.get(TextHelper.fold(entry.getMenu()));
+                newItems.add(new Object[]{menuId, change.id, entry.getFeatured(), entry.getDiscountPercentage(), menuId});
+            }
+            for (CatalogProductDto.MenuEntry entry : change.changedEntries) {
+                changedItems.add(new Object[]{entry.getFeatured(), entry.getDiscountPercentage(),
+                        catalog.menuIds.get(TextHelper.fold(entry.getMenu())), change.id});
+            }
+        }
+        if (!newItems.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO menu_item (menu_id, product_id, featured, discount_percentage, position) " +
+                    "VALUES (?, ?, ?, ?, (SELECT COALESCE(MAX(position) + 1, 0) FROM menu_item WHERE menu_id = ?))", newItems);
+        }
+        if (!changedItems.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE menu_item SET featured = ?, discount_percentage = ? " +
+                    "WHERE menu_id = ? AND product_id = ?", changedItems);
+        }
+
+        List<Integer> repriced = changes.stream()
+                .filter(c -> c.fieldsChanged || !c.newEntries.isEmpty() || !c.changedEntries.isEmpty())
+                .map(c -> c.id)
+                .toList();
+        if (!repriced.isEmpty()) {
+            menuItemRepository.refreshDiscountedPrices(repriced);
+        }
+    }
+
+    // Inserts every product with a single statement, returning the new IDs by product name
+    private Map<String, Integer> insertProducts(List<CatalogProductDto> products) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO product (name, description, price, image_url) " +
+                            "SELECT * FROM unnest(?, ?, ?, ?) RETURNING id, name");
+            statement.setArray(1, connection.createArrayOf("varchar",
+                    products.stream().map(CatalogProductDto::getName).toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar",
+                    products.stream().map(CatalogProductDto::getDescription).toArray()));
+            statement.setArray(3, connection.createArrayOf("float8",
+                    products.stream().map(CatalogProductDto::getPrice).toArray()));
+            statement.setArray(4, connection.createArrayOf("varchar",
+                    products.stream().map(CatalogProductDto::getImageUrl).toArray()));
+            return statement;
+        }, rs -> {
+            ids.put(rs.getString("name"), rs.getInt("id"));
+        });
+        return ids;
+    }
+
+    // Replaces the rows of a product join table for the changed products
+    private void replaceAssociations(String table, String column, List<ProductChange> changes,
+                                     Function<CatalogProductDto, Set<String>> names, Map<String, Integer> ids) {
+        Object[] existingIds = changes.stream().filter(c -> !c.created).map(c -> c.id).toArray();
+        if (existingIds.length > 0) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM " + table + " WHERE product_id = ANY (?)");
+                statement.setArray(1, connection.createArrayOf("integer", existingIds));
+                return statement;
+            });
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (ProductChange change : changes) {
+            for (String name : names.apply(change.product)) {
+                rows.add(new Object[]{change.id, ids.get(name)});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (product_id, " + column + ") VALUES (?, ?)", rows);
+        }
+    }
+
+    private CatalogSnapshot loadSnapshot() {
+        CatalogSnapshot catalog = new CatalogSnapshot();
+        catalogExportService.getCatalog().forEach((id, product) -> {
+            // Keep the oldest product when several share a name
+            if (catalog.productIds.putIfAbsent(TextHelper.fold(product.getName()), id) == null) {
+                catalog.products.put(id, product);
+            }
+        });
+        for (Menu menu : menuRepository.findAll()) {
+            if (menu.getName() != null) {
+                catalog.menuIds.putIfAbsent(TextHelper.fold(menu.getName()), menu.getId());
+                catalog.menuNames.putIfAbsent(TextHelper.fold(menu.getName()), menu.getName());
+            }
+        }
+        allergenService.getAllAllergens()
+                .forEach(allergen -> catalog.allergenNames.putIfAbsent(TextHelper.fold(allergen.getName()), allergen.getName()));
+        ingredientService.getAllIngredients()
+                .forEach(ingredient -> catalog.ingredientNames.putIfAbsent(TextHelper.fold(ingredient.getName()), ingredient.getName()));
+        return catalog;
+    }
+
+    /**
+     * Validates a product and normalizes it in place: trims texts, applies defaults and
+     * replaces allergen, ingredient and menu names by the spelling already in the catalog.
+     * Stored image URLs whose image is not stored here are dropped.
+     *
+     * @return the reason the product is rejected, or null if it is valid
+     */
+    private String normalize(CatalogProductDto product, CatalogSnapshot catalog) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "falta el nombre del producto";
+        }
+        product.setName(product.getName().trim());
+        if (product.getPrice() == null) {
+            return "falta el precio";
+        }
+        if (!Double.isFinite(product.getPrice()) || product.getPrice() < 0) {
+            return "el precio debe ser un número positivo";
+        }
+        product.setDescription(trimToNull(product.getDescription()));
+        product.setImageUrl(trimToNull(product.getImageUrl()));
+        if (product.getImageUrl() != null && product.getImageUrl().startsWith(ProductImageService.URL_PREFIX)
+                && !productImageService.isStored(product.getImageUrl())) {
+            product.setImageUrl(null);
+        }
+        if (product.getName().length() > MAX_TEXT_LENGTH
+                || (product.getDescription() != null && product.getDescription().length() > MAX_TEXT_LENGTH)
+                || (product.getImageUrl() != null && product.getImageUrl().length() > MAX_TEXT_LENGTH)) {
+            return "el nombre, la descripción y la imagen no pueden superar los " + MAX_TEXT_LENGTH + " caracteres";
+        }
+        product.setAllergens(canonicalNames(product.getAllergens(), catalog.allergenNames));
+        product.setIngredients(canonicalNames(product.getIngredients(), catalog.ingredientNames));
+
+        Map<String, CatalogProductDto.MenuEntry> menus = new LinkedHashMap<>();
+        for (CatalogProductDto.MenuEntry entry : product.getMenus() != null ? product.getMenus() : List.<CatalogProductDto.MenuEntry>of()) {
+            if (entry == null || entry.getMenu() == null || entry.getMenu().isBlank()) {
+                continue;
+            }
+            int discount = entry.getDiscountPercentage() != null ? entry.getDiscountPercentage() : 0;
+            if (discount < 0 || discount > 100) {
+                return "el descuento debe estar entre 0 y 100";
+            }
+            String menu = catalog.menuNames.computeIfAbsent(TextHelper.fold(entry.getMenu()), key -> entry.getMenu().trim());
+            menus.put(TextHelper.fold(menu), new CatalogProductDto.MenuEntry(menu, Boolean.TRUE.equals(entry.getFeatured()), discount));
+        }
+        product.setMenus(new ArrayList<>(menus.values()));
+        return null;
+    }
+
+    // Trims names and spells them as the first occurrence seen, in the catalog or in the file
+    private static Set<String> canonicalNames(Set<String> names, Map<String, String> known) {
+        if (names == null) {
+            return null;
+        }
+        Set<String> canonical = new TreeSet<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                canonical.add(known.computeIfAbsent(TextHelper.fold(name), key -> name.trim()));
+            }
+        }
+        return canonical;
+    }
+
+    // Values left out by the file keep those of the current product, or get defaults for a new one
+    private static void fillUnspecified(CatalogProductDto product, CatalogProductDto current) {
+        if (product.getDescription() == null) {
+            product.setDescription(current != null ? current.getDescription() : "");
+        }
+        if (product.getImageUrl() == null && current != null) {
+            product.setImageUrl(current.getImageUrl());
+        }
+        if (product.getAllergens() == null) {
+            product.setAllergens(current != null ? new TreeSet<>(current.getAllergens()) : new TreeSet<>());
+        }
+        if (product.getIngredients() == null) {
+            product.setIngredients(current != null ? new TreeSet<>(current.getIngredients()) : new TreeSet<>());
+        }
+    }
+
+    // Later rows of a product override the values they give and add allergens, ingredients and menu entries
+    private static CatalogProductDto merge(CatalogProductDto previous, CatalogProductDto next) {
+        if (next.getDescription() == null) {
+            next.setDescription(previous.getDescription());
+        }
+        if (next.getImageUrl() == null) {
+            next.setImageUrl(previous.getImageUrl());
+        }
+        next.setAllergens(union(previous.getAllergens(), next.getAllergens()));
+        next.setIngredients(union(previous.getIngredients(), next.getIngredients()));
+        Map<String, CatalogProductDto.MenuEntry> menus = byMenu(previous.getMenus());
+        menus.putAll(byMenu(next.getMenus()));
+        next.setMenus(new ArrayList<>(menus.values()));
+        return next;
+    }
+
+    private static Map<String, CatalogProductDto.MenuEntry> byMenu(List<CatalogProductDto.MenuEntry> entries) {
+        Map<String, CatalogProductDto.MenuEntry> menus = new LinkedHashMap<>();
+        for (CatalogProductDto.MenuEntry entry : entries) {
+            menus.putIfAbsent(TextHelper.fold(entry.getMenu()), entry);
+        }
+        return menus;
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+        second.addAll(first);
+        return second;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Set<String> namesOf(List<ProductChange> changes, Function<CatalogProductDto, Set<String>> names) {
+        return changes.stream().flatMap(c -> names.apply(c.product).stream()).collect(Collectors.toSet());
+    }
+
+    private static CatalogProductDto parseCsvRow(List<String> fields, Map<String, Integer> columns) {
+        CatalogProductDto product = CatalogProductDto.builder()
+                .name(field(fields, columns, "nombre"))
+                .description(field(fields, columns, "descripcion"))
+                .price(parseNumber(field(fields, columns, "precio"), "precio", Double::valueOf))
+                .imageUrl(field(fields, columns, "imagen"))
+                .allergens(columns.containsKey("alergenos") ? splitList(field(fields, columns, "alergenos")) : null)
+                .ingredients(columns.containsKey("ingredientes") ? splitList(field(fields, columns, "ingredientes")) : null)
+                .build();
+        String menu = field(fields, columns, "menu");
+        if (menu != null) {
+            product.getMenus().add(new CatalogProductDto.MenuEntry(menu,
+                    parseBoolean(field(fields, columns, "destacado")),
+                    parseNumber(field(fields, columns, "descuento"), "descuento", Integer::valueOf)));
+        }
+        return product;
+    }
+
+    // Value of a column, or null when the column is missing or the value blank
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isBlank()) {
+            return null;
+        }
+        return fields.get(index).trim();
+    }
+
+    private static <T> T parseNumber(String value, String column, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("el valor de '" + column + "' no es un número válido: " + value);
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (TextHelper.fold(value)) {
+            case "true", "si", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException("el valor de 'destacado' debe ser sí o no: " + value);
+        };
+    }
+
+    private static Set<String> splitList(String value) {
+        Set<String> names = new TreeSet<>();
+        if (value != null) {
+            for (String name : LIST_SPLITTER.split(value)) {
+                if (!name.isBlank()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void addMessage(List<String> messages, String message) {
+        if (messages.size() < MAX_MESSAGES) {
+            messages.add(message);
+        } else if (messages.size() == MAX_MESSAGES) {
+            messages.add("…");
+        }
+    }
+
+    /**
+     * State of the catalog as seen by the import, keyed by folded names. New products
+     * and menus of a dry run get negative placeholder IDs.
+     */
+    private static class CatalogSnapshot {
+        private final Map<String, Integer> productIds = new HashMap<>();
+        private final Map<Integer, CatalogProductDto> products = new HashMap<>();
+        private final Map<String, Integer> menuIds = new HashMap<>();
+        private final Map<String, String> menuNames = new HashMap<>();
+        private final Map<String, String> allergenNames = new HashMap<>();
+        private final Map<String, String> ingredientNames = new HashMap<>();
+        private int nextDryRunId = -1;
+    }
+
+    /**
+     * Differences between a product of the file and its current version in the catalog.
+     */
+    private static class ProductChange {
+        private Integer id;
+        private final CatalogProductDto product;
+        private final boolean created;
+        private final boolean fieldsChanged;
+        private final boolean allergensChanged;
+        private final boolean ingredientsChanged;
+        private final List<String> changedFields = new ArrayList<>();
+        private final List<CatalogProductDto.MenuEntry> newEntries = new ArrayList<>();
+        private final List<CatalogProductDto.MenuEntry> changedEntries = new ArrayList<>();
+
+        private ProductChange(Integer id, CatalogProductDto product, CatalogProductDto current) {
+            this.id = id;
+            this.product = product;
+            this.created = current == null;
+            Map<String, CatalogProductDto.MenuEntry> currentEntries = new HashMap<>();
+            if (created) {
+                fieldsChanged = true;
+                allergensChanged = !product.getAllergens().isEmpty();
+                ingredientsChanged = !product.getIngredients().isEmpty();
+            } else {
+                // Non short-circuit, so every changed field is listed
+                fieldsChanged = compare("nombre", current.getName(), product.getName())
+                        | compare("descripción", current.getDescription(), product.getDescription())
+                        | compare("precio", current.getPrice(), product.getPrice())
+                        | compare("imagen", current.getImageUrl(), product.getImageUrl());
+                allergensChanged = compare("alérgenos", current.getAllergens(), product.getAllergens());
+                ingredientsChanged = compare("ingredientes", current.getIngredients(), product.getIngredients());
+                currentEntries = byMenu(current.getMenus());
+            }
+
+            for (CatalogProductDto.MenuEntry entry : product.getMenus()) {
+                CatalogProductDto.MenuEntry existing = currentEntries.get(TextHelper.fold(entry.getMenu()));
+                if (existing == null) {
+                    newEntries.add(entry);
+                } else if (Boolean.TRUE.equals(existing.getFeatured()) != entry.getFeatured()
+                        || !Objects.equals(Objects.requireNonNullElse(existing.getDiscountPercentage(), 0),
+                        entry.getDiscountPercentage())) {
+                    changedEntries.add(entry);
+                }
+            }
+            if (!created && (!newEntries.isEmpty() || !changedEntries.isEmpty())) {
+                changedFields.add("menús");
+            }
+        }
+
+        private boolean compare(String field, Object current, Object value) {
+            boolean changed = !Objects.equals(current, value);
+            if (changed) {
+                changedFields.add(field);
+            }
+            return changed;
+        }
+    }
+}
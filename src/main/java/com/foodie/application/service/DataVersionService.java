@@ -0,0 +1,89 @@
+package com.foodie.application.service;
+
+import com.foodie.application.event.CashClosingChangedEvent;
+import com.foodie.application.event.CatalogChangedEvent;
+import com.foodie.application.event.EstablishmentChangedEvent;
+import com.foodie.application.event.MenuChangedEvent;
+import com.foodie.application.event.OrderStatusChangedEvent;
+import com.foodie.application.event.UserChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class keeping a version number for each kind of data shown in the admin panel.
+ * <p>
+ * Versions only grow, and are increased by the change events once the changing
+ * transaction commits, so a view remembering the version of the data it loaded can
+ * tell whether it is stale without querying the data again.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Service
+public class DataVersionService {
+
+    /**
+     * Kinds of data with their own version.
+     */
+    public enum Topic {
+        MENUS,
+        PRODUCTS,
+        USERS,
+        ORDERS,
+        CASH_CLOSINGS,
+        ESTABLISHMENT
+    }
+
+    private final Map<Topic, AtomicLong> versions = new EnumMap<>(Topic.class);
+
+    public DataVersionService() {
+        for (Topic topic : Topic.values()) {
+            versions.put(topic, new AtomicLong());
+        }
+    }
+
+    /**
+     * Returns a combined version of several kinds of data, which changes whenever any of them changes.
+     *
+     * @param topics the kinds of data
+     * @return the combined version, 0 for no topics
+     */
+    public long getVersion(Collection<Topic> topics) {
+        return topics.stream().mapToLong(topic -> versions.get(topic).get()).sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        versions.get(Topic.MENUS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        versions.get(Topic.PRODUCTS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        versions.get(Topic.USERS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        versions.get(Topic.ORDERS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCashClosingChanged(CashClosingChangedEvent event) {
+        versions.get(Topic.CASH_CLOSINGS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEstablishmentChanged(EstablishmentChangedEvent event) {
+        versions.get(Topic.ESTABLISHMENT).incrementAndGet();
+    }
+}
@@ -1,71 +1,162 @@
 package com.foodie.application.service;
 
 import com.foodie.application.domain.Establishment;
+import com.foodie.application.dto.EstablishmentDto;
+import com.foodie.application.event.EstablishmentChangedEvent;
 import com.foodie.application.repository.EstablishmentRepository;
+import com.vaadin.flow.shared.Registration;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalTime;
-
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Service class for the settings of the establishment.
+ * <p>
+ * The application runs a single establishment, whose settings are loaded at startup
+ * and kept in memory, so reading them (e.g. checking the opening hours on checkout)
+ * never queries the database. Settings are updated as a whole in one transaction, and
+ * once it commits the new settings replace the cached ones and are sent to every
+ * registered listener, so open views can show them right away.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
 @Service
 public class EstablishmentService {
+
     private final EstablishmentRepository establishmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<Consumer<EstablishmentDto>> listeners = new CopyOnWriteArrayList<>();
+    private volatile EstablishmentDto settings;
 
-    public EstablishmentService(EstablishmentRepository establishmentRepository) {
+    public EstablishmentService(EstablishmentRepository establishmentRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.establishmentRepository = establishmentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Establishment getEstablishment() {
-        return establishmentRepository.findById(1)
-                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: 1"));
+    /**
+     * Loads the settings of the establishment from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        settings = establishmentRepository.findFirstByOrderByIdAsc()
+                .map(EstablishmentDto::fromEstablishment)
+                .orElse(null);
+        if (settings == null) {
+            log.warn("No establishment found, its settings are not available");
+        }
     }
 
-    @Transactional
-    public void updateEstablishmentName(String newName) {
-        var establishment = establishmentRepository.findById(1)
-                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: 1"));
-
-        establishment.setName(newName);
+    /**
+     * Gets the current settings of the establishment.
+     *
+     * @return a copy of the settings
+     * @throws EntityNotFoundException if there is no establishment
+     */
+    public EstablishmentDto getEstablishment() {
+        return current().toBuilder().build();
     }
 
-    @Transactional
-    public void updateEstablishmentAddress(String newAddress) {
-        var establishment = establishmentRepository.findById(1)
-                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: 1"));
-
-        establishment.setAddress(newAddress);
+    /**
+     * Checks whether the establishment is open at a given time. Opening hours may cross
+     * midnight, and an establishment without opening hours is always open.
+     *
+     * @param time the time of day
+     * @return true if the time is within the opening hours
+     */
+    public boolean isOpenAt(LocalTime time) {
+        EstablishmentDto current = settings;
+        if (current == null || current.getOpeningTime() == null || current.getClosingTime() == null) {
+            return true;
+        }
+        LocalTime opening = current.getOpeningTime();
+        LocalTime closing = current.getClosingTime();
+        if (opening.isBefore(closing)) {
+            return !time.isBefore(opening) && time.isBefore(closing);
+        }
+        return !time.isBefore(opening) || time.isBefore(closing);
     }
 
+    /**
+     * Updates all the settings of the establishment at once.
+     *
+     * @param establishmentDto the new settings; missing opening or closing times keep the current ones
+     * @throws IllegalArgumentException if the name is empty
+     * @throws EntityNotFoundException if there is no establishment
+     */
     @Transactional
-    public void updateEstablishmentPhone(String newPhone) {
-        var establishment = establishmentRepository.findById(1)
-                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: 1"));
-
-        establishment.setPhone(newPhone);
+    public void updateEstablishment(EstablishmentDto establishmentDto) {
+        if (establishmentDto.getName() == null || establishmentDto.getName().isBlank()) {
+            throw new IllegalArgumentException("Establishment name is required");
+        }
+        Integer id = current().getId();
+        Establishment establishment = establishmentRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: " + id));
+
+        establishment.setName(establishmentDto.getName());
+        establishment.setDescription(establishmentDto.getDescription());
+        establishment.setAddress(establishmentDto.getAddress());
+        establishment.setPhone(establishmentDto.getPhone());
+        if (establishmentDto.getOpeningTime() != null) {
+            establishment.setOpeningTime(establishmentDto.getOpeningTime());
+        }
+        if (establishmentDto.getClosingTime() != null) {
+            establishment.setClosingTime(establishmentDto.getClosingTime());
+        }
+        eventPublisher.publishEvent(new EstablishmentChangedEvent(id));
     }
 
-    @Transactional
-    public void updateEstablishmentDescription(String newDescription) {
-        var establishment = establishmentRepository.findById(1)
-                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: 1"));
-
-        establishment.setDescription(newDescription);
+    /**
+     * Registers a listener called with the new settings whenever they change. Listeners
+     * are called from the thread that committed the change, so UI listeners must use
+     * {@code UI.access}.
+     *
+     * @param listener the listener
+     * @return the registration to remove the listener
+     */
+    public Registration addSettingsListener(Consumer<EstablishmentDto> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
     }
 
-    @Transactional
-    public void updateEstablishmentOpeningTime(LocalTime newOpeningTime) {
-        var establishment = establishmentRepository.findById(1)
-                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: 1"));
-
-        establishment.setOpeningTime(newOpeningTime);
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEstablishmentChanged(EstablishmentChangedEvent event) {
+        load();
+        EstablishmentDto current = settings;
+        if (current == null) {
+            return;
+        }
+        for (Consumer<EstablishmentDto> listener : listeners) {
+            try {
+                listener.accept(current.toBuilder().build());
+            } catch (RuntimeException e) {
+                log.warn("Establishment settings listener failed", e);
+            }
+        }
     }
 
-    @Transactional
-    public void updateEstablishmentClosingTime(LocalTime newClosingTime) {
-        var establishment = establishmentRepository.findById(1)
-                .orElseThrow(() -> new EntityNotFoundException("Establishment not found with id: 1"));
-
-        establishment.setClosingTime(newClosingTime);
+    private EstablishmentDto current() {
+        EstablishmentDto current = settings;
+        if (current == null) {
+            // The establishment may have been created after startup
+            load();
+            current = settings;
+        }
+        if (current == null) {
+            throw new EntityNotFoundException("Establishment not found");
+        }
+        return current;
     }
 }
@@ -2,11 +2,15 @@ package com.foodie.application.service;
 
 import com.foodie.application.domain.Allergen;
 import com.foodie.application.domain.Ingredient;
+import com.foodie.application.event.CatalogChangedEvent;
 import com.foodie.application.repository.IngredientRepository;
+import com.foodie.application.repository.NameIdDictionary;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,9 +20,13 @@ import java.util.stream.Collectors;
 @Service
 public class IngredientService {
     private final IngredientRepository ingredientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NameIdDictionary ingredientIds;
 
-    public IngredientService(IngredientRepository ingredientRepository) {
+    public IngredientService(IngredientRepository ingredientRepository, ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate) {
         this.ingredientRepository = ingredientRepository;
+        this.eventPublisher = eventPublisher;
+        this.ingredientIds = new NameIdDictionary(jdbcTemplate, "ingredient");
     }
 
     @Cacheable(value = "ingredients")
@@ -32,18 +40,28 @@ public class IngredientService {
         Ingredient ingredient = new Ingredient();
         ingredient.setName(ingredientName);
 
-        return ingredientRepository.save(ingredient);
+        Ingredient saved = ingredientRepository.save(ingredient);
+        ingredientIds.put(saved.getName(), saved.getId());
+        return saved;
     }
 
+    /**
+     * Finds the ingredients with the given names, creating the missing ones.
+     * Resolves every name with at most one select and one batch insert, and none
+     * for names already known, without racing a concurrent creation of the same name.
+     * The returned instances only carry ID and name, enough to link them to a product.
+     *
+     * @param names the ingredient names
+     * @return the ingredients, one per name
+     */
     @Transactional
-    @Cacheable(value = "ingredients", key = "#names")
+    @CacheEvict(value = "ingredients", allEntries = true)
     public Set<Ingredient> findOrCreateByNames(Set<String> names) {
         if (names == null || names.isEmpty()) {
             return Set.of();
         }
-        return names.stream()
-                .map(name -> ingredientRepository.findByName(name)
-                        .orElseGet(() -> ingredientRepository.save(Ingredient.builder().name(name).build())))
+        return ingredientIds.resolve(names).entrySet().stream()
+                .map(entry -> Ingredient.builder().id(entry.getValue()).name(entry.getKey()).build())
                 .collect(Collectors.toSet());
     }
 
@@ -53,6 +71,8 @@ public class IngredientService {
         var ingredient = ingredientRepository.findById(ingredientId)
                 .orElseThrow(() -> new EntityNotFoundException("Ingredient not found with id: " + ingredientId));
         ingredient.setName(newName);
+        ingredientIds.clear();
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 
     @Transactional
@@ -61,5 +81,7 @@ public class IngredientService {
             throw new EntityNotFoundException("Allergen not found with id: " + ingredientId);
         }
         ingredientRepository.deleteById(ingredientId);
+        ingredientIds.clear();
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 }
@@ -2,25 +2,101 @@ package com.foodie.application.service;
 
 import com.foodie.application.domain.Menu;
 import com.foodie.application.domain.MenuItem;
+import com.foodie.application.dto.MenuItemDto;
+import com.foodie.application.event.CatalogChangedEvent;
+import com.foodie.application.event.MenuChangedEvent;
 import com.foodie.application.repository.MenuItemRepository;
 import com.foodie.application.repository.MenuRepository;
 import com.foodie.application.repository.ProductRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class MenuItemService {
     private final MenuItemRepository menuItemRepository;
     private final MenuRepository menuRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
-    public MenuItemService(MenuItemRepository menuItemRepository, MenuRepository menuRepository, ProductRepository productRepository) {
+    public MenuItemService(MenuItemRepository menuItemRepository, MenuRepository menuRepository, ProductRepository productRepository,
+                           ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
         this.menuItemRepository = menuItemRepository;
         this.menuRepository = menuRepository;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Prepares the menu items on startup: fills in the positions and discounted prices
+     * of items created before they were stored. The SQL is PostgreSQL specific.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeMenuItems() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int positioned = jdbcTemplate.update("UPDATE menu_item mi SET position = ranked.position FROM (" +
+                    "SELECT id, ROW_NUMBER() OVER (PARTITION BY menu_id ORDER BY position NULLS LAST, id) - 1 AS position " +
+                    "FROM menu_item) ranked WHERE mi.id = ranked.id AND mi.position IS DISTINCT FROM ranked.position");
+            int repriced = menuItemRepository.refreshAllDiscountedPrices();
+            log.info("Initialized menu items: {} positioned, {} prices refreshed", positioned, repriced);
+        });
+    }
+
+    /**
+     * Recomputes the stored discounted prices of a changed product in the same
+     * transaction as the change, so a new price is never committed without them.
+     *
+     * @param event the catalog change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Joins the transaction being committed, or runs in a new one if the change had none
+        transactionTemplate.executeWithoutResult(status -> {
+            if (event.productId() == null) {
+                menuItemRepository.refreshAllDiscountedPrices();
+            } else {
+                menuItemRepository.refreshDiscountedPrices(List.of(event.productId()));
+            }
+        });
+    }
+
+    /**
+     * Gets the current price of products, as stored with their menu items. A product in
+     * several menus costs the lowest of its prices after discount.
+     *
+     * @param productIds the product IDs
+     * @return the price of every product offered in some menu; products in no menu are missing
+     */
+    public Map<Integer, Double> getCurrentPrices(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return menuItemRepository.findPrices(productIds).stream()
+                .collect(Collectors.toMap(MenuItemRepository.ProductPrice::getProductId,
+                        MenuItemRepository.ProductPrice::getPrice));
     }
 
     /**
@@ -47,29 +123,50 @@ public class MenuItemService {
      * @param featured whether the item is featured
      * @param discountPercentage the discount percentage
      * @return the created MenuItem
+     * @throws IllegalArgumentException if the product is already in the menu
      */
     @Transactional
     public MenuItem addMenuItem(Integer productId, Menu menu, Boolean featured, Integer discountPercentage) {
+        if (menuItemRepository.existsByMenuIdAndProductId(menu.getId(), productId)) {
+            throw new IllegalArgumentException("El producto ya está en este menú");
+        }
         MenuItem menuItem = MenuItem.builder()
                 .product(productRepository.findById(productId).orElseThrow())
                 .menu(menu)
                 .featured(featured)
                 .discountPercentage(discountPercentage)
+                .position(menuItemRepository.findNextPosition(menu.getId()))
                 .build();
-        return menuItemRepository.save(menuItem);
+        MenuItem saved;
+        try {
+            saved = menuItemRepository.saveAndFlush(menuItem);
+        } catch (DataIntegrityViolationException e) {
+            // The same product was added concurrently
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (cause != null && cause.contains("uk_menu_item_menu_product")) {
+                throw new IllegalArgumentException("El producto ya está en este menú");
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new MenuChangedEvent(menu.getId()));
+        return saved;
     }
 
     public List<MenuItem> getMenuItems(Integer menuId) {
         return menuItemRepository.findByMenuId(menuId);
     }
 
+    /**
+     * Removes a product from a menu with a single statement.
+     *
+     * @param menuId the ID of the menu
+     * @param productId the ID of the product
+     */
     @Transactional
     public void deleteMenuItem(Integer menuId, Integer productId) {
-        List<MenuItem> menuItems = menuItemRepository.findByMenuId(menuId);
-        menuItems.stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .ifPresent(menuItemRepository::delete);
+        if (menuItemRepository.deleteByMenuIdAndProductIds(menuId, List.of(productId)) > 0) {
+            eventPublisher.publishEvent(new MenuChangedEvent(menuId));
+        }
     }
 
     /**
@@ -90,10 +187,11 @@ public class MenuItemService {
         menuItem.setFeatured(featured);
         menuItem.setDiscountPercentage(discountPercentage);
         menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent(menuItem.getMenu().getId()));
     }
 
     /**
-     * Updates a menu item by menu ID and product ID.
+     * Updates a menu item by menu ID and product ID with a single statement.
      * This is an alternative method to update a menu item using menu and product identifiers.
      *
      * @param menuId the ID of the menu
@@ -103,15 +201,56 @@ public class MenuItemService {
      */
     @Transactional
     public void updateMenuItemByMenuAndProduct(Integer menuId, Integer productId, Boolean featured, Integer discountPercentage) {
-        List<MenuItem> menuItems = menuItemRepository.findByMenuId(menuId);
-        menuItems.stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .ifPresent(item -> {
-                    item.setFeatured(featured);
-                    item.setDiscountPercentage(discountPercentage);
-                    menuItemRepository.save(item);
-                });
+        if (menuItemRepository.updateByMenuIdAndProductId(menuId, productId, featured, discountPercentage) > 0) {
+            eventPublisher.publishEvent(new MenuChangedEvent(menuId));
+        }
+    }
+
+    /**
+     * Applies several changes to the items of a menu in one transaction, with one
+     * statement per kind of change.
+     *
+     * @param menuId the ID of the menu
+     * @param upserts products to add to the menu, at its end, or whose featured flag
+     *                and discount change if they are already in it
+     * @param removedProductIds IDs of the products to remove from the menu
+     * @param orderedProductIds IDs of the products of the menu in their new order, or an
+     *                          empty list to keep it; products not listed go after them
+     * @throws EntityNotFoundException if the menu is not found
+     */
+    @Transactional
+    public void applyChanges(Integer menuId, List<MenuItemDto> upserts, Collection<Integer> removedProductIds,
+                             List<Integer> orderedProductIds) {
+        if (!menuRepository.existsById(menuId)) {
+            throw new EntityNotFoundException("Menu not found with id: " + menuId);
+        }
+        if (!removedProductIds.isEmpty()) {
+            menuItemRepository.deleteByMenuIdAndProductIds(menuId, removedProductIds);
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO menu_item (menu_id, product_id, featured, discount_percentage, position) " +
+                            "VALUES (?, ?, ?, ?, (SELECT COALESCE(MAX(position) + 1, 0) FROM menu_item WHERE menu_id = ?)) " +
+                            "ON CONFLICT (menu_id, product_id) DO UPDATE " +
+                            "SET featured = EXCLUDED.featured, discount_percentage = EXCLUDED.discount_percentage",
+                    upserts.stream()
+                            .map(item -> new Object[]{menuId, item.getProductId(), Boolean.TRUE.equals(item.getFeatured()),
+                                    item.getDiscountPercentage(), menuId})
+                            .toList());
+            menuItemRepository.refreshDiscountedPrices(upserts.stream().map(MenuItemDto::getProductId).toList());
+        }
+        if (!orderedProductIds.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement("UPDATE menu_item mi SET position = ranked.position " +
+                        "FROM (SELECT m.id, ROW_NUMBER() OVER (ORDER BY o.ordinal NULLS LAST, m.position, m.id) - 1 AS position " +
+                        "FROM menu_item m LEFT JOIN unnest(?) WITH ORDINALITY AS o(product_id, ordinal) " +
+                        "ON o.product_id = m.product_id WHERE m.menu_id = ?) ranked " +
+                        "WHERE mi.id = ranked.id AND mi.position IS DISTINCT FROM ranked.position");
+                statement.setArray(1, connection.createArrayOf("integer", orderedProductIds.toArray()));
+                statement.setInt(2, menuId);
+                return statement;
+            });
+        }
+        eventPublisher.publishEvent(new MenuChangedEvent(menuId));
     }
 
 }
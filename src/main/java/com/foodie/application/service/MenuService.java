@@ -6,15 +6,22 @@ import com.foodie.application.dto.MenuDto;
 import com.foodie.application.dto.MenuItemDto;
 import com.foodie.application.dto.MenuItemDisplayDto;
 import com.foodie.application.dto.ProductDto;
+import com.foodie.application.event.CatalogChangedEvent;
+import com.foodie.application.event.MenuChangedEvent;
 import com.foodie.application.repository.MenuRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,10 +29,20 @@ public class MenuService {
 
     private final MenuRepository menuRepository;
     private final MenuItemService menuItemService;
+    private final AllergenService allergenService;
+    private final ApplicationEventPublisher eventPublisher;
+    // Allergen mask of each product, kept with the allergen names it was compiled from
+    private final Map<Integer, AllergenMask> allergenMasks = new ConcurrentHashMap<>();
 
-    public MenuService(MenuRepository menuRepository, MenuItemService menuItemService) {
+    private record AllergenMask(Set<String> allergenNames, long mask) {
+    }
+
+    public MenuService(MenuRepository menuRepository, MenuItemService menuItemService, AllergenService allergenService,
+                       ApplicationEventPublisher eventPublisher) {
         this.menuRepository = menuRepository;
         this.menuItemService = menuItemService;
+        this.allergenService = allergenService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -50,6 +67,8 @@ public class MenuService {
      * Gets menu items with complete display information including product details,
      * ingredients, allergens, and discount information.
      * This method is specifically designed for the frontend to display products.
+     * Each item carries its allergens compiled into a bitmask for allergy filtering; the mask
+     * of a product is compiled once and reused while its allergens stay the same.
      *
      * @param menuId the ID of the menu
      * @return list of MenuItemDisplayDto with all display information
@@ -58,11 +77,29 @@ public class MenuService {
     public List<MenuItemDisplayDto> getMenuItemsForDisplay(Integer menuId) {
         Optional<Menu> optMenu = menuRepository.findById(menuId);
         return optMenu.map(menu -> menu.getMenuItems().stream()
-                .map(MenuItemDisplayDto::fromMenuItem)
+                .map(menuItem -> {
+                    MenuItemDisplayDto item = MenuItemDisplayDto.fromMenuItem(menuItem);
+                    item.setAllergenMask(allergenMaskOf(item));
+                    return item;
+                })
                 .collect(Collectors.toList()))
                 .orElse(new ArrayList<>());
     }
 
+    /**
+     * Drops the allergen masks of the changed products, so masks are only kept for existing ones.
+     *
+     * @param event the catalog change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() == null) {
+            allergenMasks.clear();
+        } else {
+            allergenMasks.remove(event.productId());
+        }
+    }
+
     @Transactional
     public Integer addMenu(String name, List<MenuItemDto> items) {
         Menu menu = new Menu();
@@ -79,6 +116,7 @@ public class MenuService {
         ).toList();
 
         savedMenu.setMenuItems(menuItems);
+        eventPublisher.publishEvent(new MenuChangedEvent(savedMenu.getId()));
         return savedMenu.getId();
     }
 
@@ -86,6 +124,7 @@ public class MenuService {
     public Integer deleteMenu(Integer menuId) {
         Menu menu = menuRepository.findById(menuId).orElseThrow();
         menuRepository.delete(menu);
+        eventPublisher.publishEvent(new MenuChangedEvent(menuId));
         return menuId;
     }
 
@@ -93,5 +132,17 @@ public class MenuService {
     public void updateMenuName(Integer menuId, String newName) {
         Menu menu = menuRepository.findById(menuId).orElseThrow();
         menu.setName(newName);
+        eventPublisher.publishEvent(new MenuChangedEvent(menuId));
+    }
+
+    private long allergenMaskOf(MenuItemDisplayDto item) {
+        Set<String> allergenNames = item.getAllergenNames() != null ? item.getAllergenNames() : Set.of();
+        AllergenMask cached = allergenMasks.get(item.getProductId());
+        if (cached != null && cached.allergenNames().equals(allergenNames)) {
+            return cached.mask();
+        }
+        long mask = allergenService.getProductAllergenMask(allergenNames);
+        allergenMasks.put(item.getProductId(), new AllergenMask(Set.copyOf(allergenNames), mask));
+        return mask;
     }
 }
@@ -0,0 +1,192 @@
+package com.foodie.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodie.application.domain.MenuItem;
+import com.foodie.application.dto.ProductDto;
+import com.foodie.application.dto.PublicMenuDto;
+import com.foodie.application.event.CatalogChangedEvent;
+import com.foodie.application.event.MenuChangedEvent;
+import com.foodie.application.helper.HashHelper;
+import com.foodie.application.repository.MenuItemRepository;
+import com.foodie.application.repository.MenuRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service class for the read-only menu API.
+ * <p>
+ * The menus with their items are serialized to JSON once per catalog version, together
+ * with a gzip-compressed copy and an entity tag derived from the content, so requests
+ * are answered from memory without touching the database. Any committed catalog or menu
+ * change discards the snapshot, and the next request builds a new one with a fixed
+ * number of set-based queries.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class MenuSnapshotService {
+
+    /**
+     * Pre-serialized menu, the same for every client until the catalog changes.
+     *
+     * @param json the JSON body, encoded in UTF-8
+     * @param gzip the JSON body compressed with gzip
+     * @param etag the strong entity tag of the JSON body, without quotes
+     */
+    public record Snapshot(byte[] json, byte[] gzip, String etag) {
+    }
+
+    // Catalog version and the snapshot built for it, if any
+    private record State(long version, Snapshot snapshot) {
+    }
+
+    private final MenuRepository menuRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    // Replaced on every change, so a snapshot built from older data is never kept
+    private final AtomicReference<State> state = new AtomicReference<>(new State(0, null));
+
+    /**
+     * Constructs a MenuSnapshotService with the repositories used to read the menus.
+     *
+     * @param menuRepository the menu repository
+     * @param menuItemRepository the menu item repository
+     * @param productService the product service
+     * @param objectMapper the JSON mapper
+     */
+    public MenuSnapshotService(MenuRepository menuRepository, MenuItemRepository menuItemRepository,
+                               ProductService productService, ObjectMapper objectMapper) {
+        this.menuRepository = menuRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the current menu snapshot, building it if the catalog changed since the last one.
+     *
+     * @return the snapshot
+     */
+    public Snapshot getSnapshot() {
+        State current = state.get();
+        if (current.snapshot() != null) {
+            return current.snapshot();
+        }
+        synchronized (this) {
+            current = state.get();
+            if (current.snapshot() != null) {
+                return current.snapshot();
+            }
+            Snapshot built = build();
+            // Fails if the catalog changed while building, so the next request builds again
+            state.compareAndSet(current, new State(current.version(), built));
+            return built;
+        }
+    }
+
+    /**
+     * Discards the snapshot once a product change has been committed.
+     *
+     * @param event the catalog change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Discards the snapshot once a menu change has been committed.
+     *
+     * @param event the menu change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        state.updateAndGet(current -> new State(current.version() + 1, null));
+    }
+
+    private Snapshot build() {
+        Map<Integer, ProductDto> products = productService.getAllProductsAsDto().stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        Map<Integer, PublicMenuDto> menus = new LinkedHashMap<>();
+        menuRepository.findAll(Sort.by("id")).forEach(menu ->
+                menus.put(menu.getId(), PublicMenuDto.builder().id(menu.getId()).name(menu.getName()).build()));
+
+        int items = 0;
+        for (MenuItemRepository.MenuEntry entry : menuItemRepository.findAllEntries()) {
+            PublicMenuDto menu = menus.get(entry.getMenuId());
+            ProductDto product = products.get(entry.getProductId());
+            if (menu == null || product == null) {
+                continue;
+            }
+            menu.getItems().add(toItem(product, entry));
+            items++;
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Map.of("menus", menus.values()));
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            Snapshot built = new Snapshot(json, gzip.toByteArray(), HashHelper.contentHash(json));
+            log.info("Built menu snapshot {}: {} menus, {} items, {} KB ({} KB gzip)", built.etag(), menus.size(),
+                    items, json.length / 1024, built.gzip().length / 1024);
+            return built;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize the menu", e);
+        }
+    }
+
+    private static PublicMenuDto.Item toItem(ProductDto product, MenuItemRepository.MenuEntry entry) {
+        Integer discount = entry.getDiscountPercentage();
+        Double discountedPrice = entry.getDiscountedPrice() != null
+                ? entry.getDiscountedPrice()
+                : MenuItem.discountedPrice(product.getPrice(), discount);
+        return PublicMenuDto.Item.builder()
+                .productId(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .imageUrl(ProductImageService.variantUrl(product.getImageUrl(), ProductImageService.Variant.CARD))
+                .imageVariants(imageVariants(product.getImageUrl()))
+                .price(product.getPrice())
+                .discountPercentage(discount)
+                .discountedPrice(discountedPrice)
+                .featured(Boolean.TRUE.equals(entry.getFeatured()))
+                // Sorted so the same catalog always serializes to the same bytes and entity tag
+                .allergens(new TreeSet<>(product.getAllergenNames()))
+                .ingredients(new TreeSet<>(product.getIngredients()))
+                .build();
+    }
+
+    private static Map<String, String> imageVariants(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(ProductImageService.URL_PREFIX)) {
+            return null;
+        }
+        Map<String, String> variants = new TreeMap<>();
+        for (ProductImageService.Variant variant : ProductImageService.Variant.values()) {
+            variants.put(variant.pathName(), ProductImageService.variantUrl(imageUrl, variant));
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,278 @@
+package com.foodie.application.service;
+
+import com.foodie.application.domain.OrderStatus;
+import com.foodie.application.event.OrderStatusChangedEvent;
+import com.foodie.application.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Service class deciding whether a checkout may place a new order.
+ * <p>
+ * Orders are refused outside opening hours, and admitted according to two limits:
+ * the number of checkouts writing an order at the same time, which protects the
+ * database, and the kitchen backlog of confirmed orders not yet ready, tracked in
+ * memory from the status change events. Past a soft backlog threshold orders are still
+ * accepted but queued, with a quoted wait time; past the hard limit they are refused
+ * with the time after which the kitchen should have room again. Quoted times come from
+ * the rolling median time orders spend being prepared.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class OrderAdmissionService {
+
+    /**
+     * Statuses of orders the kitchen still has to prepare. Pending orders are not paid
+     * yet and never reach the kitchen until confirmed.
+     */
+    private static final Set<OrderStatus> BACKLOG_STATUSES = EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING);
+
+    /**
+     * Possible outcomes of a checkout.
+     */
+    public enum Outcome {
+        /** The order may be placed and the kitchen has room for it. */
+        ACCEPTED,
+        /** The order may be placed, but the kitchen is busy and it will wait. */
+        QUEUED,
+        /** The order is refused for now, the kitchen or the checkout is saturated. */
+        BUSY,
+        /** The order is refused, the establishment is closed. */
+        CLOSED
+    }
+
+    /**
+     * Decision on a checkout.
+     *
+     * @param outcome the outcome
+     * @param quotedWait for queued orders, the expected wait; for busy ones, the time before retrying; otherwise zero
+     */
+    public record Decision(Outcome outcome, Duration quotedWait) {
+
+        /**
+         * @return whether the order may be placed
+         */
+        public boolean isAdmitted() {
+            return outcome == Outcome.ACCEPTED || outcome == Outcome.QUEUED;
+        }
+    }
+
+    /**
+     * Admission of a checkout, holding a checkout slot while admitted. Must be closed
+     * once the order is placed or abandoned.
+     */
+    public final class Admission implements AutoCloseable {
+
+        private final Decision decision;
+        private boolean holdsPermit;
+
+        private Admission(Decision decision, boolean holdsPermit) {
+            this.decision = decision;
+            this.holdsPermit = holdsPermit;
+        }
+
+        /**
+         * @return the decision on the checkout
+         */
+        public Decision getDecision() {
+            return decision;
+        }
+
+        @Override
+        public void close() {
+            if (holdsPermit) {
+                holdsPermit = false;
+                checkoutPermits.release();
+            }
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final EstablishmentService establishmentService;
+    private final OrderStatusHistoryService orderStatusHistoryService;
+    private final boolean enabled;
+    private final Semaphore checkoutPermits;
+    private final Duration busyRetryAfter;
+    private final int queueThreshold;
+    private final int maxBacklog;
+    private final int kitchenCapacity;
+    private final Duration defaultPreparationTime;
+    private final Set<Integer> backlog = ConcurrentHashMap.newKeySet();
+    // Serializes reloading the backlog with the status change updates
+    private final Object backlogLock = new Object();
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    /**
+     * Constructs an OrderAdmissionService and registers its meters.
+     *
+     * @param orderRepository the repository used to load the backlog
+     * @param establishmentService the service providing the opening hours
+     * @param orderStatusHistoryService the service providing the time orders spend being prepared
+     * @param meterRegistry the registry the admission meters are published to
+     * @param enabled whether the limits are applied at all; opening hours always are
+     * @param maxConcurrentCheckouts the number of checkouts that may write an order at the same time
+     * @param busyRetryMs the time after which a checkout refused for lack of a free slot is told to retry
+     * @param queueThreshold the backlog from which accepted orders are queued with a quoted wait
+     * @param maxBacklog the backlog from which orders are refused
+     * @param kitchenCapacity the number of orders the kitchen prepares at the same time
+     * @param defaultPreparationMinutes the preparation time assumed until there are measurements
+     */
+    public OrderAdmissionService(OrderRepository orderRepository,
+                                 EstablishmentService establishmentService,
+                                 OrderStatusHistoryService orderStatusHistoryService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${foodie.orders.admission.enabled:true}") boolean enabled,
+                                 @Value("${foodie.orders.admission.max-concurrent-checkouts:4}") int maxConcurrentCheckouts,
+                                 @Value("${foodie.orders.admission.busy-retry-ms:2000}") long busyRetryMs,
+                                 @Value("${foodie.orders.admission.queue-threshold:10}") int queueThreshold,
+                                 @Value("${foodie.orders.admission.max-backlog:30}") int maxBacklog,
+                                 @Value("${foodie.orders.admission.kitchen-capacity:4}") int kitchenCapacity,
+                                 @Value("${foodie.orders.admission.default-preparation-minutes:15}") int defaultPreparationMinutes) {
+        this.orderRepository = orderRepository;
+        this.establishmentService = establishmentService;
+        this.orderStatusHistoryService = orderStatusHistoryService;
+        this.enabled = enabled;
+        this.checkoutPermits = new Semaphore(maxConcurrentCheckouts);
+        this.busyRetryAfter = Duration.ofMillis(busyRetryMs);
+        this.queueThreshold = queueThreshold;
+        this.maxBacklog = maxBacklog;
+        this.kitchenCapacity = Math.max(1, kitchenCapacity);
+        this.defaultPreparationTime = Duration.ofMinutes(defaultPreparationMinutes);
+
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("foodie.orders.admission")
+                    .description("Checkouts by admission outcome")
+                    .tag("outcome", outcome.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("foodie.orders.backlog", backlog, Set::size)
+                .description("Confirmed orders the kitchen has not finished preparing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the kitchen backlog from the database. Also run periodically, so orders
+     * that left the backlog without a status change (e.g. deleted ones) are dropped.
+     * Status changes wait while the backlog is read and applied: those committed after
+     * the read are applied after it, so none is overwritten by an older read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${foodie.orders.admission.resync-interval-ms:300000}",
+            fixedDelayString = "${foodie.orders.admission.resync-interval-ms:300000}")
+    public void loadBacklog() {
+        synchronized (backlogLock) {
+            Set<Integer> current = new HashSet<>(orderRepository.findIdsByStatusIn(BACKLOG_STATUSES));
+            backlog.retainAll(current);
+            backlog.addAll(current);
+            log.debug("Kitchen backlog has {} orders", current.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        synchronized (backlogLock) {
+            if (BACKLOG_STATUSES.contains(event.newStatus())) {
+                backlog.add(event.orderId());
+            } else {
+                backlog.remove(event.orderId());
+            }
+        }
+    }
+
+    /**
+     * Decides whether an order could be placed now, without reserving a checkout slot,
+     * e.g. to warn the customer before confirming.
+     *
+     * @return the decision
+     */
+    public Decision check() {
+        if (!establishmentService.isOpenAt(LocalTime.now())) {
+            return new Decision(Outcome.CLOSED, Duration.ZERO);
+        }
+        if (!enabled) {
+            return new Decision(Outcome.ACCEPTED, Duration.ZERO);
+        }
+        int queued = backlog.size() + (checkoutPermits.availablePermits() == 0 ? 1 : 0);
+        return decide(queued);
+    }
+
+    /**
+     * Admits a checkout about to place an order. Never waits: it runs on the UI request
+     * thread, so a checkout finding every slot taken is refused at once and told to
+     * retry shortly. The returned admission must be closed once the order is placed.
+     *
+     * @return the admission, holding a checkout slot if admitted
+     */
+    public Admission tryAdmit() {
+        if (!establishmentService.isOpenAt(LocalTime.now())) {
+            return record(new Admission(new Decision(Outcome.CLOSED, Duration.ZERO), false));
+        }
+        if (!enabled) {
+            return record(new Admission(new Decision(Outcome.ACCEPTED, Duration.ZERO), false));
+        }
+        if (!checkoutPermits.tryAcquire()) {
+            return record(new Admission(new Decision(Outcome.BUSY, busyRetryAfter), false));
+        }
+        Decision decision = decide(backlog.size());
+        if (!decision.isAdmitted()) {
+            checkoutPermits.release();
+            return record(new Admission(decision, false));
+        }
+        return record(new Admission(decision, true));
+    }
+
+    /**
+     * @return the number of confirmed orders the kitchen has not finished preparing
+     */
+    public int getBacklog() {
+        return backlog.size();
+    }
+
+    private Decision decide(int queued) {
+        if (queued >= maxBacklog) {
+            // Time for the kitchen to work the backlog down below the limit
+            return new Decision(Outcome.BUSY, preparationTime(queued - maxBacklog + 1));
+        }
+        if (queued >= queueThreshold) {
+            // Time for the kitchen to get through the orders ahead and this one
+            return new Decision(Outcome.QUEUED, preparationTime(queued + 1));
+        }
+        return new Decision(Outcome.ACCEPTED, Duration.ZERO);
+    }
+
+    // Time to prepare a number of orders, in rounds of as many as the kitchen handles at once
+    private Duration preparationTime(int orders) {
+        Duration perRound = orderStatusHistoryService.getTimeInStatus(OrderStatus.PREPARING, 0.5);
+        if (perRound == null || perRound.isZero()) {
+            perRound = defaultPreparationTime;
+        }
+        int rounds = (orders + kitchenCapacity - 1) / kitchenCapacity;
+        return perRound.multipliedBy(rounds);
+    }
+
+    private Admission record(Admission admission) {
+        outcomes.get(admission.getDecision().outcome()).increment();
+        return admission;
+    }
+}
@@ -0,0 +1,449 @@
+package com.foodie.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodie.application.domain.OrderStatus;
+import com.foodie.application.domain.PaymentMethod;
+import com.foodie.application.domain.PaymentStatus;
+import com.foodie.application.dto.ArchivedOrderDto;
+import com.foodie.application.dto.OrderDto;
+import com.foodie.application.dto.PaymentDto;
+import com.foodie.application.dto.ProductListDto;
+import com.foodie.application.dto.SalesStatisticsDto;
+import com.foodie.application.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for archiving closed order history.
+ * <p>
+ * The live {@code orders} table only keeps the hot working set: open orders and
+ * recently closed ones. A scheduled job moves COMPLETED, CANCELLED and FAILED orders
+ * older than a configurable horizon into {@code orders_archive}, a table range-partitioned
+ * by month on PostgreSQL. Operational screens keep reading the small hot table through
+ * JPA, while statistics and exports also read the archive through this service.
+ * </p>
+ * <p>
+ * The live table itself is not partitioned: it is referenced by foreign keys and its
+ * primary key is the JPA identity column, while Postgres requires the partition key
+ * to be part of every unique constraint. Archived rows never change, so the archive has
+ * no inbound references and can be partitioned freely.
+ * </p>
+ * <p>
+ * Every column of {@code orders} is also a column of the archive: columns added to the
+ * live table later on are added to the archive before each run, so archiving never drops
+ * a value.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    private static final List<OrderStatus> CLOSED_STATUSES =
+            List.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED, OrderStatus.FAILED);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern COLUMN_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final Set<String> ARCHIVE_ONLY_COLUMNS = Set.of(
+            "payment_method", "payment_status", "payment_amount", "total", "item_count", "archived_at");
+    private static final TypeReference<List<ProductListDto>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int batchSize;
+
+    private volatile boolean available;
+    private volatile boolean userOrdersJoinTable;
+    private volatile List<String> orderColumns = List.of();
+
+    /**
+     * Constructs an OrderArchiveService.
+     *
+     * @param jdbcTemplate the JDBC template used for set-based archive statements
+     * @param objectMapper the mapper used to read the items of archived orders
+     * @param transactionManager the transaction manager used to run each batch in its own transaction
+     * @param enabled whether the archive is used at all
+     * @param horizonDays closed orders older than this number of days are archived
+     * @param batchSize maximum number of orders moved per transaction
+     */
+    public OrderArchiveService(JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${foodie.orders.archive.enabled:true}") boolean enabled,
+                               @Value("${foodie.orders.archive.horizon-days:90}") int horizonDays,
+                               @Value("${foodie.orders.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates the partitioned archive table when running on PostgreSQL, with every
+     * column of {@code orders}.
+     * On any other database the archive stays disabled and every read returns no rows.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSchema() {
+        if (!enabled) {
+            log.info("Order archive disabled by configuration");
+            return;
+        }
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            if (product == null || !product.toLowerCase().contains("postgres")) {
+                log.info("Order archive requires PostgreSQL, running on {}: archive disabled", product);
+                return;
+            }
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS orders_archive (
+                        id INTEGER NOT NULL,
+                        user_id INTEGER NOT NULL,
+                        date DATE NOT NULL,
+                        status SMALLINT NOT NULL,
+                        items JSONB,
+                        notes VARCHAR(255),
+                        delivery_address VARCHAR(255),
+                        payment_id INTEGER,
+                        payment_method VARCHAR(32),
+                        payment_status VARCHAR(32),
+                        payment_amount DOUBLE PRECISION,
+                        total DOUBLE PRECISION NOT NULL DEFAULT 0,
+                        item_count INTEGER NOT NULL DEFAULT 0,
+                        archived_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                        PRIMARY KEY (id, date)
+                    ) PARTITION BY RANGE (date)""");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_archive_status_date ON orders_archive (status, date)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_archive_user_date ON orders_archive (user_id, date)");
+            syncColumnsWithOrders();
+            userOrdersJoinTable = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass('users_orders') IS NOT NULL", Boolean.class));
+            available = true;
+            log.info("Order archive ready (horizon {} days)", horizonDays);
+        } catch (Exception e) {
+            log.error("Could not initialize the order archive, archival disabled", e);
+        }
+    }
+
+    /**
+     * Scheduled job moving closed orders older than the configured horizon into the archive.
+     */
+    @Scheduled(cron = "${foodie.orders.archive.cron:0 30 4 * * *}")
+    public void archiveClosedOrders() {
+        if (!available) {
+            return;
+        }
+        try {
+            int moved = archiveClosedOrdersBefore(LocalDate.now().minusDays(horizonDays));
+            if (moved > 0) {
+                log.info("Archived {} closed orders older than {} days", moved, horizonDays);
+            }
+        } catch (Exception e) {
+            log.error("Order archival failed", e);
+        }
+    }
+
+    /**
+     * Moves every closed order dated before the cutoff into the archive.
+     * <p>
+     * Orders are moved in batches, each one in its own short transaction, so the job
+     * never holds locks on a large part of the hot table. The payment rows of the moved
+     * orders are copied into the archive row and then removed.
+     * </p>
+     *
+     * @param cutoff orders dated strictly before this date are archived
+     * @return the number of orders moved
+     * @throws IllegalStateException if the archive is not available
+     */
+    public int archiveClosedOrdersBefore(LocalDate cutoff) {
+        if (!available) {
+            throw new IllegalStateException("Order archive is not available");
+        }
+        Date cutoffDate = Date.valueOf(cutoff);
+        syncColumnsWithOrders();
+
+        List<LocalDate> months = jdbcTemplate.queryForList(
+                "SELECT DISTINCT CAST(date_trunc('month', date) AS DATE) FROM orders WHERE date < ? AND status IN ("
+                        + closedStatusList() + ")", LocalDate.class, cutoffDate);
+        months.forEach(month -> ensurePartition(YearMonth.from(month)));
+
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(cutoffDate));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    /**
+     * Visits the archived orders within a date range, one at a time, through a database cursor.
+     *
+     * @param status the OrderStatus to filter by, or null for every status
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @param action the action to perform on each archived order
+     */
+    public void forEachArchivedOrder(OrderStatus status, LocalDate startDate, LocalDate endDate,
+                                     Consumer<ArchivedOrderDto> action) {
+        if (!available) {
+            return;
+        }
+        OrderStatus[] statuses = OrderStatus.values();
+        String statusClause = status != null ? " AND a.status = " + status.ordinal() : "";
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    SELECT a.id, a.date, u.username, a.status, a.item_count, a.total,
+                           a.payment_method, a.payment_status, a.delivery_address, a.notes,
+                           (SELECT string_agg((e->>'quantity') || 'x ' || (e->>'productName'), '; ')
+                              FROM jsonb_array_elements(a.items) e) AS detail
+                    FROM orders_archive a
+                    LEFT JOIN users u ON u.id = a.user_id
+                    WHERE a.date >= ? AND a.date <= ?%s
+                    ORDER BY a.date, a.id""".formatted(statusClause));
+            ps.setFetchSize(OrderRepository.STREAM_FETCH_SIZE);
+            ps.setDate(1, Date.valueOf(startDate));
+            ps.setDate(2, Date.valueOf(endDate));
+            return ps;
+        }, rs -> {
+            action.accept(ArchivedOrderDto.builder()
+                    .id(rs.getInt("id"))
+                    .date(rs.getDate("date").toLocalDate())
+                    .username(rs.getString("username"))
+                    .status(statuses[rs.getInt("status")])
+                    .itemCount(rs.getInt("item_count"))
+                    .total(rs.getDouble("total"))
+                    .paymentMethod(rs.getString("payment_method"))
+                    .paymentStatus(rs.getString("payment_status"))
+                    .deliveryAddress(rs.getString("delivery_address"))
+                    .notes(rs.getString("notes"))
+                    .detail(rs.getString("detail"))
+                    .build());
+        }));
+    }
+
+    /**
+     * Retrieves the archived orders of a user as DTOs, most recent first.
+     *
+     * @param userID the ID of the user
+     * @return the archived orders of the user, or an empty list if the archive is not available
+     */
+    public List<OrderDto> getArchivedOrdersByUserId(Integer userID) {
+        if (!available) {
+            return List.of();
+        }
+        OrderStatus[] statuses = OrderStatus.values();
+        return jdbcTemplate.query("""
+                        SELECT a.id, a.date, u.username, a.status, a.items, a.notes, a.delivery_address,
+                               a.payment_id, a.payment_method, a.payment_status, a.payment_amount
+                        FROM orders_archive a
+                        LEFT JOIN users u ON u.id = a.user_id
+                        WHERE a.user_id = ?
+                        ORDER BY a.date DESC, a.id DESC""",
+                (rs, rowNum) -> {
+                    Integer paymentId = rs.getObject("payment_id", Integer.class);
+                    String paymentMethod = rs.getString("payment_method");
+                    String paymentStatus = rs.getString("payment_status");
+                    PaymentDto payment = paymentId == null ? null : PaymentDto.builder()
+                            .id(paymentId)
+                            .paymentAmount(rs.getObject("payment_amount", Double.class))
+                            .paymentMethod(paymentMethod != null ? PaymentMethod.valueOf(paymentMethod) : null)
+                            .paymentStatus(paymentStatus != null ? PaymentStatus.valueOf(paymentStatus) : null)
+                            .build();
+                    return OrderDto.builder()
+                            .id(rs.getInt("id"))
+                            .username(rs.getString("username"))
+                            .date(rs.getDate("date").toLocalDate())
+                            .status(statuses[rs.getInt("status")])
+                            .items(readItems(rs.getString("items")))
+                            .payment(payment)
+                            .notes(rs.getString("notes"))
+                            .deliveryAddress(rs.getString("delivery_address"))
+                            .build();
+                },
+                userID);
+    }
+
+    /**
+     * Aggregates archived completed orders by date within a date range.
+     *
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @return per-date statistics of the archived orders, without averages
+     */
+    public List<SalesStatisticsDto> getSalesStatisticsByDate(LocalDate startDate, LocalDate endDate) {
+        if (!available) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                        SELECT date, SUM(item_count) AS quantity, SUM(total) AS revenue, COUNT(*) AS orders
+                        FROM orders_archive
+                        WHERE status = ? AND date >= ? AND date <= ?
+                        GROUP BY date""",
+                (rs, rowNum) -> SalesStatisticsDto.builder()
+                        .date(rs.getDate("date").toLocalDate())
+                        .quantitySold(rs.getInt("quantity"))
+                        .totalRevenue(rs.getDouble("revenue"))
+                        .numberOfOrders(rs.getInt("orders"))
+                        .averageOrderValue(0.0)
+                        .build(),
+                OrderStatus.COMPLETED.ordinal(), Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /**
+     * Aggregates archived completed orders by product within a date range.
+     *
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @return per-product statistics of the archived orders, without averages
+     */
+    public List<SalesStatisticsDto> getSalesStatisticsByProduct(LocalDate startDate, LocalDate endDate) {
+        if (!available) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                        SELECT CAST(e->>'productId' AS INTEGER) AS product_id,
+                               e->>'productName' AS product_name,
+                               SUM(CAST(e->>'quantity' AS INTEGER)) AS quantity,
+                               SUM(CAST(e->>'price' AS DOUBLE PRECISION) * CAST(e->>'quantity' AS INTEGER)) AS revenue,
+                               COUNT(*) AS orders
+                        FROM orders_archive a, jsonb_array_elements(a.items) e
+                        WHERE a.status = ? AND a.date >= ? AND a.date <= ?
+                        GROUP BY 1, 2""",
+                (rs, rowNum) -> SalesStatisticsDto.builder()
+                        .productId(rs.getInt("product_id"))
+                        .productName(rs.getString("product_name"))
+                        .quantitySold(rs.getInt("quantity"))
+                        .totalRevenue(rs.getDouble("revenue"))
+                        .numberOfOrders(rs.getInt("orders"))
+                        .averageOrderValue(0.0)
+                        .build(),
+                OrderStatus.COMPLETED.ordinal(), Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /**
+     * Indicates whether the archive table exists and can be read.
+     *
+     * @return true if the archive is available
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    private int moveBatch(Date cutoffDate) {
+        String candidates = "SELECT id FROM orders WHERE date < ? AND status IN (" + closedStatusList() + ")"
+                + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+        if (userOrdersJoinTable) {
+            jdbcTemplate.update("DELETE FROM users_orders WHERE orders_id IN (" + candidates + ")",
+                    cutoffDate, batchSize);
+        }
+
+        String columns = String.join(", ", orderColumns);
+        String movedColumns = orderColumns.stream().map(column -> "m." + column).collect(Collectors.joining(", "));
+        List<Integer> paymentIds = jdbcTemplate.queryForList("""
+                        WITH moved AS (
+                            DELETE FROM orders o WHERE o.id IN (%s)
+                            RETURNING o.*
+                        )
+                        INSERT INTO orders_archive (%s, payment_method, payment_status, payment_amount,
+                                                    total, item_count)
+                        SELECT %s, p.payment_method, p.payment_status, p.payment_amount,
+                               COALESCE((SELECT SUM(CAST(e->>'price' AS DOUBLE PRECISION) * CAST(e->>'quantity' AS INTEGER))
+                                         FROM jsonb_array_elements(m.items) e), 0),
+                               COALESCE((SELECT SUM(CAST(e->>'quantity' AS INTEGER))
+                                         FROM jsonb_array_elements(m.items) e), 0)
+                        FROM moved m
+                        LEFT JOIN payment p ON p.id = m.payment_id
+                        RETURNING payment_id""".formatted(candidates, columns, movedColumns),
+                Integer.class, cutoffDate, batchSize);
+
+        List<Integer> orphanPayments = paymentIds.stream().filter(Objects::nonNull).toList();
+        if (!orphanPayments.isEmpty()) {
+            String ids = orphanPayments.stream().map(String::valueOf).collect(Collectors.joining(","));
+            jdbcTemplate.update("DELETE FROM payment WHERE id IN (" + ids + ")");
+        }
+        return paymentIds.size();
+    }
+
+    /**
+     * Adds to the archive every column of {@code orders} it lacks, with the same type,
+     * and records the columns each batch copies.
+     */
+    private void syncColumnsWithOrders() {
+        List<String> archiveColumns = jdbcTemplate.queryForList("""
+                SELECT attname FROM pg_attribute
+                WHERE attrelid = 'orders_archive'::regclass AND attnum > 0 AND NOT attisdropped""", String.class);
+        List<String> columns = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT attname, format_type(atttypid, atttypmod) AS type FROM pg_attribute
+                WHERE attrelid = 'orders'::regclass AND attnum > 0 AND NOT attisdropped
+                ORDER BY attnum""", rs -> {
+            String column = rs.getString("attname");
+            if (!COLUMN_NAME.matcher(column).matches() || ARCHIVE_ONLY_COLUMNS.contains(column)) {
+                throw new IllegalStateException("Orders column cannot be archived: " + column);
+            }
+            if (!archiveColumns.contains(column)) {
+                jdbcTemplate.execute("ALTER TABLE orders_archive ADD COLUMN IF NOT EXISTS " + column + " "
+                        + rs.getString("type"));
+                log.info("Added column {} to the order archive", column);
+            }
+            columns.add(column);
+        });
+        orderColumns = List.copyOf(columns);
+    }
+
+    private List<ProductListDto> readItems(String items) {
+        if (items == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(items, ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable items in archived order", e);
+        }
+    }
+
+    private void ensurePartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_archive_p" + month.format(PARTITION_SUFFIX)
+                + " PARTITION OF orders_archive FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    private static String closedStatusList() {
+        return CLOSED_STATUSES.stream()
+                .map(status -> String.valueOf(status.ordinal()))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,167 @@
+package com.foodie.application.service;
+
+import com.foodie.application.domain.Order;
+import com.foodie.application.domain.OrderStatus;
+import com.foodie.application.domain.Payment;
+import com.foodie.application.domain.ProductList;
+import com.foodie.application.dto.SalesStatisticsDto;
+import com.foodie.application.helper.CsvHelper;
+import com.foodie.application.helper.OrderHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for exporting orders and sales statistics as CSV.
+ * <p>
+ * Rows are written straight to the given output stream while the orders are
+ * read from the database through a forward-only cursor, so exporting long
+ * periods runs in constant heap.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class OrderExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final OrderService orderService;
+    private final OrderArchiveService orderArchiveService;
+
+    /**
+     * Constructs an OrderExportService with the services used to read orders.
+     *
+     * @param orderService the order service
+     * @param orderArchiveService the archive service for orders already moved out of the live table
+     */
+    public OrderExportService(OrderService orderService, OrderArchiveService orderArchiveService) {
+        this.orderService = orderService;
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    /**
+     * Writes every order created within a date range as CSV, one row per order.
+     * Archived orders are written first, followed by the orders still in the live table.
+     *
+     * @param status the OrderStatus to filter by, or null for every status
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @param out the output stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the output stream fails
+     * @throws IllegalArgumentException if startDate is after endDate
+     */
+    public void writeOrdersCsv(OrderStatus status, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        Writer writer = openWriter(out);
+        CsvHelper.writeRow(writer, "id", "fecha", "usuario", "estado", "articulos", "total",
+                "metodo_pago", "estado_pago", "direccion_entrega", "notas", "detalle");
+
+        int[] rows = {0};
+        try {
+            orderArchiveService.forEachArchivedOrder(status, startDate, endDate, archived -> {
+                try {
+                    CsvHelper.writeRow(writer, archived.getId(), archived.getDate(), archived.getUsername(),
+                            archived.getStatus(), archived.getItemCount(), archived.getTotal(),
+                            archived.getPaymentMethod(), archived.getPaymentStatus(),
+                            archived.getDeliveryAddress(), archived.getNotes(), archived.getDetail());
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            orderService.forEachOrder(status, startDate, endDate, order -> {
+                try {
+                    writeOrderRow(writer, order);
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Exported {} orders between {} and {}", rows[0], startDate, endDate);
+    }
+
+    /**
+     * Writes sales statistics grouped by date as CSV.
+     *
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @param out the output stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the output stream fails
+     */
+    public void writeSalesStatisticsByDateCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        Writer writer = openWriter(out);
+        CsvHelper.writeRow(writer, "fecha", "cantidad_vendida", "ingresos_totales", "numero_pedidos", "valor_promedio");
+        for (SalesStatisticsDto stats : orderService.getSalesStatisticsByDate(startDate, endDate)) {
+            CsvHelper.writeRow(writer, stats.getDate(), stats.getQuantitySold(), stats.getTotalRevenue(),
+                    stats.getNumberOfOrders(), stats.getAverageOrderValue());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes sales statistics grouped by product as CSV.
+     *
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @param out the output stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the output stream fails
+     */
+    public void writeSalesStatisticsByProductCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        Writer writer = openWriter(out);
+        CsvHelper.writeRow(writer, "producto_id", "producto", "cantidad_vendida", "ingresos_totales",
+                "numero_pedidos", "valor_promedio");
+        for (SalesStatisticsDto stats : orderService.getSalesStatisticsByProduct(startDate, endDate)) {
+            CsvHelper.writeRow(writer, stats.getProductId(), stats.getProductName(), stats.getQuantitySold(),
+                    stats.getTotalRevenue(), stats.getNumberOfOrders(), stats.getAverageOrderValue());
+        }
+        writer.flush();
+    }
+
+    private void writeOrderRow(Writer writer, Order order) throws IOException {
+        Payment payment = order.getPayment();
+        List<ProductList> items = order.getItems() != null ? order.getItems() : List.of();
+        String detail = items.stream()
+                .map(item -> item.getQuantity() + "x " + item.getProductName())
+                .collect(Collectors.joining("; "));
+
+        CsvHelper.writeRow(writer,
+                order.getId(),
+                order.getDate(),
+                order.getUser().getUsername(),
+                order.getStatus(),
+                OrderHelper.calculateTotalItems(order),
+                OrderHelper.calculateTotal(order),
+                payment != null ? payment.getPaymentMethod() : null,
+                payment != null ? payment.getPaymentStatus() : null,
+                order.getDeliveryAddress(),
+                order.getNotes(),
+                detail);
+    }
+
+    private Writer openWriter(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM so that spreadsheet applications detect UTF-8 (accents in product names)
+        writer.write('\uFEFF');
+        return writer;
+    }
+}
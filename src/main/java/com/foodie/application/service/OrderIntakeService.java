@@ -0,0 +1,356 @@
+package com.foodie.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.foodie.application.dto.ProductListDto;
+import com.foodie.application.helper.MappedJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class accepting checkout orders, optionally through a write-behind journal.
+ * <p>
+ * By default orders are placed in the database right away. With the journal enabled,
+ * an order is priced, appended to a durable memory-mapped journal on local disk
+ * ({@link MappedJournal}) and acknowledged immediately, without an order ID. A
+ * background writer drains the journal to the database in batched transactions, so
+ * bursts of checkouts are not limited by the connection pool. Orders keep the key of
+ * their checkout attempt, which makes writing them idempotent: the journal is only
+ * marked as processed after a batch commits, and orders journaled but not marked are
+ * written again on startup, skipping those already in the database. Orders are
+ * validated before being acknowledged; an acknowledged order that still cannot be
+ * written is moved to a dead-letter file next to the journal, keeping its payload, to
+ * be handled by hand.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class OrderIntakeService {
+
+    private static final String JOURNAL_NAME = "orders";
+    private static final String DEAD_LETTER_FILE = JOURNAL_NAME + "-dead-letter.jsonl";
+
+    /**
+     * Order accepted at checkout, as stored in the journal.
+     *
+     * @param idempotencyKey the key identifying the checkout attempt
+     * @param userId the ID of the user placing the order
+     * @param products the products with the price they were accepted at
+     * @param paymentMethod the payment method to use for the order
+     * @param deliveryAddress the delivery address for the order
+     * @param notes optional notes for the order
+     * @param placedAt the instant the order was accepted
+     */
+    public record JournaledOrder(String idempotencyKey,
+                                 Integer userId,
+                                 List<ProductListDto> products,
+                                 String paymentMethod,
+                                 String deliveryAddress,
+                                 String notes,
+                                 Instant placedAt) {
+    }
+
+    private record PendingOrder(JournaledOrder order, long position) {
+    }
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int batchSize;
+
+    private final Object appendLock = new Object();
+    private final ConcurrentLinkedQueue<PendingOrder> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final Counter journaled;
+    private final Counter written;
+    private final Counter deadLettered;
+    private volatile MappedJournal journal;
+
+    /**
+     * Constructs an OrderIntakeService and registers its meters.
+     *
+     * @param orderService the service that prices and writes orders
+     * @param objectMapper the mapper used to serialize journaled orders
+     * @param transactionTemplate the template used to write batches of orders
+     * @param meterRegistry the registry the intake meters are published to
+     * @param enabled whether new orders go through the journal
+     * @param directory the directory of the journal files
+     * @param segmentBytes the size of each journal file
+     * @param batchSize the maximum number of orders written per transaction
+     */
+    public OrderIntakeService(OrderService orderService,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${foodie.orders.intake.journal.enabled:false}") boolean enabled,
+                              @Value("${foodie.orders.intake.journal.directory:data/journal}") String directory,
+                              @Value("${foodie.orders.intake.journal.segment-bytes:16777216}") int segmentBytes,
+                              @Value("${foodie.orders.intake.batch-size:50}") int batchSize) {
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.segmentBytes = segmentBytes;
+        this.batchSize = batchSize;
+
+        this.journaled = counter(meterRegistry, "journaled");
+        this.written = counter(meterRegistry, "written");
+        this.deadLettered = counter(meterRegistry, "dead_lettered");
+        Gauge.builder("foodie.orders.intake.pending", pendingCount, AtomicInteger::get)
+                .description("Journaled orders not written to the database yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the journal and writes the orders it holds that were not written before a
+     * restart. Runs even with the journal disabled, so no accepted order is lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled && !hasJournalFiles()) {
+            return;
+        }
+        MappedJournal opened = new MappedJournal(directory, JOURNAL_NAME, segmentBytes);
+        List<MappedJournal.Entry> entries = opened.readUncommitted();
+        for (MappedJournal.Entry entry : entries) {
+            try {
+                JournaledOrder order = objectMapper.readValue(entry.payload(), JournaledOrder.class);
+                pendingKeys.add(order.idempotencyKey());
+                pending.add(new PendingOrder(order, entry.position()));
+                pendingCount.incrementAndGet();
+            } catch (IOException e) {
+                String payload = new String(entry.payload(), StandardCharsets.UTF_8);
+                log.error("Unreadable journaled order, moving it to the dead-letter file: {}", payload, e);
+                ObjectNode line = objectMapper.createObjectNode();
+                line.put("raw", payload);
+                if (!deadLetter(line, e)) {
+                    // The journal stays closed and untouched, so it is read again on the next start
+                    throw new IllegalStateException("Could not move an unreadable journaled order to the dead-letter file", e);
+                }
+            }
+        }
+        journal = opened;
+        if (!entries.isEmpty()) {
+            log.info("Recovered {} journaled orders not written before the restart", entries.size());
+            drain();
+        }
+    }
+
+    /**
+     * Accepts the order of a checkout attempt. Replayed submissions of an attempt
+     * accepted before are not accepted twice.
+     *
+     * @param idempotencyKey the key identifying the checkout attempt
+     * @param userId the ID of the user placing the order
+     * @param products the list of products to order
+     * @param paymentMethod the payment method to use for the order
+     * @param deliveryAddress the delivery address for the order
+     * @param notes optional notes for the order
+     * @return the ID of the order if it was placed right away, or empty if it was
+     *         journaled and will be written shortly
+     * @throws IllegalArgumentException if a product is no longer offered in any menu, or a value is not valid
+     * @throws EntityNotFoundException if the user is not found
+     */
+    public Optional<Integer> submit(String idempotencyKey, Integer userId, List<ProductListDto> products,
+                                    String paymentMethod, String deliveryAddress, String notes) {
+        MappedJournal current = journal;
+        if (!enabled || current == null) {
+            return Optional.of(orderService.placeOrder(idempotencyKey, userId, products, paymentMethod,
+                    deliveryAddress, notes));
+        }
+        // Acknowledged orders must be writable, so everything that can be checked is checked now
+        orderService.validateOrder(idempotencyKey, userId, paymentMethod, deliveryAddress, notes);
+        if (!pendingKeys.add(idempotencyKey)) {
+            return Optional.empty();
+        }
+        try {
+            JournaledOrder order = new JournaledOrder(idempotencyKey, userId, orderService.priceProducts(products),
+                    paymentMethod, deliveryAddress, notes, Instant.now());
+            byte[] payload = objectMapper.writeValueAsBytes(order);
+            // Orders are queued in journal order, so they are marked as written in that order
+            synchronized (appendLock) {
+                pending.add(new PendingOrder(order, current.append(payload)));
+            }
+            pendingCount.incrementAndGet();
+            journaled.increment();
+            return Optional.empty();
+        } catch (JsonProcessingException e) {
+            pendingKeys.remove(idempotencyKey);
+            throw new IllegalStateException("Could not serialize the order", e);
+        } catch (RuntimeException e) {
+            pendingKeys.remove(idempotencyKey);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the journaled orders to the database in batches, marking each batch as
+     * written in the journal once committed. Stops at the first order that cannot be
+     * written because of the database, to retry it on the next run.
+     */
+    @Scheduled(fixedDelayString = "${foodie.orders.intake.drain-interval-ms:200}")
+    public synchronized void drain() {
+        MappedJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        while (true) {
+            List<PendingOrder> batch = new ArrayList<>(batchSize);
+            Iterator<PendingOrder> iterator = pending.iterator();
+            while (batch.size() < batchSize && iterator.hasNext()) {
+                batch.add(iterator.next());
+            }
+            if (batch.isEmpty() || !write(batch, current)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining journaled orders on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        drain();
+    }
+
+    /**
+     * @return the number of journaled orders not written to the database yet
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Writes a batch of journaled orders, settling every order as soon as it is written or
+     * dead-lettered, so a later failure in the batch never handles it a second time.
+     *
+     * @return false if an order must be retried on the next run
+     */
+    private boolean write(List<PendingOrder> batch, MappedJournal current) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(order -> write(order.order())));
+            written.increment(batch.size());
+            settle(batch, current);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not write a batch of {} journaled orders, writing them one by one", batch.size(), e);
+        }
+
+        for (PendingOrder order : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(order.order()));
+                written.increment();
+            } catch (IllegalArgumentException | EntityNotFoundException | DataIntegrityViolationException e) {
+                // The order can never be written, but the customer was told it was received
+                log.error("Journaled order cannot be written, moving it to the dead-letter file: {}", order.order(), e);
+                ObjectNode line = objectMapper.createObjectNode();
+                line.set("order", objectMapper.valueToTree(order.order()));
+                if (!deadLetter(line, e)) {
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not write journaled orders, retrying later", e);
+                return false;
+            }
+            settle(List.of(order), current);
+        }
+        return true;
+    }
+
+    // Removes handled orders from the head of the queue and marks them as processed in the journal
+    private void settle(List<PendingOrder> orders, MappedJournal current) {
+        for (PendingOrder order : orders) {
+            pending.poll();
+            pendingKeys.remove(order.order().idempotencyKey());
+        }
+        pendingCount.addAndGet(-orders.size());
+        current.commit(orders.get(orders.size() - 1).position());
+    }
+
+    private void write(JournaledOrder order) {
+        orderService.addPricedOrder(order.idempotencyKey(), order.userId(), order.products(),
+                order.paymentMethod(), order.deliveryAddress(), order.notes(), order.placedAt());
+    }
+
+    /**
+     * Appends an order that cannot be written to the dead-letter file, forced to disk.
+     *
+     * @return false if the file could not be written, so the order must stay in the journal
+     */
+    private boolean deadLetter(ObjectNode line, Exception error) {
+        line.put("failedAt", Instant.now().toString());
+        line.put("error", String.valueOf(error));
+        try {
+            byte[] bytes = (objectMapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            deadLettered.increment();
+            return true;
+        } catch (IOException e) {
+            log.error("Could not write to the order dead-letter file in {}", directory, e);
+            return false;
+        }
+    }
+
+    private boolean hasJournalFiles() {
+        try {
+            return MappedJournal.hasSegments(directory, JOURNAL_NAME);
+        } catch (UncheckedIOException e) {
+            log.warn("Could not list the order journal directory {}", directory, e);
+            return false;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("foodie.orders.intake")
+                .description("Orders accepted through the intake journal")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -2,23 +2,50 @@ package com.foodie.application.service;
 
 
 import com.foodie.application.domain.Order;
+import com.foodie.application.domain.OrderHourlyStats;
 import com.foodie.application.domain.OrderStatus;
+import com.foodie.application.domain.PaymentMethod;
 import com.foodie.application.domain.ProductList;
+import com.foodie.application.dto.HourlyStatisticsDto;
 import com.foodie.application.dto.OrderDto;
 import com.foodie.application.dto.OrderFilterDto;
 import com.foodie.application.dto.ProductListDto;
 import com.foodie.application.dto.SalesStatisticsDto;
+import com.foodie.application.event.OrderPlacedEvent;
+import com.foodie.application.event.OrderStatusChangedEvent;
+import com.foodie.application.helper.OrderHelper;
+import com.foodie.application.repository.OrderHourlyStatsRepository;
 import com.foodie.application.repository.OrderRepository;
 import com.foodie.application.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
@@ -34,9 +61,20 @@ import java.util.stream.Collectors;
 @Service
 public class OrderService {
 
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_KEY_LENGTH = 64;
+
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
     private final PaymentService paymentService;
+    private final EntityManager entityManager;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderHourlyStatsRepository orderHourlyStatsRepository;
+    private final MenuItemService menuItemService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Integer> placedOrders;
+    private final Map<String, CompletableFuture<Integer>> placingOrders = new ConcurrentHashMap<>();
 
     /**
      * Constructs an OrderService with the required repositories and services.
@@ -44,17 +82,43 @@ public class OrderService {
      * @param userRepository the user repository for database access
      * @param orderRepository the order repository for database access
      * @param paymentService the payment service for payment operations
+     * @param entityManager the entity manager used to release streamed orders
+     * @param orderArchiveService the archive service used by statistics to read closed history
+     * @param orderHourlyStatsRepository the hourly rollup repository maintained on every order write
+     * @param menuItemService the menu item service, used to price ordered products
+     * @param eventPublisher the publisher used to announce placed orders and status changes
+     * @param transactionTemplate the template used to place idempotent orders in their own transaction
+     * @param idempotencyCacheMinutes how long the orders placed by checkout attempts are remembered in memory
      */
     public OrderService(UserRepository userRepository,
                         OrderRepository orderRepository,
-                        PaymentService paymentService) {
+                        PaymentService paymentService,
+                        EntityManager entityManager,
+                        OrderArchiveService orderArchiveService,
+                        OrderHourlyStatsRepository orderHourlyStatsRepository,
+                        MenuItemService menuItemService,
+                        ApplicationEventPublisher eventPublisher,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${foodie.orders.idempotency.cache-minutes:30}") int idempotencyCacheMinutes) {
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
         this.paymentService = paymentService;
+        this.entityManager = entityManager;
+        this.orderArchiveService = orderArchiveService;
+        this.orderHourlyStatsRepository = orderHourlyStatsRepository;
+        this.menuItemService = menuItemService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.placedOrders = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(idempotencyCacheMinutes))
+                .build();
     }
 
     /**
      * Creates a new order for a user with the specified products and payment method.
+     * Products are charged at their current price as stored with the menu items,
+     * whatever price the caller passed.
      *
      * @param userID the ID of the user placing the order
      * @param products the list of products to add to the order
@@ -63,28 +127,202 @@ public class OrderService {
      * @param notes optional notes for the order
      * @return the ID of the newly created order
      * @throws EntityNotFoundException if the user is not found
+     * @throws IllegalArgumentException if a product is no longer offered in any menu
      */
     @Transactional
     public Integer addOrder(Integer userID, List<ProductListDto> products, String paymentMethod,
                             String deliveryAddress, String notes) {
+        return createOrder(userID, products, paymentMethod, deliveryAddress, notes, null);
+    }
+
+    /**
+     * Places the order of a checkout attempt, at most once per attempt.
+     * <p>
+     * A replayed submission (double click, reconnect, retry) with the same key returns
+     * the ID of the order already placed without inserting anything. Attempts are
+     * remembered in memory for a while, and found through the unique index on the key
+     * after that or when placed by another instance. Concurrent submissions of the same
+     * attempt wait for the first one instead of inserting again.
+     * </p>
+     *
+     * @param idempotencyKey the key identifying the checkout attempt
+     * @param userID the ID of the user placing the order
+     * @param products the list of products to add to the order
+     * @param paymentMethod the payment method to use for this order
+     * @param deliveryAddress the delivery address for the order
+     * @param notes optional notes for the order
+     * @return the ID of the order placed by the attempt
+     * @throws IllegalArgumentException if the key is empty or a product is no longer offered in any menu
+     * @throws EntityNotFoundException if the user is not found
+     */
+    public Integer placeOrder(String idempotencyKey, Integer userID, List<ProductListDto> products,
+                              String paymentMethod, String deliveryAddress, String notes) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("Idempotency key is required");
+        }
+        Integer placedOrderId = placedOrders.getIfPresent(idempotencyKey);
+        if (placedOrderId != null) {
+            return placedOrderId;
+        }
+        CompletableFuture<Integer> placement = new CompletableFuture<>();
+        CompletableFuture<Integer> previous = placingOrders.putIfAbsent(idempotencyKey, placement);
+        if (previous != null) {
+            try {
+                return previous.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Integer orderId = orderRepository.findIdByIdempotencyKey(idempotencyKey).orElseGet(() -> {
+                try {
+                    return transactionTemplate.execute(status -> createOrder(userID, products, paymentMethod,
+                            deliveryAddress, notes, idempotencyKey));
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance placed the order of this attempt first
+                    return orderRepository.findIdByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+                }
+            });
+            placedOrders.put(idempotencyKey, orderId);
+            placement.complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            // Failed attempts are not remembered, so they can be retried
+            placement.completeExceptionally(e);
+            throw e;
+        } finally {
+            placingOrders.remove(idempotencyKey, placement);
+        }
+    }
+
+    /**
+     * Finds the order placed by a checkout attempt.
+     *
+     * @param idempotencyKey the key identifying the checkout attempt
+     * @return the ID of the order, if the attempt placed one
+     */
+    public Optional<Integer> findOrderIdByIdempotencyKey(String idempotencyKey) {
+        Integer placedOrderId = placedOrders.getIfPresent(idempotencyKey);
+        return placedOrderId != null ? Optional.of(placedOrderId) : orderRepository.findIdByIdempotencyKey(idempotencyKey);
+    }
+
+    /**
+     * Prices products at their current price, as stored with the menu items.
+     *
+     * @param products the products and quantities to order
+     * @return a copy of the products with their current price
+     * @throws IllegalArgumentException if a product is no longer offered in any menu
+     */
+    public List<ProductListDto> priceProducts(List<ProductListDto> products) {
+        Map<Integer, Double> prices = menuItemService.getCurrentPrices(
+                products.stream().map(ProductListDto::getProductId).toList());
+        return products.stream().map(productDto -> {
+            Double price = prices.get(productDto.getProductId());
+            if (price == null) {
+                throw new IllegalArgumentException("El producto " + productDto.getProductName() + " ya no está disponible");
+            }
+            return ProductListDto.builder()
+                    .productId(productDto.getProductId())
+                    .productName(productDto.getProductName())
+                    .price(price)
+                    .quantity(productDto.getQuantity())
+                    .build();
+        }).toList();
+    }
+
+    /**
+     * Checks that an order can be written as requested, so it can be acknowledged before
+     * being written, e.g. by the intake journal.
+     *
+     * @param idempotencyKey the key identifying the checkout attempt
+     * @param userID the ID of the user placing the order
+     * @param paymentMethod the payment method to use for the order
+     * @param deliveryAddress the delivery address for the order
+     * @param notes optional notes for the order
+     * @throws IllegalArgumentException if a value is missing, too long or not valid
+     * @throws EntityNotFoundException if the user is not found
+     */
+    public void validateOrder(String idempotencyKey, Integer userID, String paymentMethod,
+                              String deliveryAddress, String notes) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Clave de pedido no válida");
+        }
+        if (deliveryAddress != null && deliveryAddress.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("La dirección de entrega no puede superar los " + MAX_TEXT_LENGTH + " caracteres");
+        }
+        if (notes != null && notes.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Las notas no pueden superar los " + MAX_TEXT_LENGTH + " caracteres");
+        }
+        try {
+            PaymentMethod.valueOf(paymentMethod.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Método de pago no válido: " + paymentMethod);
+        }
+        if (userID == null || !userRepository.existsById(userID)) {
+            throw new EntityNotFoundException("User not found with id: " + userID);
+        }
+    }
+
+    /**
+     * Creates the order of a checkout attempt with products already priced, unless the
+     * attempt already placed one. Used to write orders accepted earlier, e.g. by the
+     * intake journal, keeping the moment they were placed.
+     *
+     * @param idempotencyKey the key identifying the checkout attempt
+     * @param userID the ID of the user placing the order
+     * @param pricedProducts the products with the price they were accepted at
+     * @param paymentMethod the payment method to use for this order
+     * @param deliveryAddress the delivery address for the order
+     * @param notes optional notes for the order
+     * @param placedAt the instant the order was placed
+     * @return the ID of the order placed by the attempt
+     * @throws EntityNotFoundException if the user is not found
+     */
+    @Transactional
+    public Integer addPricedOrder(String idempotencyKey, Integer userID, List<ProductListDto> pricedProducts,
+                                  String paymentMethod, String deliveryAddress, String notes, Instant placedAt) {
+        return orderRepository.findIdByIdempotencyKey(idempotencyKey)
+                .orElseGet(() -> insertOrder(userID, pricedProducts, paymentMethod, deliveryAddress, notes,
+                        idempotencyKey, placedAt));
+    }
+
+    private Integer createOrder(Integer userID, List<ProductListDto> products, String paymentMethod,
+                                String deliveryAddress, String notes, String idempotencyKey) {
+        return insertOrder(userID, priceProducts(products), paymentMethod, deliveryAddress, notes,
+                idempotencyKey, Instant.now());
+    }
+
+    private Integer insertOrder(Integer userID, List<ProductListDto> pricedProducts, String paymentMethod,
+                                String deliveryAddress, String notes, String idempotencyKey, Instant now) {
         Order newOrder = new Order();
-        newOrder.setUser(userRepository.findById(userID).orElseThrow());
-        List<ProductList> productList = products.stream().map(productDto ->
-                ProductList.builder()
+        newOrder.setIdempotencyKey(idempotencyKey);
+        newOrder.setUser(userRepository.findById(userID)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userID)));
+        List<ProductList> productList = pricedProducts.stream()
+                .map(productDto -> ProductList.builder()
                         .productId(productDto.getProductId())
                         .productName(productDto.getProductName())
                         .price(productDto.getPrice())
                         .quantity(productDto.getQuantity())
-                        .build()
-        ).toList();
+                        .build())
+                .toList();
         newOrder.setItems(productList);
-        newOrder.setDate(LocalDate.now());
-        newOrder.setStatus(OrderStatus.valueOf("PENDING"));
+        newOrder.setDate(LocalDate.ofInstant(now, ZoneId.systemDefault()));
+        OrderHelper.changeStatus(newOrder, OrderStatus.PENDING, now);
         newOrder.setDeliveryAddress(deliveryAddress);
         newOrder.setNotes(notes);
         newOrder = orderRepository.save(newOrder);
         newOrder.setPayment(paymentService.createPayment(newOrder, paymentMethod));
 
+        LocalDateTime createdAt = LocalDateTime.ofInstant(now, ZoneId.systemDefault());
+        orderHourlyStatsRepository.recordOrder(createdAt.toLocalDate(), createdAt.getHour(),
+                OrderHelper.calculateTotalItems(newOrder), OrderHelper.calculateTotal(newOrder));
+        // Placement first, so consumers know the order before any of its status changes
+        eventPublisher.publishEvent(new OrderPlacedEvent(newOrder.getId(), now,
+                productList.stream().map(ProductListDto::fromProductList).toList()));
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(newOrder.getId(), null, OrderStatus.PENDING, now, null));
+
         return newOrder.getId();
     }
 
@@ -422,6 +660,9 @@ public class OrderService {
 
     /**
      * Updates the status of an order.
+     * The transition time is stamped on the order, cancellations are counted
+     * in the hourly rollup bucket where the order was placed, and an
+     * {@link OrderStatusChangedEvent} is published for the status history.
      *
      * @param orderID the ID of the order to update
      * @param newStatus the new OrderStatus to set
@@ -431,8 +672,24 @@ public class OrderService {
     public void updateOrder(Integer orderID, OrderStatus newStatus) {
         Order order = orderRepository.findById(orderID)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + orderID));
-        order.setStatus(newStatus);
+        OrderStatus previousStatus = order.getStatus();
+        if (previousStatus == newStatus) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant enteredPreviousStatus = order.getStatusChangedAt();
+        OrderHelper.changeStatus(order, newStatus, now);
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderID, previousStatus, newStatus, now,
+                enteredPreviousStatus != null ? Duration.between(enteredPreviousStatus, now) : null));
+
+        boolean cancelled = newStatus == OrderStatus.CANCELLED || newStatus == OrderStatus.FAILED;
+        boolean wasCancelled = previousStatus == OrderStatus.CANCELLED || previousStatus == OrderStatus.FAILED;
+        if (cancelled && !wasCancelled && order.getCreatedAt() != null) {
+            LocalDateTime createdAt = LocalDateTime.ofInstant(order.getCreatedAt(), ZoneId.systemDefault());
+            orderHourlyStatsRepository.recordCancellation(createdAt.toLocalDate(), createdAt.getHour());
+        }
     }
 
     /**
@@ -505,6 +762,23 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves the order history of a user as DTOs, most recent first.
+     * Includes both the live orders and the orders already moved to the archive.
+     *
+     * @param userID the ID of the user
+     * @return the live and archived orders of the user as OrderDto objects
+     */
+    @Transactional
+    public List<OrderDto> getOrderHistoryByUserId(Integer userID) {
+        List<OrderDto> history = new ArrayList<>();
+        orderRepository.findByUserId(userID).forEach(order -> history.add(OrderDto.fromOrder(order)));
+        history.addAll(orderArchiveService.getArchivedOrdersByUserId(userID));
+        history.sort(Comparator.comparing(OrderDto::getDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(OrderDto::getId, Comparator.reverseOrder()));
+        return history;
+    }
+
     /**
      * Retrieves filtered orders as DTOs based on the provided filter criteria.
      * Filters can be applied by status, start date, and/or end date.
@@ -558,9 +832,42 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Visits every order within a date range, one at a time, without loading the whole range in memory.
+     * <p>
+     * Orders are read through a forward-only database cursor and the persistence context is
+     * cleared every {@link OrderRepository#STREAM_FETCH_SIZE} rows, so heap usage stays constant
+     * regardless of the number of orders. The consumer must not keep references to the visited
+     * entities once it returns.
+     * </p>
+     *
+     * @param status the OrderStatus to filter by, or null for every status
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @param action the action to perform on each order
+     * @throws IllegalArgumentException if startDate is after endDate
+     */
+    @Transactional
+    public void forEachOrder(OrderStatus status, LocalDate startDate, LocalDate endDate, Consumer<Order> action) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+
+        try (Stream<Order> orders = orderRepository.streamByStatusAndDateRange(status, startDate, endDate)) {
+            int[] visited = {0};
+            orders.forEach(order -> {
+                action.accept(order);
+                if (++visited[0] % OrderRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+
     /**
      * Retrieves sales statistics grouped by date within a specified date range.
-     * Only includes completed orders in the statistics.
+     * Only includes completed orders in the statistics, both from the live table
+     * and from the archive.
      *
      * @param startDate the start date of the range (inclusive)
      * @param endDate the end date of the range (inclusive)
@@ -568,15 +875,9 @@ public class OrderService {
      */
     @Transactional
     public List<SalesStatisticsDto> getSalesStatisticsByDate(LocalDate startDate, LocalDate endDate) {
-        List<Order> completedOrders = getOrdersByStatusAndDateRange(
-                OrderStatus.COMPLETED,
-                startDate,
-                endDate
-        );
-
         Map<LocalDate, SalesStatisticsDto> statisticsMap = new HashMap<>();
 
-        completedOrders.forEach(order -> {
+        forEachOrder(OrderStatus.COMPLETED, startDate, endDate, order -> {
             LocalDate orderDate = order.getDate();
             SalesStatisticsDto stats = statisticsMap.computeIfAbsent(orderDate,
                     date -> SalesStatisticsDto.builder()
@@ -600,6 +901,10 @@ public class OrderService {
             stats.setNumberOfOrders(stats.getNumberOfOrders() + 1);
         });
 
+        // Add the closed history that has already been moved to the archive
+        orderArchiveService.getSalesStatisticsByDate(startDate, endDate)
+                .forEach(archived -> statisticsMap.merge(archived.getDate(), archived, this::mergeStatistics));
+
         // Calculate average order value
         statisticsMap.values().forEach(stats -> {
             if (stats.getNumberOfOrders() > 0) {
@@ -614,7 +919,8 @@ public class OrderService {
 
     /**
      * Retrieves sales statistics grouped by product within a specified date range.
-     * Only includes completed orders in the statistics.
+     * Only includes completed orders in the statistics, both from the live table
+     * and from the archive.
      *
      * @param startDate the start date of the range (inclusive)
      * @param endDate the end date of the range (inclusive)
@@ -622,15 +928,9 @@ public class OrderService {
      */
     @Transactional
     public List<SalesStatisticsDto> getSalesStatisticsByProduct(LocalDate startDate, LocalDate endDate) {
-        List<Order> completedOrders = getOrdersByStatusAndDateRange(
-                OrderStatus.COMPLETED,
-                startDate,
-                endDate
-        );
-
         Map<String, SalesStatisticsDto> statisticsMap = new HashMap<>();
 
-        completedOrders.forEach(order -> {
+        forEachOrder(OrderStatus.COMPLETED, startDate, endDate, order -> {
             if (order.getItems() != null) {
                 for (ProductList item : order.getItems()) {
                     String productKey = item.getProductId() + "_" + item.getProductName();
@@ -653,6 +953,11 @@ public class OrderService {
             }
         });
 
+        // Add the closed history that has already been moved to the archive
+        orderArchiveService.getSalesStatisticsByProduct(startDate, endDate)
+                .forEach(archived -> statisticsMap.merge(archived.getProductId() + "_" + archived.getProductName(),
+                        archived, this::mergeStatistics));
+
         // Calculate average order value per product
         statisticsMap.values().forEach(stats -> {
             if (stats.getNumberOfOrders() > 0) {
@@ -664,4 +969,63 @@ public class OrderService {
                 .sorted((s1, s2) -> s2.getTotalRevenue().compareTo(s1.getTotalRevenue()))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Retrieves the order intake of a date range aggregated by day of the week and hour of the day.
+     * <p>
+     * Reads the hourly rollup maintained on write, so the cost depends on the number of days
+     * in the range and not on the number of orders. Every day/hour combination is returned,
+     * with zero counters where no orders were placed.
+     * </p>
+     *
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate the end date of the range (inclusive)
+     * @return 7 x 24 heatmap cells ordered by day of the week and hour
+     * @throws IllegalArgumentException if startDate is after endDate
+     */
+    public List<HourlyStatisticsDto> getHourlyStatistics(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+
+        HourlyStatisticsDto[][] cells = new HourlyStatisticsDto[7][24];
+        List<HourlyStatisticsDto> heatmap = new ArrayList<>(7 * 24);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            for (int hour = 0; hour < 24; hour++) {
+                HourlyStatisticsDto cell = HourlyStatisticsDto.builder()
+                        .dayOfWeek(day)
+                        .hour(hour)
+                        .orderCount(0)
+                        .itemCount(0)
+                        .revenue(0.0)
+                        .cancelledCount(0)
+                        .build();
+                cells[day.ordinal()][hour] = cell;
+                heatmap.add(cell);
+            }
+        }
+
+        for (OrderHourlyStats row : orderHourlyStatsRepository.findByBucketDateBetween(startDate, endDate)) {
+            HourlyStatisticsDto cell = cells[row.getBucketDate().getDayOfWeek().ordinal()][row.getBucketHour()];
+            cell.setOrderCount(cell.getOrderCount() + row.getOrderCount());
+            cell.setItemCount(cell.getItemCount() + row.getItemCount());
+            cell.setRevenue(cell.getRevenue() + row.getRevenue());
+            cell.setCancelledCount(cell.getCancelledCount() + row.getCancelledCount());
+        }
+        return heatmap;
+    }
+
+    /**
+     * Adds the totals of one statistics row into another with the same grouping key.
+     *
+     * @param current the row to accumulate into
+     * @param extra the row to add
+     * @return the accumulated row
+     */
+    private SalesStatisticsDto mergeStatistics(SalesStatisticsDto current, SalesStatisticsDto extra) {
+        current.setQuantitySold(current.getQuantitySold() + extra.getQuantitySold());
+        current.setTotalRevenue(current.getTotalRevenue() + extra.getTotalRevenue());
+        current.setNumberOfOrders(current.getNumberOfOrders() + extra.getNumberOfOrders());
+        return current;
+    }
 }
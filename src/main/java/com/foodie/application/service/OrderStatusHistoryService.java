@@ -0,0 +1,197 @@
+package com.foodie.application.service;
+
+import com.foodie.application.domain.OrderStatus;
+import com.foodie.application.domain.OrderStatusEvent;
+import com.foodie.application.dto.StatusLatencyDto;
+import com.foodie.application.event.OrderStatusChangedEvent;
+import com.foodie.application.helper.RollingHistogram;
+import com.foodie.application.repository.OrderStatusEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for the order status transition log and time-in-status metrics.
+ * <p>
+ * Every status change is appended to {@code order_status_event} by the transaction
+ * making it, so the log holds exactly the committed transitions and none is lost on a
+ * crash or a failed write. Once the change commits, the time the order spent in its
+ * previous status feeds a rolling histogram per status, from which p50/p95/p99 are
+ * computed and exposed as Micrometer meters.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class OrderStatusHistoryService {
+
+    private static final String INSERT_SQL = "INSERT INTO order_status_event " +
+            "(order_id, from_status, to_status, changed_at, duration_ms) VALUES (?, ?, ?, ?, ?)";
+    private static final int HISTOGRAM_SLICES = 12;
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final OrderStatusEventRepository orderStatusEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration window;
+
+    private final Map<OrderStatus, RollingHistogram> histograms = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, Timer> timers = new EnumMap<>(OrderStatus.class);
+
+    /**
+     * Constructs an OrderStatusHistoryService and registers its meters.
+     *
+     * @param orderStatusEventRepository the repository used to read the log
+     * @param jdbcTemplate the JDBC template used to append to the log
+     * @param meterRegistry the registry the time-in-status meters are published to
+     * @param windowMinutes length of the rolling window the percentiles are computed over
+     */
+    public OrderStatusHistoryService(OrderStatusEventRepository orderStatusEventRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${foodie.orders.status-events.window-minutes:60}") int windowMinutes) {
+        this.orderStatusEventRepository = orderStatusEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.window = Duration.ofMinutes(windowMinutes);
+
+        for (OrderStatus status : OrderStatus.values()) {
+            RollingHistogram histogram = new RollingHistogram(window, HISTOGRAM_SLICES);
+            histograms.put(status, histogram);
+            timers.put(status, Timer.builder("foodie.orders.time.in.status")
+                    .description("Time orders spend in a status before moving to the next one")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+            for (double quantile : QUANTILES) {
+                TimeGauge.builder("foodie.orders.time.in.status.percentile", histogram, TimeUnit.MILLISECONDS,
+                                h -> h.percentile(quantile, System.currentTimeMillis()).toMillis())
+                        .description("Rolling percentile of the time orders spend in a status")
+                        .tag("status", status.name())
+                        .tag("quantile", String.valueOf(quantile))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the rolling histograms from the transitions logged within the window,
+     * so percentiles survive restarts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<OrderStatusEvent> recent = orderStatusEventRepository
+                    .findByChangedAtAfterAndDurationMsNotNull(Instant.now().minus(window));
+            recent.forEach(event -> {
+                if (event.getFromStatus() != null) {
+                    histograms.get(event.getFromStatus())
+                            .record(Duration.ofMillis(event.getDurationMs()), event.getChangedAt().toEpochMilli());
+                }
+            });
+            log.info("Loaded {} recent status transitions into the time-in-status histograms", recent.size());
+        } catch (Exception e) {
+            log.warn("Could not load recent status transitions", e);
+        }
+    }
+
+    /**
+     * Appends a status transition to the log in the transaction making it, so the entry
+     * is rolled back with the change and committed with it.
+     *
+     * @param event the status change
+     */
+    @EventListener
+    public void appendToLog(OrderStatusChangedEvent event) {
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+            ps.setInt(1, event.orderId());
+            if (event.previousStatus() != null) {
+                ps.setString(2, event.previousStatus().name());
+            } else {
+                ps.setNull(2, Types.VARCHAR);
+            }
+            ps.setString(3, event.newStatus().name());
+            ps.setTimestamp(4, Timestamp.from(event.changedAt()));
+            if (event.timeInPreviousStatus() != null) {
+                ps.setLong(5, event.timeInPreviousStatus().toMillis());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+        });
+    }
+
+    /**
+     * Records a committed status transition in the time-in-status metrics.
+     *
+     * @param event the status change
+     */
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Duration timeInPrevious = event.timeInPreviousStatus();
+        if (event.previousStatus() != null && timeInPrevious != null && !timeInPrevious.isNegative()) {
+            histograms.get(event.previousStatus()).record(timeInPrevious, event.changedAt().toEpochMilli());
+            timers.get(event.previousStatus()).record(timeInPrevious);
+        }
+    }
+
+    /**
+     * Retrieves the rolling time-in-status percentiles for every status with samples.
+     *
+     * @return one row per status that orders left within the window
+     */
+    public List<StatusLatencyDto> getTimeInStatusStatistics() {
+        long now = System.currentTimeMillis();
+        List<StatusLatencyDto> statistics = new ArrayList<>();
+        histograms.forEach((status, histogram) -> {
+            long count = histogram.count(now);
+            if (count > 0) {
+                statistics.add(StatusLatencyDto.builder()
+                        .status(status)
+                        .sampleCount(count)
+                        .p50(histogram.percentile(0.5, now))
+                        .p95(histogram.percentile(0.95, now))
+                        .p99(histogram.percentile(0.99, now))
+                        .build());
+            }
+        });
+        return statistics;
+    }
+
+    /**
+     * Retrieves a rolling percentile of the time orders spend in a status.
+     *
+     * @param status the status
+     * @param quantile the quantile, between 0 and 1
+     * @return the percentile, or null if no order left the status within the window
+     */
+    public Duration getTimeInStatus(OrderStatus status, double quantile) {
+        long now = System.currentTimeMillis();
+        RollingHistogram histogram = histograms.get(status);
+        return histogram.count(now) > 0 ? histogram.percentile(quantile, now) : null;
+    }
+
+    /**
+     * Retrieves the status history of one order.
+     *
+     * @param orderId the ID of the order
+     * @return the transitions of the order in chronological order
+     */
+    public List<OrderStatusEvent> getOrderHistory(Integer orderId) {
+        return orderStatusEventRepository.findByOrderIdOrderByChangedAtAsc(orderId);
+    }
+}
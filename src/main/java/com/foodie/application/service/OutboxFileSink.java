@@ -0,0 +1,78 @@
+package com.foodie.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.foodie.application.event.OutboxMessage;
+import com.foodie.application.event.OutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Outbox sink appending every relayed event to a local file, one JSON object per line,
+ * to inspect or replay the event stream without a message broker. Disabled by default.
+ * Lines are forced to disk before the event is marked as delivered; a line may appear
+ * twice if the relay fails after writing it.
+ *
+ * @author Foodie Team
+ */
+@Component
+public class OutboxFileSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path file;
+
+    /**
+     * Constructs an OutboxFileSink.
+     *
+     * @param objectMapper the mapper used to write the events
+     * @param enabled whether events are written at all
+     * @param file the file the events are appended to
+     */
+    public OutboxFileSink(ObjectMapper objectMapper,
+                          @Value("${foodie.outbox.file-sink.enabled:false}") boolean enabled,
+                          @Value("${foodie.outbox.file-sink.file:data/outbox/events.jsonl}") String file) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.file = Paths.get(file).toAbsolutePath();
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void deliver(OutboxMessage message) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("id", message.id());
+        line.put("aggregateType", message.aggregateType());
+        line.put("aggregateId", message.aggregateId());
+        line.put("eventType", message.eventType());
+        line.put("createdAt", message.createdAt().toString());
+        line.set("payload", objectMapper.readTree(message.payload()));
+        byte[] bytes = (objectMapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
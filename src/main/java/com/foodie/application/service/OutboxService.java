@@ -0,0 +1,430 @@
+package com.foodie.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodie.application.event.OrderPlacedEvent;
+import com.foodie.application.event.OrderStatusChangedEvent;
+import com.foodie.application.event.OutboxMessage;
+import com.foodie.application.event.OutboxSink;
+import com.foodie.application.event.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class for the transactional outbox of order and payment domain events.
+ * <p>
+ * Order and payment events are recorded in the {@code outbox_event} table by the same
+ * transaction that changes the order or payment, so an event exists if and only if its
+ * change was committed: if the event cannot be recorded, e.g. because the table could
+ * not be created yet, the change fails with it. A scheduled relay claims due events in batches with
+ * {@code FOR UPDATE SKIP LOCKED}, so several instances can relay at once without
+ * delivering the same event twice concurrently, and delivers each one to in-process
+ * listeners of {@link OutboxMessage} and to every {@link OutboxSink}, marking it as
+ * delivered in the same transaction.
+ * </p>
+ * <p>
+ * Delivery is at least once. Only the earliest undelivered event of each order is
+ * claimed, so events of an order are delivered in the order they were recorded and a
+ * failing event holds back the later ones of its order, but not those of other orders.
+ * Failed events are retried with exponential backoff and parked after a maximum number
+ * of attempts, until their attempts are reset by hand. Delivered events are deleted
+ * after a retention period. The outbox requires PostgreSQL; on any other database it is
+ * disabled at startup and no event is recorded.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class OutboxService {
+
+    private static final String ORDER = "Order";
+    private static final String LISTENERS = "listeners";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_event " +
+            "(aggregate_type, aggregate_id, event_type, payload) VALUES (?, ?, ?, ?::jsonb)";
+
+    // Earliest undelivered event of each order, if due and not claimed by another relay
+    private static final String CLAIM_SQL = """
+            SELECT e.id, e.aggregate_type, e.aggregate_id, e.event_type, e.payload::text AS payload,
+                   e.created_at, e.attempts
+            FROM outbox_event e
+            WHERE e.published_at IS NULL
+              AND e.attempts < ?
+              AND e.available_at <= now()
+              AND NOT EXISTS (SELECT 1 FROM outbox_event p
+                              WHERE p.published_at IS NULL
+                                AND p.aggregate_type = e.aggregate_type
+                                AND p.aggregate_id = e.aggregate_id
+                                AND p.id < e.id)
+            ORDER BY e.id
+            LIMIT ?
+            FOR UPDATE OF e SKIP LOCKED
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate schemaTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<OutboxSink> sinks;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    private final int retentionHours;
+
+    private final Counter delivered;
+    private final Counter failed;
+    private final Map<String, Counter> sinkFailures = new LinkedHashMap<>();
+    private final Timer deliveryLag;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private final AtomicLong oldestPendingMs = new AtomicLong();
+    private volatile boolean available;
+    private volatile boolean unsupported;
+
+    /**
+     * Constructs an OutboxService and registers its meters.
+     *
+     * @param jdbcTemplate the JDBC template used to record and relay events
+     * @param transactionManager the transaction manager used to relay each batch and create the table in their own transactions
+     * @param objectMapper the mapper used to serialize events
+     * @param eventPublisher the publisher delivering events to in-process listeners
+     * @param sinks the sinks every event is delivered to
+     * @param meterRegistry the registry the outbox meters are published to
+     * @param enabled whether events are recorded and relayed at all
+     * @param batchSize the maximum number of events claimed per transaction
+     * @param maxAttempts the number of failed deliveries after which an event is parked
+     * @param retryBackoffMs the delay before retrying an event that failed once, doubled on each failure
+     * @param maxRetryBackoffMs the maximum delay before retrying a failed event
+     * @param retentionHours hours delivered events are kept before being deleted
+     */
+    public OutboxService(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         ApplicationEventPublisher eventPublisher,
+                         List<OutboxSink> sinks,
+                         MeterRegistry meterRegistry,
+                         @Value("${foodie.outbox.enabled:true}") boolean enabled,
+                         @Value("${foodie.outbox.batch-size:100}") int batchSize,
+                         @Value("${foodie.outbox.max-attempts:20}") int maxAttempts,
+                         @Value("${foodie.outbox.retry-backoff-ms:1000}") long retryBackoffMs,
+                         @Value("${foodie.outbox.max-retry-backoff-ms:300000}") long maxRetryBackoffMs,
+                         @Value("${foodie.outbox.retention-hours:72}") int retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.schemaTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.schemaTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.sinks = sinks;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+        this.retentionHours = retentionHours;
+
+        this.delivered = counter(meterRegistry, "delivered");
+        this.failed = counter(meterRegistry, "failed");
+        this.deliveryLag = Timer.builder("foodie.outbox.delivery.lag")
+                .description("Time from recording an event to delivering it")
+                .register(meterRegistry);
+        sinkFailures.put(LISTENERS, sinkFailureCounter(meterRegistry, LISTENERS));
+        for (OutboxSink sink : sinks) {
+            sinkFailures.put(sink.getName(), sinkFailureCounter(meterRegistry, sink.getName()));
+        }
+        Gauge.builder("foodie.outbox.pending", pending, AtomicLong::get)
+                .description("Events recorded but not delivered yet, including parked ones")
+                .register(meterRegistry);
+        Gauge.builder("foodie.outbox.parked", parked, AtomicLong::get)
+                .description("Events no longer retried after too many failed deliveries")
+                .register(meterRegistry);
+        Gauge.builder("foodie.outbox.lag", oldestPendingMs, ms -> ms.get() / 1000.0)
+                .description("Age of the oldest event not delivered yet")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates the outbox table when running on PostgreSQL. If the database cannot be
+     * reached, creating it is retried by every relay run and before recording an event.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSchema() {
+        if (!enabled) {
+            log.info("Outbox disabled by configuration");
+            return;
+        }
+        try {
+            ensureSchema();
+        } catch (RuntimeException e) {
+            log.error("Could not initialize the outbox table, retrying later", e);
+        }
+    }
+
+    /**
+     * Records the placement of an order in the transaction placing it.
+     */
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(ORDER, event.orderId(), "OrderPlaced", event);
+    }
+
+    /**
+     * Records a status change of an order in the transaction changing it.
+     */
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        record(ORDER, event.orderId(), "OrderStatusChanged", event);
+    }
+
+    /**
+     * Records a status change of a payment in the transaction changing it. Payment
+     * events belong to their order, so they are delivered in order with its events.
+     */
+    @EventListener
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        if (event.orderId() == null) {
+            log.warn("Not recording status change of payment {} without an order", event.paymentId());
+            return;
+        }
+        record(ORDER, event.orderId(), "PaymentStatusChanged", event);
+    }
+
+    /**
+     * Delivers the due events, one batch per transaction, until none is left.
+     */
+    @Scheduled(fixedDelayString = "${foodie.outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            if (!ensureSchema()) {
+                return;
+            }
+            Integer claimed;
+            do {
+                claimed = transactionTemplate.execute(status -> relayBatch());
+            } while (claimed != null && claimed > 0);
+        } catch (RuntimeException e) {
+            log.warn("Could not relay outbox events, retrying later", e);
+        }
+        refreshBacklog();
+    }
+
+    /**
+     * Deletes the delivered events older than the retention period.
+     */
+    @Scheduled(cron = "${foodie.outbox.cleanup-cron:0 45 4 * * *}")
+    public void deleteDeliveredEvents() {
+        if (!available) {
+            return;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM outbox_event WHERE published_at < now() - ? * interval '1 hour'",
+                retentionHours);
+        log.info("Deleted {} delivered outbox events", deleted);
+    }
+
+    /**
+     * @return the number of events recorded but not delivered yet
+     */
+    public long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Creates the outbox table unless it already was, in its own transaction.
+     *
+     * @return true if events can be recorded, false if the outbox is disabled or the database is not PostgreSQL
+     */
+    private boolean ensureSchema() {
+        if (available) {
+            return true;
+        }
+        if (!enabled || unsupported) {
+            return false;
+        }
+        synchronized (this) {
+            if (!available && !unsupported) {
+                schemaTransactionTemplate.executeWithoutResult(status -> createSchema());
+            }
+        }
+        return available;
+    }
+
+    private void createSchema() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (product == null || !product.toLowerCase().contains("postgres")) {
+            log.info("Outbox requires PostgreSQL, running on {}: outbox disabled", product);
+            unsupported = true;
+            return;
+        }
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS outbox_event (
+                    id BIGSERIAL PRIMARY KEY,
+                    aggregate_type VARCHAR(32) NOT NULL,
+                    aggregate_id INTEGER NOT NULL,
+                    event_type VARCHAR(64) NOT NULL,
+                    payload JSONB NOT NULL,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp(),
+                    available_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp(),
+                    published_at TIMESTAMPTZ,
+                    attempts INTEGER NOT NULL DEFAULT 0,
+                    last_error TEXT
+                )
+                """);
+        // Partial indexes only hold undelivered events, so they stay small however long the retention
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_outbox_event_undelivered " +
+                "ON outbox_event (id) WHERE published_at IS NULL");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_outbox_event_undelivered_aggregate " +
+                "ON outbox_event (aggregate_type, aggregate_id, id) WHERE published_at IS NULL");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_outbox_event_published_at " +
+                "ON outbox_event (published_at) WHERE published_at IS NOT NULL");
+        available = true;
+    }
+
+    private void record(String aggregateType, Integer aggregateId, String eventType, Object event) {
+        boolean recordable;
+        try {
+            recordable = ensureSchema();
+        } catch (RuntimeException e) {
+            // Failing the transaction is the only way not to lose the event
+            throw new IllegalStateException("Could not create the outbox table to record " + eventType, e);
+        }
+        if (!recordable) {
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            // Failing the transaction is the only way not to lose the event
+            throw new IllegalStateException("Could not serialize " + eventType + " event", e);
+        }
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, eventType, payload);
+    }
+
+    // Delivers a batch of claimed events and returns how many were claimed
+    private int relayBatch() {
+        List<OutboxMessage> messages = jdbcTemplate.query(CLAIM_SQL, OutboxService::toMessage, maxAttempts, batchSize);
+        List<Object[]> deliveredIds = new ArrayList<>();
+        List<Object[]> failures = new ArrayList<>();
+        for (OutboxMessage message : messages) {
+            try {
+                deliver(message);
+                deliveredIds.add(new Object[]{message.id()});
+                deliveryLag.record(Duration.between(message.createdAt(), Instant.now()));
+                delivered.increment();
+            } catch (Exception e) {
+                long backoff = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(message.attempt() - 1, 30));
+                if (message.attempt() >= maxAttempts) {
+                    log.error("Parking outbox event {} of {} {} after {} failed deliveries", message.id(),
+                            message.aggregateType(), message.aggregateId(), message.attempt(), e);
+                } else {
+                    log.warn("Could not deliver outbox event {} of {} {}, retrying in {} ms", message.id(),
+                            message.aggregateType(), message.aggregateId(), backoff, e);
+                }
+                String error = String.valueOf(e);
+                failures.add(new Object[]{error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)),
+                        backoff, message.id()});
+                failed.increment();
+            }
+        }
+        if (!deliveredIds.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE outbox_event SET published_at = clock_timestamp() WHERE id = ?",
+                    deliveredIds);
+        }
+        if (!failures.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE outbox_event SET attempts = attempts + 1, last_error = ?, " +
+                    "available_at = clock_timestamp() + ? * interval '1 millisecond' WHERE id = ?", failures);
+        }
+        return messages.size();
+    }
+
+    private void deliver(OutboxMessage message) throws Exception {
+        try {
+            eventPublisher.publishEvent(message);
+        } catch (RuntimeException e) {
+            sinkFailures.get(LISTENERS).increment();
+            throw new IllegalStateException("In-process listener failed", e);
+        }
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.deliver(message);
+            } catch (Exception e) {
+                sinkFailures.get(sink.getName()).increment();
+                throw new IllegalStateException("Sink " + sink.getName() + " failed", e);
+            }
+        }
+    }
+
+    private void refreshBacklog() {
+        try {
+            jdbcTemplate.query("""
+                    SELECT count(*) AS pending,
+                           count(*) FILTER (WHERE attempts >= ?) AS parked,
+                           COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - min(created_at)), 0) AS oldest
+                    FROM outbox_event
+                    WHERE published_at IS NULL
+                    """, rs -> {
+                pending.set(rs.getLong("pending"));
+                parked.set(rs.getLong("parked"));
+                oldestPendingMs.set(Math.round(rs.getDouble("oldest") * 1000));
+            }, maxAttempts);
+        } catch (RuntimeException e) {
+            log.warn("Could not read the outbox backlog", e);
+        }
+    }
+
+    private static OutboxMessage toMessage(ResultSet rs, int rowNum) throws SQLException {
+        return new OutboxMessage(
+                rs.getLong("id"),
+                rs.getString("aggregate_type"),
+                rs.getInt("aggregate_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getInt("attempts") + 1);
+    }
+
+    private static Counter sinkFailureCounter(MeterRegistry meterRegistry, String sink) {
+        return Counter.builder("foodie.outbox.sink.failures")
+                .description("Failed outbox deliveries by destination")
+                .tag("sink", sink)
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("foodie.outbox.delivery")
+                .description("Outbox event deliveries by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -4,19 +4,25 @@ import com.foodie.application.domain.Order;
 import com.foodie.application.domain.Payment;
 import com.foodie.application.domain.PaymentMethod;
 import com.foodie.application.domain.PaymentStatus;
+import com.foodie.application.event.PaymentStatusChangedEvent;
 import com.foodie.application.helper.OrderHelper;
 import com.foodie.application.repository.PaymentRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+
 @Service
 public class PaymentService {
 
     PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -55,10 +61,10 @@ public class PaymentService {
         try {
             PaymentMethod pMethod = PaymentMethod.valueOf(methodString.toUpperCase());
             payment.setPaymentMethod(pMethod);
-            payment.setPaymentStatus(PaymentStatus.COMPLETED);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid payment method: " + methodString);
         }
+        changeStatus(payment, PaymentStatus.COMPLETED);
     }
 
     @Transactional
@@ -69,7 +75,7 @@ public class PaymentService {
         if (!PaymentStatus.COMPLETED.equals(payment.getPaymentStatus())) {
             throw new IllegalStateException("Only completed payments can be refunded");
         }
-        payment.setPaymentStatus(PaymentStatus.REFUNDED);
+        changeStatus(payment, PaymentStatus.REFUNDED);
     }
 
     @Transactional
@@ -80,7 +86,7 @@ public class PaymentService {
         if (PaymentStatus.COMPLETED.equals(payment.getPaymentStatus())) {
             throw new IllegalStateException("Completed payments cannot be cancelled");
         }
-        payment.setPaymentStatus(PaymentStatus.CANCELLED);
+        changeStatus(payment, PaymentStatus.CANCELLED);
     }
 
     @Transactional
@@ -104,7 +110,14 @@ public class PaymentService {
         if (!payment.getPaymentStatus().equals(PaymentStatus.PENDING)) {
             throw new IllegalStateException("Only pending payments can be marked as failed");
         }
-        payment.setPaymentStatus(PaymentStatus.FAILED);
+        changeStatus(payment, PaymentStatus.FAILED);
     }
 
+    private void changeStatus(Payment payment, PaymentStatus newStatus) {
+        PaymentStatus previousStatus = payment.getPaymentStatus();
+        payment.setPaymentStatus(newStatus);
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(payment.getId(),
+                payment.getOrder() != null ? payment.getOrder().getId() : null,
+                previousStatus, newStatus, payment.getPaymentAmount(), Instant.now()));
+    }
 }
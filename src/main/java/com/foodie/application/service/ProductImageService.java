@@ -0,0 +1,297 @@
+package com.foodie.application.service;
+
+import com.foodie.application.helper.HashHelper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Service class for product images.
+ * <p>
+ * Uploaded images are decoded once and stored on disk as a fixed set of resized JPEG
+ * {@link Variant variants}, in a folder named after a hash of the original content, so
+ * storing the same image twice reuses the existing files and a stored variant never
+ * changes. Products reference a stored image with a URL of the form
+ * {@code /media/products/{hash}}; {@link #variantUrl} turns it into the URL of the
+ * variant fitting each place the image is displayed, served with long-lived caching by
+ * {@code ProductImageController}. Any other image URL is left untouched.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class ProductImageService {
+
+    /**
+     * Prefix of the URLs of stored images.
+     */
+    public static final String URL_PREFIX = "/media/products/";
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{32}");
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    /**
+     * Stored sizes of every image, in pixels. Square variants are center-cropped,
+     * the others keep the aspect ratio. Images are never upscaled.
+     */
+    @Getter
+    public enum Variant {
+        THUMBNAIL(240, true),
+        CARD(560, true),
+        DETAIL(1200, false);
+
+        private final int size;
+        private final boolean square;
+
+        Variant(int size, boolean square) {
+            this.size = size;
+            this.square = square;
+        }
+
+        /**
+         * @return the name of the variant in URLs
+         */
+        public String pathName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Finds a variant by its name in URLs.
+         *
+         * @param pathName the name of the variant
+         * @return the variant, or empty if there is none with that name
+         */
+        public static Optional<Variant> fromPathName(String pathName) {
+            return Arrays.stream(values()).filter(variant -> variant.pathName().equals(pathName)).findFirst();
+        }
+    }
+
+    private final Path directory;
+    private final long maxUploadBytes;
+
+    /**
+     * Constructs a ProductImageService.
+     *
+     * @param directory the directory where image variants are stored
+     * @param maxUploadBytes the maximum size of an uploaded image
+     */
+    public ProductImageService(@Value("${foodie.images.directory:data/images}") String directory,
+                               @Value("${foodie.images.max-upload-bytes:10485760}") long maxUploadBytes) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.maxUploadBytes = maxUploadBytes;
+    }
+
+    /**
+     * Stores an image, generating all its variants unless the same content was stored before.
+     *
+     * @param in the encoded image (JPEG, PNG, GIF or BMP); it is not closed
+     * @return the URL referencing the stored image, to be saved as the product image URL
+     * @throws IOException if reading the image or writing the variants fails
+     * @throws IllegalArgumentException if the content is not a supported image or is too large
+     */
+    public String store(InputStream in) throws IOException {
+        byte[] data = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxUploadBytes + 1));
+        if (data.length > maxUploadBytes) {
+            throw new IllegalArgumentException("La imagen supera el tamaño máximo de " + maxUploadBytes / (1024 * 1024) + " MB");
+        }
+        String hash = HashHelper.contentHash(data);
+        Path folder = directory.resolve(hash);
+        if (Arrays.stream(Variant.values()).allMatch(variant -> Files.isRegularFile(fileOf(folder, variant)))) {
+            return URL_PREFIX + hash;
+        }
+
+        BufferedImage source = decode(data);
+        Files.createDirectories(folder);
+        for (Variant variant : Variant.values()) {
+            BufferedImage resized = resize(source, variant);
+            // Written to a temporary file first so a variant is never served half written
+            Path temporary = Files.createTempFile(folder, variant.pathName(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temporary)) {
+                    writeJpeg(resized, out);
+                }
+                Files.move(temporary, fileOf(folder, variant), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Already gone once moved; removes what a failed write or move left behind
+                Files.deleteIfExists(temporary);
+            }
+        }
+        log.info("Stored product image {} ({} KB, {}x{})", hash, data.length / 1024, source.getWidth(), source.getHeight());
+        return URL_PREFIX + hash;
+    }
+
+    /**
+     * Resolves the image URL typed by an administrator. A reference to an image bundled
+     * with the application (such as {@code /image/pizza.png}) is stored and replaced by
+     * the URL of the stored image; any other URL is returned unchanged.
+     *
+     * @param imageUrl the image URL, may be null
+     * @return the URL to save as the product image URL
+     */
+    public String importLocalImage(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank() || imageUrl.startsWith(URL_PREFIX) || imageUrl.contains("://")
+                || imageUrl.contains("..")) {
+            return imageUrl;
+        }
+        ClassPathResource resource = new ClassPathResource("static/" + imageUrl.trim().replaceFirst("^/+", ""));
+        if (!resource.exists()) {
+            return imageUrl;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return store(in);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Could not import local image {}: {}", imageUrl, e.getMessage());
+            return imageUrl;
+        }
+    }
+
+    /**
+     * Finds the file of a stored variant.
+     *
+     * @param hash the hash of the image
+     * @param variant the variant
+     * @return the file, or empty if the hash is malformed or the image is not stored
+     */
+    public Optional<Path> findVariant(String hash, Variant variant) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path file = fileOf(directory.resolve(hash), variant);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Checks whether a URL references an image stored in this environment.
+     *
+     * @param imageUrl the product image URL, may be null
+     * @return true if the URL has the prefix of stored images and all its variants exist
+     */
+    public boolean isStored(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return false;
+        }
+        String hash = imageUrl.substring(URL_PREFIX.length());
+        return Arrays.stream(Variant.values()).allMatch(variant -> findVariant(hash, variant).isPresent());
+    }
+
+    /**
+     * Returns the URL of a variant of a product image.
+     *
+     * @param imageUrl the product image URL, may be null
+     * @param variant the variant
+     * @return the URL of the variant for stored images, otherwise the image URL unchanged
+     */
+    public static String variantUrl(String imageUrl, Variant variant) {
+        if (imageUrl != null && imageUrl.startsWith(URL_PREFIX)) {
+            return imageUrl + "/" + variant.pathName();
+        }
+        return imageUrl;
+    }
+
+    private static Path fileOf(Path folder, Variant variant) {
+        return folder.resolve(variant.pathName() + ".jpg");
+    }
+
+    // Decodes an image, checking its dimensions first so huge images are rejected before allocating them
+    private static BufferedImage decode(byte[] data) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Formato de imagen no soportado");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IllegalArgumentException("La imagen tiene demasiados píxeles");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, Variant variant) {
+        int x = 0;
+        int y = 0;
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        if (variant.isSquare()) {
+            int side = Math.min(sourceWidth, sourceHeight);
+            x = (sourceWidth - side) / 2;
+            y = (sourceHeight - side) / 2;
+            sourceWidth = side;
+            sourceHeight = side;
+        }
+        double scale = Math.min(1.0, (double) variant.getSize() / Math.max(sourceWidth, sourceHeight));
+        int targetWidth = Math.max(1, (int) Math.round(sourceWidth * scale));
+        int targetHeight = Math.max(1, (int) Math.round(sourceHeight * scale));
+
+        // Halve the size in steps: a single bilinear pass from a much larger image aliases badly
+        BufferedImage current = source.getSubimage(x, y, sourceWidth, sourceHeight);
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    // Draws an image at the given size on an opaque white background, as JPEG has no transparency
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
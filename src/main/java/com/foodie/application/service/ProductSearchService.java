@@ -0,0 +1,116 @@
+package com.foodie.application.service;
+
+import com.foodie.application.dto.ProductDto;
+import com.foodie.application.event.CatalogChangedEvent;
+import com.foodie.application.helper.ProductSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Service class for searching the product catalog.
+ * <p>
+ * Keeps an in-memory full-text index of every product (name, description,
+ * ingredients and allergens) with accent folding and typo tolerance. The index is
+ * built on startup and updated product by product when the catalog changes. Changes
+ * affecting the whole catalog build a new index aside and swap it in, so searches never
+ * see a partial index.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class ProductSearchService {
+
+    private static final int MAX_RESULTS = 1000;
+
+    private final ProductService productService;
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+
+    /**
+     * Constructs a ProductSearchService.
+     *
+     * @param productService the product service used to load the indexed products
+     */
+    public ProductSearchService(ProductService productService) {
+        this.productService = productService;
+    }
+
+    /**
+     * Indexes the whole catalog.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<ProductDto> products = productService.getAllProductsAsDto();
+        ProductSearchIndex built = new ProductSearchIndex();
+        products.forEach(product -> put(built, product));
+        index = built;
+        log.info("Indexed {} products for search", products.size());
+    }
+
+    /**
+     * Updates the index once a catalog change has been committed. Runs one at a time
+     * with {@link #rebuild()}, so no update is applied to an index about to be replaced.
+     *
+     * @param event the catalog change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() == null) {
+            rebuild();
+            return;
+        }
+        productService.findProductAsDto(event.productId())
+                .ifPresentOrElse(product -> put(index, product), () -> index.remove(event.productId()));
+    }
+
+    /**
+     * Searches the products matching a query.
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of results
+     * @return the IDs of the matching products, best match first
+     */
+    public List<Integer> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    /**
+     * Filters and ranks a list of items by the products they refer to.
+     * A blank query returns the items unchanged.
+     *
+     * @param items the items to filter, e.g. the rows of a grid
+     * @param productId extracts the product ID of an item
+     * @param query the text typed by the user
+     * @param <T> the type of the items
+     * @return the items whose product matches the query, best match first
+     */
+    public <T> List<T> filter(List<T> items, Function<T, Integer> productId, String query) {
+        if (query == null || query.isBlank()) {
+            return items;
+        }
+        List<Integer> matches = index.search(query, MAX_RESULTS);
+        Map<Integer, Integer> rank = new HashMap<>();
+        for (int i = 0; i < matches.size(); i++) {
+            rank.put(matches.get(i), i);
+        }
+        return items.stream()
+                .filter(item -> rank.containsKey(productId.apply(item)))
+                .sorted(Comparator.comparingInt(item -> rank.get(productId.apply(item))))
+                .toList();
+    }
+
+    private static void put(ProductSearchIndex index, ProductDto product) {
+        index.put(product.getId(), product.getName(), product.getDescription(),
+                product.getIngredients(), product.getAllergenNames());
+    }
+}
@@ -3,14 +3,20 @@ package com.foodie.application.service;
 import com.foodie.application.domain.Allergen;
 import com.foodie.application.domain.Product;
 import com.foodie.application.dto.ProductDto;
+import com.foodie.application.event.CatalogChangedEvent;
 import com.foodie.application.repository.AllergenRepository;
 import com.foodie.application.repository.IngredientRepository;
 import com.foodie.application.repository.ProductRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -21,13 +27,16 @@ public class ProductService {
     private final AllergenRepository allergenRepository;
     private final IngredientRepository ingredientRepository;
     private final IngredientService ingredientService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProductService(ProductRepository productRepository, AllergenRepository allergenRepository,
-                         IngredientRepository ingredientRepository, IngredientService ingredientService) {
+                         IngredientRepository ingredientRepository, IngredientService ingredientService,
+                         ApplicationEventPublisher eventPublisher) {
         this.allergenRepository = allergenRepository;
         this.productRepository = productRepository;
         this.ingredientRepository = ingredientRepository;
         this.ingredientService = ingredientService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -36,46 +45,57 @@ public class ProductService {
             throw new EntityNotFoundException("Product not found with id: " + productId);
         }
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     @Transactional
     public List<Product> getAllProducts(Integer menuId) {
-        List<Product> products = productRepository.findAll();
-        // Eagerly load allergens within the transaction to avoid LazyInitializationException
-        for (Product product : products) {
-            if (product.getAllergens() != null) {
-                product.getAllergens().size(); // Force initialization
-            }
-        }
-        return products;
+        // Allergens are fetched in the same query to avoid LazyInitializationException
+        return productRepository.findAllWithAllergens();
     }
 
     /**
-     * Retrieves all products as DTOs with all relationships eagerly initialized.
-     * This method ensures that lazy relationships are loaded within the transaction context.
+     * Retrieves all products as DTOs with their allergen and ingredient names.
+     * The catalog is loaded with three set-based queries (products, allergen names
+     * and ingredient names) regardless of the number of products.
      *
-     * @return a list of ProductDto objects with all data properly loaded
+     * @return a list of ProductDto objects ordered by ID
      */
     @Transactional
     public List<ProductDto> getAllProductsAsDto() {
-        List<Product> products = productRepository.findAll();
-
-        // Eagerly initialize all lazy collections within the transaction
-        for (Product product : products) {
-            if (product.getAllergens() != null) {
-                product.getAllergens().size(); // Force initialization
-            }
-            if (product.getIngredients() != null) {
-                product.getIngredients().size(); // Force initialization
-            }
-        }
-
-        // Convert to DTOs within the transaction
-        return products.stream()
-                .map(ProductDto::fromProduct)
+        Map<Integer, Set<String>> allergenNames = groupByProduct(productRepository.findAllAllergenNames());
+        Map<Integer, Set<String>> ingredientNames = groupByProduct(productRepository.findAllIngredientNames());
+
+        return productRepository.findAll(Sort.by("id")).stream()
+                .map(product -> ProductDto.builder()
+                        .id(product.getId())
+                        .name(product.getName())
+                        .description(product.getDescription())
+                        .price(product.getPrice())
+                        .imageUrl(product.getImageUrl())
+                        .allergenNames(allergenNames.getOrDefault(product.getId(), Collections.emptySet()))
+                        .ingredients(ingredientNames.getOrDefault(product.getId(), Collections.emptySet()))
+                        .build())
                 .collect(Collectors.toList());
     }
 
+    private static Map<Integer, Set<String>> groupByProduct(List<ProductRepository.ProductAssociationName> rows) {
+        return rows.stream().collect(Collectors.groupingBy(
+                ProductRepository.ProductAssociationName::getProductId,
+                Collectors.mapping(ProductRepository.ProductAssociationName::getName, Collectors.toSet())));
+    }
+
+    /**
+     * Retrieves a single product as a DTO with all relationships initialized.
+     *
+     * @param productId the ID of the product
+     * @return the product, or empty if it does not exist
+     */
+    @Transactional
+    public Optional<ProductDto> findProductAsDto(Integer productId) {
+        return productRepository.findById(productId).map(ProductDto::fromProduct);
+    }
+
     /**
      * Gets a product by ID with allergens eagerly loaded.
      * This method ensures that allergens are loaded before the session closes,
@@ -100,6 +120,7 @@ public class ProductService {
         var product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
         product.setPrice(newPrice);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     @Transactional
@@ -107,6 +128,7 @@ public class ProductService {
         var product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
         product.setDescription(newDescription);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     @Transactional
@@ -114,6 +136,7 @@ public class ProductService {
         var product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
         product.setName(newName);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     @Transactional
@@ -123,6 +146,7 @@ public class ProductService {
         var ingredients = ingredientRepository.findByNameIn(newIngredients);
 
         product.getIngredients().addAll(ingredients);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     @Transactional
@@ -132,6 +156,7 @@ public class ProductService {
         var ingredients = ingredientRepository.findByNameIn(ingredientsToRemove);
 
         product.getIngredients().removeAll(ingredients);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     @Transactional
@@ -141,6 +166,7 @@ public class ProductService {
         var allergens = allergenRepository.findByNameIn(newAllergens);
 
         product.getAllergens().addAll(allergens);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     @Transactional
@@ -150,6 +176,7 @@ public class ProductService {
         var allergens = allergenRepository.findByNameIn(allergensToRemove);
 
         product.getAllergens().removeAll(allergens);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     /**
@@ -168,7 +195,9 @@ public class ProductService {
         product.setDescription(description);
         product.setPrice(price);
         product.setImageUrl(imageUrl);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
+        return saved;
     }
 
     /**
@@ -217,7 +246,9 @@ public class ProductService {
             product.setIngredients(ingredients);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
+        return saved;
     }
 
     /**
@@ -239,7 +270,9 @@ public class ProductService {
         product.setPrice(price);
         product.setImageUrl(imageUrl);
         product.setAllergens(allergens);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
+        return saved;
     }
 
     /**
@@ -260,6 +293,7 @@ public class ProductService {
         product.setPrice(price);
         product.setImageUrl(imageUrl);
         productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     /**
@@ -317,6 +351,7 @@ public class ProductService {
         }
 
         productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     /**
@@ -346,6 +381,7 @@ public class ProductService {
         product.setAllergens(allergens);
 
         productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     public List<Product> getProducts(int i) {
@@ -4,6 +4,8 @@ import com.foodie.application.domain.Role;
 import com.foodie.application.repository.RoleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,6 +27,7 @@ public class RoleService {
     }
 
     @Transactional
+    @Cacheable(value = "roles", key = "#name")
     public Role findOrCreateRole(String name) {
         return roleRepository.findByName(name)
                 .orElseGet(() -> roleRepository.save(Role.builder().name(name).build()));
@@ -39,6 +42,7 @@ public class RoleService {
     }
 
     @Transactional
+    @CacheEvict(value = "roles", allEntries = true)
     public Role updateRoleName(Integer id, String roleName) {
         var role = roleRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Role not found with id: " + id));
@@ -48,6 +52,7 @@ public class RoleService {
     }
 
     @Transactional
+    @CacheEvict(value = "roles", allEntries = true)
     public void deleteRole(Integer roleId) {
         if (!roleRepository.existsById(roleId)) {
             throw new EntityNotFoundException("Role not found with id: " + roleId);
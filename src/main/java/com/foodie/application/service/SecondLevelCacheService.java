@@ -0,0 +1,43 @@
+package com.foodie.application.service;
+
+import com.foodie.application.domain.Product;
+import com.foodie.application.event.CatalogChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service class keeping the Hibernate second-level cache consistent with writes made
+ * outside of JPA.
+ * <p>
+ * The catalog import rewrites the product allergen and ingredient join tables with plain
+ * SQL, which Hibernate does not see. Catalog changes that may affect any product evict
+ * those collection regions once committed, so they are loaded again on next use.
+ * Allergens and ingredients created by name are inserted with plain SQL as well, but
+ * they are new rows that no region can hold yet, so they need no eviction.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Service
+public class SecondLevelCacheService {
+
+    private static final String PRODUCT_ALLERGENS = Product.class.getName() + ".allergens";
+    private static final String PRODUCT_INGREDIENTS = Product.class.getName() + ".ingredients";
+
+    private final Cache cache;
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() == null) {
+            cache.evictCollectionData(PRODUCT_ALLERGENS);
+            cache.evictCollectionData(PRODUCT_INGREDIENTS);
+        }
+    }
+}
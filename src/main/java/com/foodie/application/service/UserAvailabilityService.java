@@ -0,0 +1,112 @@
+package com.foodie.application.service;
+
+import com.foodie.application.event.UserIdentifiersChangedEvent;
+import com.foodie.application.helper.CountingBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service class answering whether a username or email might be taken without querying
+ * the database when it certainly is not.
+ * <p>
+ * Taken usernames and emails are kept in a {@link CountingBloomFilter}, built at startup
+ * and updated once users are created, change their email or are deleted, after the
+ * change commits. The filter is only a fast negative check: a positive answer must be confirmed
+ * in the database, and the unique indexes on the users table stay authoritative, so an
+ * update missed while the filter is rebuilt can only let a registration reach the insert
+ * and fail there. Until the filter is built every value is reported as possibly taken.
+ * </p>
+ *
+ * @author Foodie Team
+ */
+@Slf4j
+@Service
+public class UserAvailabilityService {
+
+    private static final int MIN_EXPECTED_USERS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile CountingBloomFilter filter;
+
+    public UserAvailabilityService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Builds the filter from the users table, sized for twice the current number of
+     * users so it only needs rebuilding after the user base doubles.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        long expectedUsers = Math.max(MIN_EXPECTED_USERS, 2 * (users != null ? users : 0));
+        // Each user stores two values, the username and the email
+        CountingBloomFilter rebuilt = new CountingBloomFilter((int) Math.min(Integer.MAX_VALUE, 2 * expectedUsers),
+                FALSE_POSITIVE_RATE);
+        jdbcTemplate.query("SELECT username, email FROM users", rs -> {
+            rebuilt.add(usernameKey(rs.getString(1)));
+            rebuilt.add(emailKey(rs.getString(2)));
+        });
+        filter = rebuilt;
+        log.info("Built the username and email filter for {} users", users);
+    }
+
+    /**
+     * @param username the username
+     * @return false if no user has the username, true if one probably has
+     */
+    public boolean usernameMightBeTaken(String username) {
+        CountingBloomFilter current = filter;
+        return current == null || current.mightContain(usernameKey(username));
+    }
+
+    /**
+     * @param email the email
+     * @return false if no user has the email, true if one probably has
+     */
+    public boolean emailMightBeTaken(String email) {
+        CountingBloomFilter current = filter;
+        return current == null || current.mightContain(emailKey(email));
+    }
+
+    /**
+     * Applies a change of the taken usernames and emails once the transaction making it
+     * has committed, so a rolled back change never alters the filter.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserIdentifiersChanged(UserIdentifiersChangedEvent event) {
+        CountingBloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        if (event.releasedUsername() != null) {
+            current.remove(usernameKey(event.releasedUsername()));
+        }
+        if (event.releasedEmail() != null) {
+            current.remove(emailKey(event.releasedEmail()));
+        }
+        if (event.takenUsername() != null) {
+            current.add(usernameKey(event.takenUsername()));
+        }
+        if (event.takenEmail() != null) {
+            current.add(emailKey(event.takenEmail()));
+        }
+        if (current.isOverloaded()) {
+            rebuild();
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return username != null ? "u:" + username : null;
+    }
+
+    private static String emailKey(String email) {
+        return email != null ? "e:" + email : null;
+    }
+}
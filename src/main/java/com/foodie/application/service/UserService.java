@@ -2,16 +2,28 @@ package com.foodie.application.service;
 
 import com.foodie.application.domain.User;
 import com.foodie.application.domain.Role;
+import com.foodie.application.dto.UserDto;
+import com.foodie.application.event.UserChangedEvent;
+import com.foodie.application.event.UserIdentifiersChangedEvent;
 import com.foodie.application.repository.UserRepository;
 import com.foodie.application.repository.RoleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 
@@ -31,16 +43,50 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserAvailabilityService userAvailabilityService;
 
     /**
      * Constructs a UserService with required repositories.
      *
      * @param userRepository the user repository for database access
      * @param roleRepository the role repository for database access
+     * @param eventPublisher the publisher of user change events
+     * @param jdbcTemplate the JDBC template used to create the search indexes
+     * @param userAvailabilityService the filter of taken usernames and emails
      */
-    public UserService(UserRepository userRepository, RoleRepository roleRepository) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository,
+                       ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+                       UserAvailabilityService userAvailabilityService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userAvailabilityService = userAvailabilityService;
+    }
+
+    /**
+     * Creates the trigram indexes serving the case-insensitive user search when running
+     * on PostgreSQL. On any other database, or if the pg_trgm extension cannot be
+     * created, the search still works without them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSearchIndexes() {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            if (product == null || !product.toLowerCase().contains("postgres")) {
+                log.info("User search indexes require PostgreSQL, running on {}", product);
+                return;
+            }
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm ON users USING gin (lower(full_name) gin_trgm_ops)");
+        } catch (Exception e) {
+            log.warn("Could not create the user search indexes: {}", e.getMessage());
+        }
     }
 
     /**
@@ -57,16 +103,6 @@ public class UserService {
      */
     @Transactional
     public Integer createUser(String username, String password, String email, String fullName, Integer roleId) {
-        // Check if username already exists
-        if (userRepository.findByUsername(username).isPresent()) {
-            throw new IllegalArgumentException("Username already exists: " + username);
-        }
-
-        // Check if email already exists
-        if (userRepository.findByEmail(email).isPresent()) {
-            throw new IllegalArgumentException("Email already exists: " + email);
-        }
-
         // Get role
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new EntityNotFoundException("Role not found with id: " + roleId));
@@ -80,9 +116,30 @@ public class UserService {
                 .role(role)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        return createUser(user).getId();
+    }
+
+    /**
+     * Creates a user with a single insert. Taken usernames and emails are detected by the
+     * unique indexes of the users table instead of being looked up beforehand.
+     *
+     * @param user the user to create, with its role set and its password already hashed
+     * @return the created user
+     * @throws IllegalArgumentException if username or email already exists
+     */
+    @Transactional
+    public User createUser(User user) {
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e, user.getUsername(), user.getEmail());
+        }
+        eventPublisher.publishEvent(new UserIdentifiersChangedEvent(null, null,
+                savedUser.getUsername(), savedUser.getEmail()));
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId()));
         log.info("User created successfully with id: {}", savedUser.getId());
-        return savedUser.getId();
+        return savedUser;
     }
 
     /**
@@ -143,9 +200,10 @@ public class UserService {
 
         // Check if email is being changed and already exists
         if (email != null && !email.equals(user.getEmail())) {
-            if (userRepository.findByEmail(email).isPresent()) {
+            if (emailExists(email)) {
                 throw new IllegalArgumentException("Email already exists: " + email);
             }
+            eventPublisher.publishEvent(new UserIdentifiersChangedEvent(null, user.getEmail(), null, email));
             user.setEmail(email);
         }
 
@@ -159,7 +217,12 @@ public class UserService {
             user.setAddress(address);
         }
 
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e, user.getUsername(), email);
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         log.info("User {} profile updated successfully", userId);
     }
 
@@ -208,6 +271,7 @@ public class UserService {
 
         user.setRole(role);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         log.info("Role {} assigned to user {}", roleId, userId);
     }
 
@@ -292,6 +356,8 @@ public class UserService {
     public void deleteUser(Integer userId) {
         User user = getUserById(userId);
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserIdentifiersChangedEvent(user.getUsername(), user.getEmail(), null, null));
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         log.info("User {} deleted successfully", userId);
     }
 
@@ -302,29 +368,66 @@ public class UserService {
      * @return a list of users with the specified role
      */
     public List<User> getUsersByRole(Integer roleId) {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRole().getId().equals(roleId))
+        return userRepository.findByRoleId(roleId);
+    }
+
+    /**
+     * Retrieves a page of the users whose username, email or a word of their full name
+     * starts with the search term, ignoring case.
+     *
+     * @param searchTerm the search term, null or blank for all users
+     * @param roleId the ID of the role of the users, or null for any role
+     * @param pageable the page and sort order
+     * @return the users of the page as DTOs
+     */
+    public List<UserDto> searchUsers(String searchTerm, Integer roleId, Pageable pageable) {
+        return userRepository.search(toPrefixPattern(searchTerm), roleId, pageable).stream()
+                .map(UserDto::fromUser)
                 .toList();
     }
 
     /**
-     * Checks if a username exists in the database.
+     * Counts the users matching a search, as in {@link #searchUsers}.
+     *
+     * @param searchTerm the search term, null or blank for all users
+     * @param roleId the ID of the role of the users, or null for any role
+     * @return the number of matching users
+     */
+    public long countUsers(String searchTerm, Integer roleId) {
+        return userRepository.countSearch(toPrefixPattern(searchTerm), roleId);
+    }
+
+    // Lowercase LIKE pattern matching values starting with the term, taken literally
+    private static String toPrefixPattern(String searchTerm) {
+        if (searchTerm == null) {
+            return "%";
+        }
+        return searchTerm.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Checks if a username exists. The database is only queried when the in-memory
+     * filter of taken usernames reports a possible match.
      *
      * @param username the username to check
      * @return true if the username exists, false otherwise
      */
     public boolean usernameExists(String username) {
-        return userRepository.findByUsername(username).isPresent();
+        return userAvailabilityService.usernameMightBeTaken(username) && userRepository.existsByUsername(username);
     }
 
     /**
-     * Checks if an email exists in the database.
+     * Checks if an email exists. The database is only queried when the in-memory
+     * filter of taken emails reports a possible match.
      *
      * @param email the email to check
      * @return true if the email exists, false otherwise
      */
     public boolean emailExists(String email) {
-        return userRepository.findByEmail(email).isPresent();
+        return userAvailabilityService.emailMightBeTaken(email) && userRepository.existsByEmail(email);
     }
 
     /**
@@ -351,5 +454,17 @@ public class UserService {
         String username = authentication.getName();
         return userRepository.findByUsername(username).orElse(null);
     }
-}
 
+    // Translates a violation of the unique username or email index; any other violation is rethrown
+    private static RuntimeException translateUniqueViolation(DataIntegrityViolationException e,
+                                                             String username, String email) {
+        String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (cause != null && (cause.contains("(email)") || cause.contains("idx_email"))) {
+            return new IllegalArgumentException("Email already exists: " + email);
+        }
+        if (cause != null && (cause.contains("(username)") || cause.contains("idx_username"))) {
+            return new IllegalArgumentException("Username already exists: " + username);
+        }
+        return e;
+    }
+}
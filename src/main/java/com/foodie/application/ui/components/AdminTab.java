@@ -0,0 +1,14 @@
+package com.foodie.application.ui.components;
+
+/**
+ * Content of a tab of the admin panel. Tabs are created the first time they are
+ * selected and kept while the panel is open, so their data is loaded once and
+ * reloaded only when it changes.
+ */
+public interface AdminTab {
+
+    /**
+     * Reloads the data shown by the tab, called when it is shown again after its data changed.
+     */
+    void refresh();
+}
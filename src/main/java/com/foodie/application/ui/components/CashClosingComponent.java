@@ -31,11 +31,12 @@ import java.util.Map;
  * Component for managing cash opening and closing
  * Displays daily sales by payment method and handles cash reconciliation
  */
-public class CashClosingComponent extends VerticalLayout {
+public class CashClosingComponent extends VerticalLayout implements AdminTab {
 
     private final CashClosingService cashClosingService;
     private VerticalLayout salesLayout;
     private HorizontalLayout actionsLayout;
+    private VerticalLayout historyLayout;
     private CashClosingDto todaysCash;
 
     public CashClosingComponent(CashClosingService cashClosingService) {
@@ -87,7 +88,7 @@ public class CashClosingComponent extends VerticalLayout {
         historyTitleLayout.add(historyTitle);
         add(historyTitleLayout);
 
-        VerticalLayout historyLayout = new VerticalLayout();
+        historyLayout = new VerticalLayout();
         historyLayout.setPadding(true);
         historyLayout.setSpacing(true);
         historyLayout.addClassName(LumoUtility.Border.ALL);
@@ -99,6 +100,13 @@ public class CashClosingComponent extends VerticalLayout {
         loadHistoricalClosings(historyLayout);
     }
 
+    @Override
+    public void refresh() {
+        refreshCashStatus();
+        historyLayout.removeAll();
+        loadHistoricalClosings(historyLayout);
+    }
+
     private void loadHistoricalClosings(VerticalLayout historyLayout) {
         List<CashClosingDto> closedClosings = cashClosingService.getAllClosedCashClosings();
 
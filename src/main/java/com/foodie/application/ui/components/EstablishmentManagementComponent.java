@@ -1,6 +1,5 @@
 package com.foodie.application.ui.components;
 
-import com.foodie.application.domain.Establishment;
 import com.foodie.application.dto.EstablishmentDto;
 import com.foodie.application.service.EstablishmentService;
 import com.vaadin.flow.component.button.Button;
@@ -26,7 +25,7 @@ import java.util.Locale;
  * Component for managing establishment information.
  * Allows viewing and editing establishment details like name, description, address, phone, and hours.
  */
-public class EstablishmentManagementComponent extends VerticalLayout {
+public class EstablishmentManagementComponent extends VerticalLayout implements AdminTab {
 
     private final EstablishmentService establishmentService;
     private EstablishmentDto currentEstablishment;
@@ -57,13 +56,17 @@ public class EstablishmentManagementComponent extends VerticalLayout {
         loadEstablishment();
     }
 
+    @Override
+    public void refresh() {
+        loadEstablishment();
+    }
+
     /**
      * Loads the establishment information from the service
      */
     private void loadEstablishment() {
         try {
-            Establishment establishment = establishmentService.getEstablishment();
-            currentEstablishment = EstablishmentDto.fromEstablishment(establishment);
+            currentEstablishment = establishmentService.getEstablishment();
             displayEstablishmentInfo();
         } catch (Exception e) {
             Notification.show("Error al cargar la información del establecimiento: " + e.getMessage(),
@@ -217,19 +220,15 @@ public class EstablishmentManagementComponent extends VerticalLayout {
             }
 
             try {
-                // Update establishment
-                establishmentService.updateEstablishmentName(nameField.getValue());
-                establishmentService.updateEstablishmentDescription(descriptionField.getValue());
-                establishmentService.updateEstablishmentAddress(addressField.getValue());
-                establishmentService.updateEstablishmentPhone(phoneField.getValue());
-
-                if (openingTimeField.getValue() != null) {
-                    establishmentService.updateEstablishmentOpeningTime(openingTimeField.getValue());
-                }
-
-                if (closingTimeField.getValue() != null) {
-                    establishmentService.updateEstablishmentClosingTime(closingTimeField.getValue());
-                }
+                // Update establishment in a single transaction
+                establishmentService.updateEstablishment(EstablishmentDto.builder()
+                        .name(nameField.getValue())
+                        .description(descriptionField.getValue())
+                        .address(addressField.getValue())
+                        .phone(phoneField.getValue())
+                        .openingTime(openingTimeField.getValue())
+                        .closingTime(closingTimeField.getValue())
+                        .build());
 
                 Notification.show("Establecimiento actualizado exitosamente", 3000,
                         Notification.Position.TOP_CENTER)
@@ -1,10 +1,13 @@
 package com.foodie.application.ui.components;
 
+import com.foodie.application.domain.MenuItem;
 import com.foodie.application.dto.MenuDto;
 import com.foodie.application.dto.MenuItemDisplayDto;
 import com.foodie.application.dto.ProductDto;
+import com.foodie.application.helper.TextHelper;
 import com.foodie.application.service.MenuItemService;
 import com.foodie.application.service.MenuService;
+import com.foodie.application.service.ProductSearchService;
 import com.foodie.application.service.ProductService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
@@ -13,6 +16,9 @@ import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.grid.dataview.GridListDataView;
+import com.vaadin.flow.component.grid.dnd.GridDropLocation;
+import com.vaadin.flow.component.grid.dnd.GridDropMode;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
@@ -32,19 +38,22 @@ import java.util.List;
  * Component for managing menus and menu items.
  * Provides functionality to create, edit, delete menus, and manage menu items.
  */
-public class MenuManagementComponent extends VerticalLayout {
+public class MenuManagementComponent extends VerticalLayout implements AdminTab {
 
     private final MenuService menuService;
     private final MenuItemService menuItemService;
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
 
     private Grid<MenuDto> menusGrid;
     private List<MenuDto> allMenus = new ArrayList<>();
 
-    public MenuManagementComponent(MenuService menuService, MenuItemService menuItemService, ProductService productService) {
+    public MenuManagementComponent(MenuService menuService, MenuItemService menuItemService, ProductService productService,
+                                   ProductSearchService productSearchService) {
         this.menuService = menuService;
         this.menuItemService = menuItemService;
         this.productService = productService;
+        this.productSearchService = productSearchService;
 
         setPadding(false);
         setSpacing(true);
@@ -242,6 +251,10 @@ public class MenuManagementComponent extends VerticalLayout {
         itemsGrid.addThemeVariants(GridVariant.LUMO_COMPACT);
         itemsGrid.setSelectionMode(Grid.SelectionMode.NONE);
 
+        // Items are loaded once; each action updates the affected row instead of reloading the menu
+        GridListDataView<MenuItemDisplayDto> itemsView = loadMenuItemsInDialog(itemsGrid, menu);
+        enableReordering(itemsGrid, itemsView, menu);
+
         itemsGrid.addColumn(MenuItemDisplayDto::getProductName).setHeader("Producto").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
         itemsGrid.addColumn(MenuItemDisplayDto::getOriginalPrice).setHeader("Precio").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
         itemsGrid.addColumn(MenuItemDisplayDto::getFeatured).setHeader("Destacado").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
@@ -255,7 +268,7 @@ public class MenuManagementComponent extends VerticalLayout {
 
             Button editBtn = new Button(new Icon(VaadinIcon.EDIT));
             editBtn.addThemeVariants(ButtonVariant.LUMO_ICON, ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_CONTRAST);
-            editBtn.addClickListener(e -> openEditMenuItemDialog(menu, item, itemsGrid));
+            editBtn.addClickListener(e -> openEditMenuItemDialog(menu, item, itemsView));
 
             Button removeBtn = new Button(new Icon(VaadinIcon.TRASH));
             removeBtn.addThemeVariants(ButtonVariant.LUMO_ICON, ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_ERROR);
@@ -263,14 +276,14 @@ public class MenuManagementComponent extends VerticalLayout {
                 menuItemService.deleteMenuItem(menu.getId(), item.getProductId());
                 Notification.show("Ítem eliminado", 3000, Notification.Position.TOP_CENTER)
                         .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
-                loadMenuItemsInDialog(itemsGrid, menu);
+                itemsView.removeItem(item);
             });
 
             actions.add(editBtn, removeBtn);
             return actions;
         }).setHeader("Acciones").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
 
-        addItemBtn.addClickListener(e -> openAddMenuItemDialog(menu, itemsGrid));
+        addItemBtn.addClickListener(e -> openAddMenuItemDialog(menu, itemsView));
 
         headerLayout.add(addItemBtn);
         headerLayout.setWidthFull();
@@ -279,31 +292,66 @@ public class MenuManagementComponent extends VerticalLayout {
         content.add(itemsGrid);
         content.setFlexGrow(1, itemsGrid);
 
-        loadMenuItemsInDialog(itemsGrid, menu);
-
         dialog.add(content);
         dialog.open();
     }
 
-    private void loadMenuItemsInDialog(Grid<MenuItemDisplayDto> grid, MenuDto menu) {
-        List<MenuItemDisplayDto> items = menuService.getMenuItemsForDisplay(menu.getId());
-        grid.setItems(items);
+    private GridListDataView<MenuItemDisplayDto> loadMenuItemsInDialog(Grid<MenuItemDisplayDto> grid, MenuDto menu) {
+        List<MenuItemDisplayDto> items = new ArrayList<>(menuService.getMenuItemsForDisplay(menu.getId()));
+        GridListDataView<MenuItemDisplayDto> dataView = grid.setItems(items);
+        // A product appears once per menu, and rows are edited in place, so they are identified by product
+        dataView.setIdentifierProvider(MenuItemDisplayDto::getProductId);
+        return dataView;
     }
 
-    private void openAddMenuItemDialog(MenuDto menu, Grid<MenuItemDisplayDto> parentGrid) {
+    /**
+     * Lets the items be reordered by dragging the rows; the new order is saved with a single statement.
+     */
+    private void enableReordering(Grid<MenuItemDisplayDto> grid, GridListDataView<MenuItemDisplayDto> itemsView, MenuDto menu) {
+        List<MenuItemDisplayDto> dragged = new ArrayList<>();
+        grid.setRowsDraggable(true);
+        grid.addDragStartListener(e -> {
+            dragged.clear();
+            dragged.addAll(e.getDraggedItems());
+            grid.setDropMode(GridDropMode.BETWEEN);
+        });
+        grid.addDragEndListener(e -> grid.setDropMode(null));
+        grid.addDropListener(e -> {
+            MenuItemDisplayDto target = e.getDropTargetItem().orElse(null);
+            if (dragged.isEmpty() || target == null || dragged.contains(target)) {
+                return;
+            }
+            MenuItemDisplayDto item = dragged.getFirst();
+            itemsView.removeItem(item);
+            if (e.getDropLocation() == GridDropLocation.BELOW) {
+                itemsView.addItemAfter(item, target);
+            } else {
+                itemsView.addItemBefore(item, target);
+            }
+            menuItemService.applyChanges(menu.getId(), List.of(), List.of(),
+                    itemsView.getItems().map(MenuItemDisplayDto::getProductId).toList());
+        });
+    }
+
+    private void openAddMenuItemDialog(MenuDto menu, GridListDataView<MenuItemDisplayDto> itemsView) {
         Dialog dialog = new Dialog();
         dialog.setHeaderTitle("Agregar Ítem al Menú");
 
         VerticalLayout content = new VerticalLayout();
         content.setSpacing(true);
 
-        com.vaadin.flow.component.select.Select<ProductDto> productSelect =
-                new com.vaadin.flow.component.select.Select<>();
-        productSelect.setLabel("Producto");
+        com.vaadin.flow.component.combobox.ComboBox<ProductDto> productSelect =
+                new com.vaadin.flow.component.combobox.ComboBox<>("Producto");
+        productSelect.setPlaceholder("Buscar por nombre, ingrediente o alérgeno...");
         productSelect.setWidthFull();
 
+        // Typed text is matched with the product search index instead of the item labels
         List<ProductDto> products = productService.getAllProductsAsDto();
-        productSelect.setItems(products);
+        productSelect.setItems(query -> productSearchService
+                .filter(products, ProductDto::getId, query.getFilter().orElse(""))
+                .stream()
+                .skip(query.getOffset())
+                .limit(query.getLimit()));
         productSelect.setItemLabelGenerator(ProductDto::getName);
 
         Checkbox featuredCheckbox = new Checkbox("Producto Destacado");
@@ -322,12 +370,33 @@ public class MenuManagementComponent extends VerticalLayout {
                 return;
             }
 
-            menuItemService.addMenuItem(productSelect.getValue().getId(), menu.getId(),
-                    featuredCheckbox.getValue(), (int) discountField.getValue().doubleValue());
+            ProductDto product = productSelect.getValue();
+            int discount = (int) discountField.getValue().doubleValue();
+            MenuItem saved;
+            try {
+                saved = menuItemService.addMenuItem(product.getId(), menu.getId(), featuredCheckbox.getValue(), discount);
+            } catch (IllegalArgumentException ex) {
+                Notification.show(ex.getMessage(), 3000, Notification.Position.TOP_CENTER)
+                        .addThemeVariants(NotificationVariant.LUMO_ERROR);
+                return;
+            }
             Notification.show("Ítem agregado", 3000, Notification.Position.TOP_CENTER)
                     .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
 
-            loadMenuItemsInDialog(parentGrid, menu);
+            itemsView.addItem(MenuItemDisplayDto.builder()
+                    .id(saved.getId())
+                    .productId(product.getId())
+                    .menuId(menu.getId())
+                    .featured(saved.getFeatured())
+                    .discountPercentage(discount)
+                    .productName(product.getName())
+                    .description(product.getDescription())
+                    .originalPrice(product.getPrice())
+                    .discountedPrice(saved.getDiscountedPrice())
+                    .imageUrl(product.getImageUrl())
+                    .ingredients(product.getIngredients())
+                    .allergenNames(product.getAllergenNames())
+                    .build());
             dialog.close();
         });
         saveBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
@@ -342,7 +411,7 @@ public class MenuManagementComponent extends VerticalLayout {
         dialog.open();
     }
 
-    private void openEditMenuItemDialog(MenuDto menu, MenuItemDisplayDto menuItem, Grid<MenuItemDisplayDto> parentGrid) {
+    private void openEditMenuItemDialog(MenuDto menu, MenuItemDisplayDto menuItem, GridListDataView<MenuItemDisplayDto> itemsView) {
         Dialog dialog = new Dialog();
         dialog.setHeaderTitle("Editar Ítem del Menú");
 
@@ -369,16 +438,20 @@ public class MenuManagementComponent extends VerticalLayout {
 
         HorizontalLayout buttonLayout = new HorizontalLayout();
         Button saveBtn = new Button("Guardar", e -> {
+            int discount = (int) discountField.getValue().doubleValue();
             menuItemService.updateMenuItemByMenuAndProduct(
                     menu.getId(),
                     menuItem.getProductId(),
                     featuredCheckbox.getValue(),
-                    (int) discountField.getValue().doubleValue()
+                    discount
             );
 
             Notification.show("Ítem actualizado", 3000, Notification.Position.TOP_CENTER)
                     .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
-            loadMenuItemsInDialog(parentGrid, menu);
+            menuItem.setFeatured(featuredCheckbox.getValue());
+            menuItem.setDiscountPercentage(discount);
+            menuItem.setDiscountedPrice(MenuItem.discountedPrice(menuItem.getOriginalPrice(), discount));
+            itemsView.refreshItem(menuItem);
             dialog.close();
         });
         saveBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
@@ -393,6 +466,11 @@ public class MenuManagementComponent extends VerticalLayout {
         dialog.open();
     }
 
+    @Override
+    public void refresh() {
+        loadMenus();
+    }
+
     private void loadMenus() {
         allMenus = menuService.getMenus();
         if (menusGrid != null) {
@@ -404,8 +482,9 @@ public class MenuManagementComponent extends VerticalLayout {
         if (searchTerm == null || searchTerm.isEmpty()) {
             menusGrid.setItems(allMenus);
         } else {
+            String folded = TextHelper.fold(searchTerm);
             List<MenuDto> filteredMenus = allMenus.stream()
-                    .filter(menu -> menu.getName().toLowerCase().contains(searchTerm.toLowerCase()))
+                    .filter(menu -> TextHelper.fold(menu.getName()).contains(folded))
                     .toList();
             menusGrid.setItems(filteredMenus);
         }
@@ -0,0 +1,96 @@
+package com.foodie.application.ui.components;
+
+import com.foodie.application.dto.StatusLatencyDto;
+import com.foodie.application.service.OrderStatusHistoryService;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.icon.Icon;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.theme.lumo.LumoUtility;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Component displaying how long orders stay in each status.
+ * Shows the rolling p50/p95/p99 time-in-status computed from the status history.
+ */
+public class OrderLatencyComponent extends VerticalLayout implements AdminTab {
+
+    private final OrderStatusHistoryService orderStatusHistoryService;
+    private Grid<StatusLatencyDto> latencyGrid;
+    private Paragraph noDataMessage;
+
+    public OrderLatencyComponent(OrderStatusHistoryService orderStatusHistoryService) {
+        this.orderStatusHistoryService = orderStatusHistoryService;
+
+        setPadding(false);
+        setSpacing(true);
+        setWidthFull();
+
+        initializeComponent();
+        refresh();
+    }
+
+    private void initializeComponent() {
+        H2 title = new H2("Tiempos por Estado");
+        title.addClassNames(LumoUtility.Margin.Top.NONE);
+
+        Button refreshBtn = new Button("Actualizar", new Icon(VaadinIcon.REFRESH));
+        refreshBtn.addClickListener(e -> refresh());
+
+        HorizontalLayout titleLayout = new HorizontalLayout(title, refreshBtn);
+        titleLayout.setWidthFull();
+        titleLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.CENTER);
+        titleLayout.setAlignItems(FlexComponent.Alignment.CENTER);
+        add(titleLayout);
+
+        Paragraph description = new Paragraph("Tiempo que permanecen los pedidos en cada estado antes de pasar al siguiente (última hora).");
+        description.addClassNames(LumoUtility.TextColor.SECONDARY);
+        add(description);
+
+        latencyGrid = new Grid<>(StatusLatencyDto.class, false);
+        latencyGrid.setWidthFull();
+        latencyGrid.setAllRowsVisible(true);
+        latencyGrid.addThemeVariants(GridVariant.LUMO_COMPACT);
+        latencyGrid.addColumn(StatusLatencyDto::getStatus).setHeader("Estado").setFlexGrow(1).setTextAlign(ColumnTextAlign.CENTER);
+        latencyGrid.addColumn(StatusLatencyDto::getSampleCount).setHeader("Pedidos").setFlexGrow(1).setTextAlign(ColumnTextAlign.CENTER);
+        latencyGrid.addColumn(stat -> formatDuration(stat.getP50())).setHeader("Mediana (p50)").setFlexGrow(1).setTextAlign(ColumnTextAlign.CENTER);
+        latencyGrid.addColumn(stat -> formatDuration(stat.getP95())).setHeader("p95").setFlexGrow(1).setTextAlign(ColumnTextAlign.CENTER);
+        latencyGrid.addColumn(stat -> formatDuration(stat.getP99())).setHeader("p99").setFlexGrow(1).setTextAlign(ColumnTextAlign.CENTER);
+
+        noDataMessage = new Paragraph("Todavía no hay cambios de estado registrados en la última hora.");
+        noDataMessage.addClassNames(LumoUtility.TextColor.SECONDARY);
+
+        add(latencyGrid, noDataMessage);
+    }
+
+    /**
+     * Reloads the percentiles from the service
+     */
+    @Override
+    public void refresh() {
+        List<StatusLatencyDto> statistics = orderStatusHistoryService.getTimeInStatusStatistics();
+        latencyGrid.setItems(statistics);
+        latencyGrid.setVisible(!statistics.isEmpty());
+        noDataMessage.setVisible(statistics.isEmpty());
+    }
+
+    private static String formatDuration(Duration duration) {
+        long seconds = duration.toSeconds();
+        if (seconds < 60) {
+            return seconds + " s";
+        }
+        if (seconds < 3600) {
+            return String.format("%d min %02d s", seconds / 60, seconds % 60);
+        }
+        return String.format("%d h %02d min", seconds / 3600, (seconds % 3600) / 60);
+    }
+}
@@ -4,6 +4,7 @@ import com.foodie.application.domain.OrderStatus;
 import com.foodie.application.dto.OrderDto;
 import com.foodie.application.dto.OrderFilterDto;
 import com.foodie.application.dto.ProductListDto;
+import com.foodie.application.service.OrderExportService;
 import com.foodie.application.service.OrderService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
@@ -11,6 +12,8 @@ import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.AttachmentType;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Div;
@@ -34,14 +37,16 @@ import java.util.List;
  * and filter orders by date range and status.
  * Uses DTOs instead of domain entities for proper separation of concerns.
  */
-public class OrderManagementComponent extends VerticalLayout {
+public class OrderManagementComponent extends VerticalLayout implements AdminTab {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
     private Grid<OrderDto> ordersGrid;
     private List<OrderDto> allOrders;
 
-    public OrderManagementComponent(OrderService orderService) {
+    public OrderManagementComponent(OrderService orderService, OrderExportService orderExportService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
 
         setPadding(false);
         setSpacing(true);
@@ -98,7 +103,19 @@ public class OrderManagementComponent extends VerticalLayout {
             loadOrders();
         });
 
-        filterLayout.add(fromDatePicker, toDatePicker, statusFilter, filterBtn, clearBtn);
+        // Exportación CSV del rango y estado seleccionados (por defecto, el mes en curso)
+        Anchor exportLink = new Anchor();
+        Button exportBtn = new Button("Exportar CSV", new Icon(VaadinIcon.DOWNLOAD));
+        exportLink.add(exportBtn);
+        updateExportResource(exportLink, null, null, null);
+        fromDatePicker.addValueChangeListener(e -> updateExportResource(exportLink, e.getValue(),
+                toDatePicker.getValue(), statusFilter.getValue()));
+        toDatePicker.addValueChangeListener(e -> updateExportResource(exportLink, fromDatePicker.getValue(),
+                e.getValue(), statusFilter.getValue()));
+        statusFilter.addValueChangeListener(e -> updateExportResource(exportLink, fromDatePicker.getValue(),
+                toDatePicker.getValue(), e.getValue()));
+
+        filterLayout.add(fromDatePicker, toDatePicker, statusFilter, filterBtn, clearBtn, exportLink);
         add(filterLayout);
 
         // Orders Grid
@@ -164,6 +181,28 @@ public class OrderManagementComponent extends VerticalLayout {
         loadOrders();
     }
 
+    /**
+     * Points the export link to a CSV of the orders in the given range with the given status.
+     * Missing bounds default to the first day of the current month and today; a missing status
+     * exports every order.
+     */
+    private void updateExportResource(Anchor exportLink, LocalDate from, LocalDate to, OrderStatus status) {
+        LocalDate endDate = to != null ? to : LocalDate.now();
+        LocalDate startDate = from != null ? from : endDate.withDayOfMonth(1);
+        if (startDate.isAfter(endDate)) {
+            exportLink.setEnabled(false);
+            return;
+        }
+        exportLink.setEnabled(true);
+        String fileName = "pedidos_" + (status != null ? status.name().toLowerCase() + "_" : "")
+                + startDate + "_" + endDate + ".csv";
+        exportLink.setHref(event -> {
+            event.setFileName(fileName);
+            event.setContentType("text/csv;charset=UTF-8");
+            orderExportService.writeOrdersCsv(status, startDate, endDate, event.getOutputStream());
+        }, AttachmentType.DOWNLOAD);
+    }
+
     /**
      * Creates a status chip with color based on order status
      */
@@ -400,6 +439,11 @@ public class OrderManagementComponent extends VerticalLayout {
         dialog.open();
     }
 
+    @Override
+    public void refresh() {
+        loadOrders();
+    }
+
     /**
      * Loads all orders as DTOs
      */
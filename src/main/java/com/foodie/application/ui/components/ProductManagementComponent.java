@@ -1,9 +1,14 @@
 package com.foodie.application.ui.components;
 
 import com.foodie.application.dto.AllergenDto;
+import com.foodie.application.dto.CatalogImportResultDto;
 import com.foodie.application.dto.ProductDto;
 import com.foodie.application.service.AllergenService;
+import com.foodie.application.service.CatalogExportService;
+import com.foodie.application.service.CatalogImportService;
 import com.foodie.application.service.IngredientService;
+import com.foodie.application.service.ProductImageService;
+import com.foodie.application.service.ProductSearchService;
 import com.foodie.application.service.ProductService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
@@ -13,7 +18,10 @@ import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
 import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.AttachmentType;
 import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
@@ -23,23 +31,42 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.NumberField;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import com.vaadin.flow.server.streams.UploadHandler;
 import com.vaadin.flow.theme.lumo.LumoUtility;
+import lombok.extern.slf4j.Slf4j;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-public class ProductManagementComponent extends VerticalLayout {
+@Slf4j
+public class ProductManagementComponent extends VerticalLayout implements AdminTab {
 
     private final ProductService productService;
     private final AllergenService allergenService;
     private final IngredientService ingredientService;
+    private final ProductSearchService productSearchService;
+    private final CatalogImportService catalogImportService;
+    private final CatalogExportService catalogExportService;
+    private final ProductImageService productImageService;
 
     private Grid<ProductDto> productsGrid;
     private java.util.List<ProductDto> allProducts = new java.util.ArrayList<>();
+    // Written by the dry run checkbox on the UI thread, read by the upload handler outside the UI lock
+    private volatile boolean importDryRun = true;
 
-    public ProductManagementComponent(ProductService productService, AllergenService allergenService, IngredientService ingredientService) {
+    public ProductManagementComponent(ProductService productService, AllergenService allergenService, IngredientService ingredientService,
+                                      ProductSearchService productSearchService, CatalogImportService catalogImportService,
+                                      CatalogExportService catalogExportService, ProductImageService productImageService) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.catalogImportService = catalogImportService;
+        this.catalogExportService = catalogExportService;
+        this.productImageService = productImageService;
         this.allergenService = allergenService;
         this.ingredientService = ingredientService;
 
@@ -64,7 +91,7 @@ public class ProductManagementComponent extends VerticalLayout {
 
         // Search bar and add button
         TextField searchField = new TextField();
-        searchField.setPlaceholder("Buscar producto por nombre...");
+        searchField.setPlaceholder("Buscar por nombre, ingrediente o alérgeno...");
         searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
         searchField.setWidth("300px");
 
@@ -84,6 +111,18 @@ public class ProductManagementComponent extends VerticalLayout {
         searchLayout.add(searchField, addProductBtn, manageIngredientsBtn);
         add(searchLayout);
 
+        // Catalog import and export
+        Button importCatalogBtn = new Button("Importar Catálogo", new Icon(VaadinIcon.UPLOAD));
+        importCatalogBtn.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        importCatalogBtn.addClickListener(e -> openImportCatalogDialog());
+
+        HorizontalLayout catalogLayout = new HorizontalLayout();
+        catalogLayout.setWidthFull();
+        catalogLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.CENTER);
+        catalogLayout.setAlignItems(FlexComponent.Alignment.CENTER);
+        catalogLayout.add(importCatalogBtn, createExportLink(false), createExportLink(true));
+        add(catalogLayout);
+
         // Products Grid
         productsGrid = new Grid<>(ProductDto.class, false);
         productsGrid.setWidthFull();
@@ -312,7 +351,7 @@ public class ProductManagementComponent extends VerticalLayout {
         newIngredientLayout.add(newIngredientField, addIngredientBtn);
         newIngredientLayout.setWidthFull();
 
-        content.add(nameField, descriptionField, priceField, imageUrlField, allergenTitle, allergenList, newAllergenLayout, ingredientTitle, ingredientSelect, ingredientList, newIngredientLayout);
+        content.add(nameField, descriptionField, priceField, imageUrlField, createImageUpload(imageUrlField), allergenTitle, allergenList, newAllergenLayout, ingredientTitle, ingredientSelect, ingredientList, newIngredientLayout);
 
         HorizontalLayout buttonLayout = new HorizontalLayout();
         Button saveBtn = new Button("Guardar", e -> {
@@ -325,7 +364,8 @@ public class ProductManagementComponent extends VerticalLayout {
             // Create product with allergens and ingredients
             try {
                 productService.createProductWithAllergenNamesAndIngredients(nameField.getValue(), descriptionField.getValue(),
-                        priceField.getValue(), imageUrlField.getValue(), selectedAllergenNames, selectedIngredients);
+                        priceField.getValue(), productImageService.importLocalImage(imageUrlField.getValue()),
+                        selectedAllergenNames, selectedIngredients);
 
                 Notification.show("Producto creado exitosamente", 3000, Notification.Position.TOP_CENTER)
                         .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
@@ -554,7 +594,7 @@ public class ProductManagementComponent extends VerticalLayout {
         newIngredientLayout.add(newIngredientField, addIngredientBtn);
         newIngredientLayout.setWidthFull();
 
-        content.add(nameField, descriptionField, priceField, imageUrlField, allergenTitle, allergenList, newAllergenLayout, ingredientTitle, ingredientSelect, ingredientList, newIngredientLayout);
+        content.add(nameField, descriptionField, priceField, imageUrlField, createImageUpload(imageUrlField), allergenTitle, allergenList, newAllergenLayout, ingredientTitle, ingredientSelect, ingredientList, newIngredientLayout);
 
         HorizontalLayout buttonLayout = new HorizontalLayout();
         Button saveBtn = new Button("Guardar", e -> {
@@ -566,7 +606,8 @@ public class ProductManagementComponent extends VerticalLayout {
 
             try {
                 productService.updateProductWithAllergenNamesAndIngredients(productDto.getId(), nameField.getValue(),
-                        descriptionField.getValue(), priceField.getValue(), imageUrlField.getValue(),
+                        descriptionField.getValue(), priceField.getValue(),
+                        productImageService.importLocalImage(imageUrlField.getValue()),
                         selectedAllergenNames, selectedIngredients);
 
                 Notification.show("Producto actualizado exitosamente", 3000, Notification.Position.TOP_CENTER)
@@ -608,6 +649,11 @@ public class ProductManagementComponent extends VerticalLayout {
         dialog.open();
     }
 
+    @Override
+    public void refresh() {
+        loadProducts();
+    }
+
     private void loadProducts() {
         allProducts = productService.getAllProductsAsDto();
 
@@ -620,10 +666,151 @@ public class ProductManagementComponent extends VerticalLayout {
         if (searchTerm == null || searchTerm.isEmpty()) {
             productsGrid.setItems(allProducts);
         } else {
-            java.util.List<ProductDto> filteredProducts = allProducts.stream()
-                    .filter(product -> product.getName().toLowerCase().contains(searchTerm.toLowerCase()))
-                    .toList();
-            productsGrid.setItems(filteredProducts);
+            productsGrid.setItems(productSearchService.filter(allProducts, ProductDto::getId, searchTerm));
+        }
+    }
+
+    /**
+     * Creates an upload storing a product image, resized to the variants shown in the menu,
+     * and pointing the image URL field to it
+     */
+    private Upload createImageUpload(TextField imageUrlField) {
+        UploadHandler uploadHandler = event -> {
+            String imageUrl = null;
+            String error = null;
+            try (InputStream in = event.getInputStream()) {
+                imageUrl = productImageService.store(in);
+            } catch (Exception ex) {
+                error = ex.getMessage();
+            }
+            String storedUrl = imageUrl;
+            String storeError = error;
+            event.getUI().access(() -> {
+                if (storedUrl != null) {
+                    imageUrlField.setValue(storedUrl);
+                } else {
+                    Notification.show("Error al subir la imagen: " + storeError, 3000, Notification.Position.TOP_CENTER)
+                            .addThemeVariants(NotificationVariant.LUMO_ERROR);
+                }
+            });
+        };
+
+        Upload upload = new Upload(uploadHandler);
+        upload.setAcceptedFileTypes("image/jpeg", "image/png", "image/gif", "image/bmp");
+        upload.setMaxFiles(1);
+        upload.setWidthFull();
+        upload.setUploadButton(new Button("Subir imagen", new Icon(VaadinIcon.PICTURE)));
+        return upload;
+    }
+
+    /**
+     * Creates a link downloading the whole catalog as CSV or JSON
+     */
+    private Anchor createExportLink(boolean json) {
+        DownloadHandler download = event -> {
+            event.setFileName("catalogo_" + LocalDate.now() + (json ? ".json" : ".csv"));
+            event.setContentType(json ? "application/json" : "text/csv;charset=UTF-8");
+            if (json) {
+                catalogExportService.writeCatalogJson(event.getOutputStream());
+            } else {
+                catalogExportService.writeCatalogCsv(event.getOutputStream());
+            }
+        };
+
+        Anchor exportLink = new Anchor(download, AttachmentType.DOWNLOAD, "");
+        Button exportBtn = new Button(json ? "Exportar JSON" : "Exportar CSV", new Icon(VaadinIcon.DOWNLOAD));
+        exportBtn.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        exportLink.add(exportBtn);
+        return exportLink;
+    }
+
+    /**
+     * Opens a dialog to import a catalog file. The file is streamed to the import service
+     * while it is uploaded; by default the import is only simulated to review the changes.
+     */
+    private void openImportCatalogDialog() {
+        Dialog dialog = new Dialog();
+        dialog.setHeaderTitle("Importar Catálogo");
+        dialog.setWidth("700px");
+
+        VerticalLayout content = new VerticalLayout();
+        content.setSpacing(true);
+        content.setPadding(false);
+
+        Span help = new Span("Sube un fichero CSV o JSON con el formato de la exportación. Los productos se identifican " +
+                "por nombre: los existentes se actualizan y los nuevos se crean.");
+        help.addClassNames(LumoUtility.TextColor.SECONDARY, LumoUtility.FontSize.SMALL);
+
+        Checkbox dryRunCheckbox = new Checkbox("Simular sin guardar cambios", true);
+        importDryRun = true;
+        dryRunCheckbox.addValueChangeListener(e -> importDryRun = e.getValue());
+        VerticalLayout resultLayout = new VerticalLayout();
+        resultLayout.setPadding(false);
+        resultLayout.setSpacing(false);
+
+        UploadHandler uploadHandler = event -> {
+            boolean dryRun = importDryRun;
+            CatalogImportResultDto result = null;
+            String error = null;
+            try (InputStream in = event.getInputStream()) {
+                result = event.getFileName().toLowerCase().endsWith(".json")
+                        ? catalogImportService.importJson(in, dryRun)
+                        : catalogImportService.importCsv(in, dryRun);
+            } catch (Exception ex) {
+                log.error("Could not import catalog file {}", event.getFileName(), ex);
+                error = ex.getMessage();
+            }
+            CatalogImportResultDto importResult = result;
+            String importError = error;
+            event.getUI().access(() -> {
+                resultLayout.removeAll();
+                if (importResult == null) {
+                    Notification.show("Error al importar el catálogo: " + importError, 5000, Notification.Position.TOP_CENTER)
+                            .addThemeVariants(NotificationVariant.LUMO_ERROR);
+                    return;
+                }
+                showImportResult(resultLayout, importResult);
+                if (!importResult.isDryRun()) {
+                    loadProducts();
+                }
+            });
+        };
+
+        Upload upload = new Upload(uploadHandler);
+        upload.setAcceptedFileTypes(".csv", ".json", "text/csv", "application/json");
+        upload.setMaxFiles(1);
+        upload.setWidthFull();
+
+        content.add(help, dryRunCheckbox, upload, resultLayout);
+
+        Button closeBtn = new Button("Cerrar", e -> dialog.close());
+        dialog.add(content);
+        dialog.getFooter().add(closeBtn);
+        dialog.open();
+    }
+
+    private void showImportResult(VerticalLayout resultLayout, CatalogImportResultDto result) {
+        H3 title = new H3(result.isDryRun() ? "Vista previa (no se ha guardado nada)" : "Importación completada");
+        title.addClassNames(LumoUtility.Margin.Bottom.SMALL);
+
+        Span summary = new Span(String.format("%d productos nuevos, %d actualizados, %d sin cambios, %d menús nuevos, " +
+                        "%d entradas de menú, %d filas rechazadas",
+                result.getCreatedProducts(), result.getUpdatedProducts(), result.getUnchangedProducts(),
+                result.getCreatedMenus(), result.getMenuItems(), result.getRejectedRows()));
+
+        Grid<String> detailGrid = new Grid<>();
+        detailGrid.addThemeVariants(GridVariant.LUMO_COMPACT);
+        detailGrid.setHeight("250px");
+        detailGrid.setWidthFull();
+        detailGrid.addColumn(message -> message).setHeader("Detalle");
+        java.util.List<String> messages = new java.util.ArrayList<>(result.getErrors());
+        messages.addAll(result.getChanges());
+        detailGrid.setItems(messages);
+
+        resultLayout.add(title, summary, detailGrid);
+        if (!result.getErrors().isEmpty()) {
+            Notification.show(result.getRejectedRows() + " filas rechazadas, revisa el detalle", 4000, Notification.Position.TOP_CENTER)
+                    .addThemeVariants(NotificationVariant.LUMO_CONTRAST);
         }
     }
 
@@ -1,12 +1,20 @@
 package com.foodie.application.ui.components;
 
+import com.foodie.application.dto.BestSellerDto;
+import com.foodie.application.dto.HourlyStatisticsDto;
 import com.foodie.application.dto.SalesStatisticsDto;
+import com.foodie.application.service.BestSellerService;
+import com.foodie.application.service.OrderExportService;
 import com.foodie.application.service.OrderService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.AttachmentType;
+import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.H4;
 import com.vaadin.flow.component.html.Paragraph;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
@@ -17,6 +25,10 @@ import com.vaadin.flow.component.tabs.Tabs;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 
 import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Component for displaying sales statistics by date and product.
@@ -26,18 +38,28 @@ import java.time.LocalDate;
  * @version 1.0
  * @since 2025
  */
-public class SalesStatisticsComponent extends VerticalLayout {
+public class SalesStatisticsComponent extends VerticalLayout implements AdminTab {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final BestSellerService bestSellerService;
     private DatePicker startDatePicker;
     private DatePicker endDatePicker;
     private Grid<SalesStatisticsDto> statisticsGrid;
     private Tabs statisticsTabs;
+    private Tab dateTab;
+    private Tab productTab;
+    private Tab hourlyTab;
+    private Tab trendingTab;
     private VerticalLayout contentContainer;
     private Paragraph noDataMessage;
+    private Anchor exportLink;
 
-    public SalesStatisticsComponent(OrderService orderService) {
+    public SalesStatisticsComponent(OrderService orderService, OrderExportService orderExportService,
+                                    BestSellerService bestSellerService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.bestSellerService = bestSellerService;
 
         addClassName("sales-statistics-component");
         setPadding(true);
@@ -112,26 +134,25 @@ public class SalesStatisticsComponent extends VerticalLayout {
         searchButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         searchButton.addClickListener(event -> refreshStatistics());
 
-        dateFilterLayout.add(startDatePicker, endDatePicker, searchButton);
+        exportLink = new Anchor();
+        exportLink.add(new Button("Exportar CSV", VaadinIcon.DOWNLOAD.create()));
+
+        dateFilterLayout.add(startDatePicker, endDatePicker, searchButton, exportLink);
 
         HorizontalLayout centeredFilterLayout = new HorizontalLayout();
         centeredFilterLayout.setWidthFull();
         centeredFilterLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.CENTER);
         centeredFilterLayout.add(dateFilterLayout);
 
-        // Create tabs for switching between date and product view
-        Tab dateTab = new Tab("Por Fecha");
-        Tab productTab = new Tab("Por Producto");
+        // Create tabs for switching between date, product, hourly and trending view
+        dateTab = new Tab("Por Fecha");
+        productTab = new Tab("Por Producto");
+        hourlyTab = new Tab("Por Hora");
+        trendingTab = new Tab("Más vendidos ahora");
 
-        statisticsTabs = new Tabs(dateTab, productTab);
+        statisticsTabs = new Tabs(dateTab, productTab, hourlyTab, trendingTab);
         statisticsTabs.setWidthFull();
-        statisticsTabs.addSelectedChangeListener(event -> {
-            if (event.getSelectedTab() == dateTab) {
-                loadStatisticsByDate();
-            } else {
-                loadStatisticsByProduct();
-            }
-        });
+        statisticsTabs.addSelectedChangeListener(event -> refreshStatistics());
 
         VerticalLayout filterSection = new VerticalLayout();
         filterSection.setPadding(false);
@@ -150,6 +171,7 @@ public class SalesStatisticsComponent extends VerticalLayout {
         LocalDate endDate = endDatePicker.getValue();
 
         var statistics = orderService.getSalesStatisticsByDate(startDate, endDate);
+        updateExportResource("ventas_por_fecha", startDate, endDate, false);
 
         contentContainer.removeAll();
         if (statistics.isEmpty()) {
@@ -184,6 +206,7 @@ public class SalesStatisticsComponent extends VerticalLayout {
         LocalDate endDate = endDatePicker.getValue();
 
         var statistics = orderService.getSalesStatisticsByProduct(startDate, endDate);
+        updateExportResource("ventas_por_producto", startDate, endDate, true);
 
         contentContainer.removeAll();
         if (statistics.isEmpty()) {
@@ -211,15 +234,161 @@ public class SalesStatisticsComponent extends VerticalLayout {
         }
     }
 
+    /**
+     * Loads and displays the order intake heatmap by day of the week and hour of the day
+     */
+    private void loadHourlyHeatmap() {
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+
+        List<HourlyStatisticsDto> cells = orderService.getHourlyStatistics(startDate, endDate);
+        // There is no CSV export of this view, so the link would download the previous one
+        exportLink.setVisible(false);
+        int maxOrders = cells.stream().mapToInt(HourlyStatisticsDto::getOrderCount).max().orElse(0);
+
+        contentContainer.removeAll();
+        if (maxOrders == 0) {
+            noDataMessage = new Paragraph("No hay pedidos registrados por hora para el rango de fechas seleccionado.");
+            noDataMessage.addClassNames(LumoUtility.TextColor.SECONDARY);
+            contentContainer.add(noDataMessage);
+            return;
+        }
+
+        Locale locale = Locale.forLanguageTag("es-ES");
+        Div heatmap = new Div();
+        heatmap.setWidthFull();
+        heatmap.getStyle()
+                .set("display", "grid")
+                .set("grid-template-columns", "90px repeat(24, minmax(24px, 1fr))")
+                .set("gap", "2px")
+                .set("font-size", "12px")
+                .set("overflow-x", "auto");
+
+        // Header row with the hours
+        heatmap.add(new Div());
+        for (int hour = 0; hour < 24; hour++) {
+            Div hourLabel = new Div(String.format("%02d", hour));
+            hourLabel.getStyle().set("text-align", "center").set("color", "var(--lumo-secondary-text-color)");
+            heatmap.add(hourLabel);
+        }
+
+        for (HourlyStatisticsDto cell : cells) {
+            if (cell.getHour() == 0) {
+                Div dayLabel = new Div(cell.getDayOfWeek().getDisplayName(TextStyle.FULL, locale));
+                dayLabel.getStyle().set("font-weight", "bold").set("align-self", "center");
+                heatmap.add(dayLabel);
+            }
+
+            double intensity = (double) cell.getOrderCount() / maxOrders;
+            Div heatCell = new Div(cell.getOrderCount() > 0 ? String.valueOf(cell.getOrderCount()) : "");
+            heatCell.setTitle(String.format("%s %02d:00 - %d pedidos, %d cancelados, $%.2f",
+                    cell.getDayOfWeek().getDisplayName(TextStyle.FULL, locale), cell.getHour(),
+                    cell.getOrderCount(), cell.getCancelledCount(), cell.getRevenue()));
+            heatCell.getStyle()
+                    .set("height", "32px")
+                    .set("line-height", "32px")
+                    .set("text-align", "center")
+                    .set("border-radius", "4px")
+                    .set("color", intensity > 0.5 ? "white" : "var(--lumo-body-text-color)")
+                    .set("background-color", String.format(Locale.ROOT, "rgba(33, 150, 243, %.2f)", 0.05 + 0.95 * intensity));
+            heatmap.add(heatCell);
+        }
+
+        HourlyStatisticsDto peak = cells.stream()
+                .max(Comparator.comparingInt(HourlyStatisticsDto::getOrderCount))
+                .orElseThrow();
+        Paragraph peakInfo = new Paragraph(String.format("Hora punta: %s de %02d:00 a %02d:00 (%d pedidos)",
+                peak.getDayOfWeek().getDisplayName(TextStyle.FULL, locale), peak.getHour(),
+                (peak.getHour() + 1) % 24, peak.getOrderCount()));
+        peakInfo.addClassNames(LumoUtility.FontWeight.SEMIBOLD);
+
+        contentContainer.add(peakInfo, heatmap);
+    }
+
+    /**
+     * Loads and displays the current best sellers of the last hour, day and week.
+     * These rankings are kept in memory and do not depend on the selected dates.
+     */
+    private void loadBestSellers() {
+        exportLink.setVisible(false);
+        contentContainer.removeAll();
+
+        Paragraph description = new Paragraph("Productos más pedidos en tiempo real. Las cantidades son estimaciones y no dependen del rango de fechas.");
+        description.addClassNames(LumoUtility.TextColor.SECONDARY);
+
+        HorizontalLayout rankings = new HorizontalLayout(
+                createBestSellerRanking("Última hora", BestSellerService.Window.LAST_HOUR),
+                createBestSellerRanking("Últimas 24 horas", BestSellerService.Window.LAST_DAY),
+                createBestSellerRanking("Últimos 7 días", BestSellerService.Window.LAST_WEEK));
+        rankings.setWidthFull();
+        rankings.setSpacing(true);
+
+        contentContainer.add(description, rankings);
+    }
+
+    /**
+     * Creates the ranking of best sellers for one window
+     */
+    private VerticalLayout createBestSellerRanking(String title, BestSellerService.Window window) {
+        List<BestSellerDto> bestSellers = bestSellerService.getBestSellers(window, 10);
+
+        VerticalLayout ranking = new VerticalLayout();
+        ranking.setPadding(false);
+        ranking.setSpacing(false);
+        ranking.add(new H4(title));
+
+        if (bestSellers.isEmpty()) {
+            Paragraph empty = new Paragraph("Sin ventas en este periodo.");
+            empty.addClassNames(LumoUtility.TextColor.SECONDARY);
+            ranking.add(empty);
+        } else {
+            Grid<BestSellerDto> grid = new Grid<>(BestSellerDto.class, false);
+            grid.addColumn(BestSellerDto::getProductName).setHeader("Producto").setFlexGrow(2);
+            grid.addColumn(BestSellerDto::getQuantity).setHeader("Unidades").setFlexGrow(1)
+                    .setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
+            grid.setItems(bestSellers);
+            grid.setAllRowsVisible(true);
+            grid.setWidthFull();
+            ranking.add(grid);
+        }
+        return ranking;
+    }
+
+    /**
+     * Points the export link to a CSV of the statistics currently displayed
+     */
+    private void updateExportResource(String baseName, LocalDate startDate, LocalDate endDate, boolean byProduct) {
+        String fileName = baseName + "_" + startDate + "_" + endDate + ".csv";
+        exportLink.setHref(event -> {
+            event.setFileName(fileName);
+            event.setContentType("text/csv;charset=UTF-8");
+            if (byProduct) {
+                orderExportService.writeSalesStatisticsByProductCsv(startDate, endDate, event.getOutputStream());
+            } else {
+                orderExportService.writeSalesStatisticsByDateCsv(startDate, endDate, event.getOutputStream());
+            }
+        }, AttachmentType.DOWNLOAD);
+        exportLink.setVisible(true);
+    }
+
+    @Override
+    public void refresh() {
+        refreshStatistics();
+    }
+
     /**
      * Refreshes the current statistics view
      */
     private void refreshStatistics() {
         Tab selectedTab = statisticsTabs.getSelectedTab();
-        if (selectedTab != null && selectedTab.getLabel().equals("Por Fecha")) {
-            loadStatisticsByDate();
-        } else {
+        if (selectedTab == productTab) {
             loadStatisticsByProduct();
+        } else if (selectedTab == hourlyTab) {
+            loadHourlyHeatmap();
+        } else if (selectedTab == trendingTab) {
+            loadBestSellers();
+        } else {
+            loadStatisticsByDate();
         }
     }
 }
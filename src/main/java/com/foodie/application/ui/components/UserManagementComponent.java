@@ -1,9 +1,12 @@
 package com.foodie.application.ui.components;
 
+import com.foodie.application.domain.Role;
 import com.foodie.application.dto.UserDto;
+import com.foodie.application.service.RoleService;
 import com.foodie.application.service.UserService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
@@ -17,22 +20,26 @@ import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 
-import java.util.stream.Collectors;
-
 /**
  * Component for managing users.
  * Provides functionality to view, edit, and delete users using DTOs.
+ * Users are searched and paged in the database, so only the rows being displayed are loaded.
  */
-public class UserManagementComponent extends VerticalLayout {
+public class UserManagementComponent extends VerticalLayout implements AdminTab {
 
     private final UserService userService;
+    private final RoleService roleService;
     private Grid<UserDto> usersGrid;
-    private java.util.List<UserDto> allUsers = new java.util.ArrayList<>();
+    private TextField searchField;
+    private ComboBox<Role> roleFilter;
 
-    public UserManagementComponent(UserService userService) {
+    public UserManagementComponent(UserService userService, RoleService roleService) {
         this.userService = userService;
+        this.roleService = roleService;
 
         setPadding(false);
         setSpacing(true);
@@ -54,15 +61,23 @@ public class UserManagementComponent extends VerticalLayout {
         add(titleLayout);
 
         // Search bar
-        TextField searchField = new TextField();
+        searchField = new TextField();
         searchField.setPlaceholder("Buscar usuario por nombre o email...");
         searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
         searchField.setWidth("300px");
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.setClearButtonVisible(true);
+
+        roleFilter = new ComboBox<>();
+        roleFilter.setPlaceholder("Todos los roles");
+        roleFilter.setItems(roleService.getAllRoles());
+        roleFilter.setItemLabelGenerator(Role::getName);
+        roleFilter.setClearButtonVisible(true);
 
         HorizontalLayout searchLayout = new HorizontalLayout();
         searchLayout.setWidthFull();
         searchLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.CENTER);
-        searchLayout.add(searchField);
+        searchLayout.add(searchField, roleFilter);
         add(searchLayout);
 
         // Users Grid
@@ -72,13 +87,14 @@ public class UserManagementComponent extends VerticalLayout {
         usersGrid.addThemeVariants(GridVariant.LUMO_COMPACT);
         usersGrid.setSelectionMode(Grid.SelectionMode.NONE);
 
-        searchField.addValueChangeListener(e -> filterUsers(e.getValue()));
+        searchField.addValueChangeListener(e -> loadUsers());
+        roleFilter.addValueChangeListener(e -> loadUsers());
 
-        usersGrid.addColumn(UserDto::getId).setHeader("ID").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
-        usersGrid.addColumn(UserDto::getUsername).setHeader("Usuario").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
-        usersGrid.addColumn(UserDto::getEmail).setHeader("Email").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
-        usersGrid.addColumn(UserDto::getFullName).setHeader("Nombre Completo").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
-        usersGrid.addColumn(UserDto::getRoleName).setHeader("Rol").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
+        usersGrid.addColumn(UserDto::getId).setHeader("ID").setSortProperty("id").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
+        usersGrid.addColumn(UserDto::getUsername).setHeader("Usuario").setSortProperty("username").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
+        usersGrid.addColumn(UserDto::getEmail).setHeader("Email").setSortProperty("email").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
+        usersGrid.addColumn(UserDto::getFullName).setHeader("Nombre Completo").setSortProperty("fullName").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
+        usersGrid.addColumn(UserDto::getRoleName).setHeader("Rol").setSortProperty("role.name").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
         usersGrid.addColumn(UserDto::getPhoneNumber).setHeader("Teléfono").setFlexGrow(1).setTextAlign(com.vaadin.flow.component.grid.ColumnTextAlign.CENTER);
 
         usersGrid.addComponentColumn(userDto -> {
@@ -242,33 +258,20 @@ public class UserManagementComponent extends VerticalLayout {
         return layout;
     }
 
-    /**
-     * Loads all users and converts them to DTOs
-     */
-    private void loadUsers() {
-        var users = userService.getAllUsers();
-        allUsers = users.stream()
-                .map(UserDto::fromUser)
-                .collect(Collectors.toList());
-
-        if (usersGrid != null) {
-            usersGrid.setItems(allUsers);
-        }
+    @Override
+    public void refresh() {
+        loadUsers();
     }
 
     /**
-     * Filters users based on username or email search term
+     * Binds the grid to a lazy data provider running the search and count queries in the
+     * database for the current search term and role, a page at a time
      */
-    private void filterUsers(String searchTerm) {
-        if (searchTerm == null || searchTerm.isEmpty()) {
-            usersGrid.setItems(allUsers);
-        } else {
-            java.util.List<UserDto> filteredUsers = allUsers.stream()
-                    .filter(user -> user.getUsername().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                                    user.getEmail().toLowerCase().contains(searchTerm.toLowerCase()))
-                    .collect(Collectors.toList());
-            usersGrid.setItems(filteredUsers);
-        }
+    private void loadUsers() {
+        String searchTerm = searchField.getValue();
+        Integer roleId = roleFilter.getValue() != null ? roleFilter.getValue().getId() : null;
+        usersGrid.setItems(
+                query -> userService.searchUsers(searchTerm, roleId, VaadinSpringDataHelpers.toSpringPageRequest(query)).stream(),
+                query -> (int) userService.countUsers(searchTerm, roleId));
     }
 }
-
@@ -1,22 +1,36 @@
 package com.foodie.application.ui.views;
 
 import com.foodie.application.service.AllergenService;
+import com.foodie.application.service.BestSellerService;
+import com.foodie.application.service.CatalogExportService;
+import com.foodie.application.service.CatalogImportService;
 import com.foodie.application.service.CashClosingService;
+import com.foodie.application.service.DataVersionService;
+import com.foodie.application.service.DataVersionService.Topic;
 import com.foodie.application.service.EstablishmentService;
 import com.foodie.application.service.IngredientService;
 import com.foodie.application.service.MenuItemService;
 import com.foodie.application.service.MenuService;
+import com.foodie.application.service.OrderExportService;
 import com.foodie.application.service.OrderService;
+import com.foodie.application.service.OrderStatusHistoryService;
+import com.foodie.application.service.ProductImageService;
+import com.foodie.application.service.ProductSearchService;
 import com.foodie.application.service.ProductService;
+import com.foodie.application.service.RoleService;
 import com.foodie.application.service.UserService;
 import com.foodie.application.ui.MainLayout;
+import com.foodie.application.ui.components.AdminTab;
 import com.foodie.application.ui.components.CashClosingComponent;
 import com.foodie.application.ui.components.EstablishmentManagementComponent;
 import com.foodie.application.ui.components.MenuManagementComponent;
+import com.foodie.application.ui.components.OrderLatencyComponent;
 import com.foodie.application.ui.components.OrderManagementComponent;
 import com.foodie.application.ui.components.ProductManagementComponent;
 import com.foodie.application.ui.components.SalesStatisticsComponent;
 import com.foodie.application.ui.components.UserManagementComponent;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.html.H1;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.Icon;
@@ -28,12 +42,23 @@ import com.vaadin.flow.component.tabs.Tab;
 import com.vaadin.flow.component.tabs.Tabs;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.spring.annotation.SpringComponent;
+import com.vaadin.flow.spring.annotation.UIScope;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import jakarta.annotation.security.RolesAllowed;
+import lombok.RequiredArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Admin Panel View for managing menus, products, and orders.
  * This view provides a tabbed interface to manage different aspects of the application.
+ * The view is kept for the whole UI and each tab is built on its first selection, so
+ * opening the panel only loads the default tab and switching back to a tab reuses it,
+ * reloading its data only if a change event was published since it was last shown.
  *
  * @author Foodie Admin Team
  * @version 2.0
@@ -42,24 +67,41 @@ import jakarta.annotation.security.RolesAllowed;
 @Route(value = "admin", layout = MainLayout.class)
 @PageTitle("Panel de Administración | Foodie")
 @RolesAllowed("ROLE_ADMIN")
+@SpringComponent
+@UIScope
 public class AdminPanelView extends VerticalLayout {
 
     private final MenuService menuService;
     private final MenuItemService menuItemService;
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final CatalogImportService catalogImportService;
+    private final CatalogExportService catalogExportService;
+    private final ProductImageService productImageService;
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderStatusHistoryService orderStatusHistoryService;
+    private final BestSellerService bestSellerService;
     private final AllergenService allergenService;
     private final IngredientService ingredientService;
     private final UserService userService;
+    private final RoleService roleService;
     private final CashClosingService cashClosingService;
     private final EstablishmentService establishmentService;
+    private final DataVersionService dataVersionService;
 
+    private final Map<Tab, TabContent> tabContents = new HashMap<>();
     private VerticalLayout contentContainer;
+    private Tabs tabs;
 
     public AdminPanelView(MenuService menuService, MenuItemService menuItemService,
                          ProductService productService, OrderService orderService, AllergenService allergenService,
                          IngredientService ingredientService, UserService userService, CashClosingService cashClosingService,
-                         EstablishmentService establishmentService) {
+                         EstablishmentService establishmentService, OrderExportService orderExportService,
+                         OrderStatusHistoryService orderStatusHistoryService, BestSellerService bestSellerService,
+                         ProductSearchService productSearchService, CatalogImportService catalogImportService,
+                         CatalogExportService catalogExportService, ProductImageService productImageService,
+                         DataVersionService dataVersionService, RoleService roleService) {
         this.menuService = menuService;
         this.menuItemService = menuItemService;
         this.productService = productService;
@@ -69,6 +111,15 @@ public class AdminPanelView extends VerticalLayout {
         this.userService = userService;
         this.cashClosingService = cashClosingService;
         this.establishmentService = establishmentService;
+        this.orderExportService = orderExportService;
+        this.orderStatusHistoryService = orderStatusHistoryService;
+        this.bestSellerService = bestSellerService;
+        this.productSearchService = productSearchService;
+        this.catalogImportService = catalogImportService;
+        this.catalogExportService = catalogExportService;
+        this.productImageService = productImageService;
+        this.dataVersionService = dataVersionService;
+        this.roleService = roleService;
 
         addClassName("admin-panel-view");
         setSizeFull();
@@ -85,9 +136,15 @@ public class AdminPanelView extends VerticalLayout {
         contentContainer.setWidthFull();
         contentContainer.setFlexGrow(1, contentContainer);
         add(contentContainer);
+    }
 
-        // Show initial tab (Menus)
-        showMenusTab();
+    /**
+     * Shows the selected tab, initially Menus, every time the view is navigated to
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        showTab(tabs.getSelectedTab());
     }
 
     /**
@@ -106,28 +163,32 @@ public class AdminPanelView extends VerticalLayout {
      * Creates the tabs navigation for switching between sections
      */
     private HorizontalLayout createTabNavigation() {
-        Tab menusTab = new Tab();
-        menusTab.add(new Icon(VaadinIcon.SPOON), new Span("Menús"));
+        Tab menusTab = addTab(VaadinIcon.SPOON, "Menús", Set.of(Topic.MENUS),
+                () -> new MenuManagementComponent(menuService, menuItemService, productService, productSearchService));
 
-        Tab productsTab = new Tab();
-        productsTab.add(new Icon(VaadinIcon.PACKAGE), new Span("Productos"));
+        Tab productsTab = addTab(VaadinIcon.PACKAGE, "Productos", Set.of(Topic.PRODUCTS),
+                () -> new ProductManagementComponent(productService, allergenService, ingredientService,
+                        productSearchService, catalogImportService, catalogExportService, productImageService));
 
-        Tab usersTab = new Tab();
-        usersTab.add(new Icon(VaadinIcon.USERS), new Span("Usuarios"));
+        Tab usersTab = addTab(VaadinIcon.USERS, "Usuarios", Set.of(Topic.USERS),
+                () -> new UserManagementComponent(userService, roleService));
 
-        Tab ordersTab = new Tab();
-        ordersTab.add(new Icon(VaadinIcon.CART), new Span("Pedidos"));
+        Tab ordersTab = addTab(VaadinIcon.CART, "Pedidos", Set.of(Topic.ORDERS),
+                () -> new OrderManagementComponent(orderService, orderExportService));
 
-        Tab statisticsTab = new Tab();
-        statisticsTab.add(new Icon(VaadinIcon.BAR_CHART), new Span("Estadísticas"));
+        Tab statisticsTab = addTab(VaadinIcon.BAR_CHART, "Estadísticas", Set.of(Topic.ORDERS),
+                () -> new SalesStatisticsComponent(orderService, orderExportService, bestSellerService));
 
-        Tab cashClosingTab = new Tab();
-        cashClosingTab.add(new Icon(VaadinIcon.WALLET), new Span("Control de Caja"));
+        Tab latencyTab = addTab(VaadinIcon.TIMER, "Tiempos", Set.of(Topic.ORDERS),
+                () -> new OrderLatencyComponent(orderStatusHistoryService));
 
-        Tab establishmentTab = new Tab();
-        establishmentTab.add(new Icon(VaadinIcon.BUILDING), new Span("Establecimiento"));
+        Tab cashClosingTab = addTab(VaadinIcon.WALLET, "Control de Caja", Set.of(Topic.ORDERS, Topic.CASH_CLOSINGS),
+                () -> new CashClosingComponent(cashClosingService));
 
-        Tabs tabs = new Tabs(menusTab, productsTab, usersTab, ordersTab, statisticsTab, cashClosingTab, establishmentTab);
+        Tab establishmentTab = addTab(VaadinIcon.BUILDING, "Establecimiento", Set.of(Topic.ESTABLISHMENT),
+                () -> new EstablishmentManagementComponent(establishmentService));
+
+        tabs = new Tabs(menusTab, productsTab, usersTab, ordersTab, statisticsTab, latencyTab, cashClosingTab, establishmentTab);
         tabs.addClassNames(
                 LumoUtility.BorderRadius.MEDIUM,
                 LumoUtility.Background.BASE,
@@ -139,90 +200,51 @@ public class AdminPanelView extends VerticalLayout {
         tabsWrapper.setWidthFull();
         tabsWrapper.setJustifyContentMode(FlexComponent.JustifyContentMode.CENTER);
 
-        tabs.addSelectedChangeListener(event -> {
-            Tab selectedTab = event.getSelectedTab();
-            if (selectedTab == menusTab) {
-                showMenusTab();
-            } else if (selectedTab == productsTab) {
-                showProductsTab();
-            } else if (selectedTab == usersTab) {
-                showUsersTab();
-            } else if (selectedTab == ordersTab) {
-                showOrdersTab();
-            } else if (selectedTab == statisticsTab) {
-                showStatisticsTab();
-            } else if (selectedTab == cashClosingTab) {
-                showCashClosingTab();
-            } else if (selectedTab == establishmentTab) {
-                showEstablishmentTab();
-            }
-        });
+        tabs.addSelectedChangeListener(event -> showTab(event.getSelectedTab()));
 
         return tabsWrapper;
 
     }
 
     /**
-     * Displays the menus management tab
+     * Creates a tab whose content is built by the factory the first time the tab is selected
+     *
+     * @param topics the data shown by the tab, reloaded when it changes
      */
-    private void showMenusTab() {
-        contentContainer.removeAll();
-        MenuManagementComponent menuComponent = new MenuManagementComponent(menuService, menuItemService, productService);
-        contentContainer.add(menuComponent);
+    private Tab addTab(VaadinIcon icon, String label, Set<Topic> topics, Supplier<? extends Component> factory) {
+        Tab tab = new Tab();
+        tab.add(new Icon(icon), new Span(label));
+        tabContents.put(tab, new TabContent(factory, topics));
+        return tab;
     }
 
     /**
-     * Displays the products management tab
+     * Shows the content of a tab, creating it on the first visit and refreshing it
+     * only when its data changed since it was last shown
      */
-    private void showProductsTab() {
-        contentContainer.removeAll();
-        ProductManagementComponent productComponent = new ProductManagementComponent(productService, allergenService, ingredientService);
-        contentContainer.add(productComponent);
-    }
+    private void showTab(Tab tab) {
+        TabContent tabContent = tabContents.get(tab);
+        // Read before loading, so changes made while loading are picked up next time
+        long version = dataVersionService.getVersion(tabContent.topics);
+        if (tabContent.component == null) {
+            tabContent.component = tabContent.factory.get();
+        } else if (version != tabContent.loadedVersion && tabContent.component instanceof AdminTab adminTab) {
+            adminTab.refresh();
+        }
+        tabContent.loadedVersion = version;
 
-    /**
-     * Displays the users management tab
-     */
-    private void showUsersTab() {
         contentContainer.removeAll();
-        UserManagementComponent userComponent = new UserManagementComponent(userService);
-        contentContainer.add(userComponent);
+        contentContainer.add(tabContent.component);
     }
 
     /**
-     * Displays the orders management tab
+     * Content of a tab, created lazily and kept while the view lives
      */
-    private void showOrdersTab() {
-        contentContainer.removeAll();
-        OrderManagementComponent orderComponent = new OrderManagementComponent(orderService);
-        contentContainer.add(orderComponent);
-    }
-
-    /**
-     * Displays the sales statistics tab
-     */
-    private void showStatisticsTab() {
-        contentContainer.removeAll();
-        SalesStatisticsComponent statisticsComponent = new SalesStatisticsComponent(orderService);
-        contentContainer.add(statisticsComponent);
-    }
-
-    /**
-     * Displays the cash closing tab
-     */
-    private void showCashClosingTab() {
-        contentContainer.removeAll();
-        CashClosingComponent cashClosingComponent = new CashClosingComponent(cashClosingService);
-        contentContainer.add(cashClosingComponent);
-    }
-
-    /**
-     * Displays the establishment management tab
-     */
-    private void showEstablishmentTab() {
-        contentContainer.removeAll();
-        EstablishmentManagementComponent establishmentComponent = new EstablishmentManagementComponent(establishmentService);
-        contentContainer.add(establishmentComponent);
+    @RequiredArgsConstructor
+    private static final class TabContent {
+        private final Supplier<? extends Component> factory;
+        private final Set<Topic> topics;
+        private Component component;
+        private long loadedVersion;
     }
 }
-
@@ -3,6 +3,8 @@ package com.foodie.application.ui.views;
 import com.foodie.application.domain.PaymentMethod;
 import com.foodie.application.domain.ProductList;
 import com.foodie.application.service.CartService;
+import com.foodie.application.service.OrderAdmissionService;
+import com.foodie.application.service.OrderIntakeService;
 import com.foodie.application.service.OrderService;
 import com.foodie.application.service.UserService;
 import com.foodie.application.ui.MainLayout;
@@ -26,7 +28,9 @@ import com.vaadin.flow.router.*;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import jakarta.annotation.security.RolesAllowed;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Modern checkout view for completing customer orders.
@@ -44,6 +48,11 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
     private final CartService cartService;
     private final OrderService orderService;
     private final UserService userService;
+    private final OrderAdmissionService orderAdmissionService;
+    private final OrderIntakeService orderIntakeService;
+
+    // Key of the current checkout attempt, so a replayed submission does not place the order twice
+    private String checkoutKey = UUID.randomUUID().toString();
 
     private Grid<ProductList> cartGrid;
     private Div totalPriceDiv;
@@ -61,10 +70,13 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
     private Span subtotalValue;
     private Span totalValue;
 
-    public CheckoutView(CartService cartService, OrderService orderService, UserService userService) {
+    public CheckoutView(CartService cartService, OrderService orderService, UserService userService,
+                        OrderAdmissionService orderAdmissionService, OrderIntakeService orderIntakeService) {
         this.cartService = cartService;
         this.orderService = orderService;
         this.userService = userService;
+        this.orderAdmissionService = orderAdmissionService;
+        this.orderIntakeService = orderIntakeService;
 
         addClassName("checkout-view");
         setSizeFull();
@@ -322,6 +334,8 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
             return;
         }
 
+        // Show the current prices, not the ones the products had when added to the cart
+        cartService.refreshPrices();
         refreshCart();
     }
 
@@ -384,6 +398,19 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
             return;
         }
 
+        // Orders are only accepted during opening hours and while the kitchen has room
+        OrderAdmissionService.Decision admission = orderAdmissionService.check();
+        if (!admission.isAdmitted()) {
+            showRefusal(admission);
+            return;
+        }
+
+        if (cartService.refreshPrices()) {
+            refreshCart();
+            Notification.show("Los precios de tu carrito se han actualizado")
+                    .addThemeVariants(NotificationVariant.LUMO_CONTRAST);
+        }
+
         List<ProductList> cart = cartService.getCart();
         if (cart == null || cart.isEmpty()) {
             Notification.show("Tu carrito está vacío")
@@ -400,15 +427,32 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
         ConfirmDialog dialog = new ConfirmDialog();
         dialog.setHeader("Confirmar Pedido");
         dialog.setText(String.format(
-                "¿Confirmas tu pedido por %.2f €?\n\nEntrega: %s",
+                "¿Confirmas tu pedido por %.2f €?\n\nEntrega: %s%s",
                 totalAmount,
-                addressField.getValue()
+                addressField.getValue(),
+                admission.outcome() == OrderAdmissionService.Outcome.QUEUED
+                        ? "\n\nLa cocina está ocupada, tiempo de espera estimado: " + formatWait(admission.quotedWait())
+                        : ""
         ));
         dialog.setConfirmText("Confirmar");
         dialog.setCancelText("Cancelar");
 
         dialog.addConfirmListener(e -> {
-            try {
+            String attemptKey = checkoutKey;
+            // A replayed submission of an attempt already placed needs no admission
+            Integer placedOrderId = orderService.findOrderIdByIdempotencyKey(attemptKey).orElse(null);
+            if (placedOrderId != null) {
+                onOrderPlaced(placedOrderId, "");
+                return;
+            }
+
+            try (OrderAdmissionService.Admission checkout = orderAdmissionService.tryAdmit()) {
+                OrderAdmissionService.Decision decision = checkout.getDecision();
+                if (!decision.isAdmitted()) {
+                    showRefusal(decision);
+                    return;
+                }
+
                 // Get current user
                 var currentUser = userService.getCurrentUser();
                 if (currentUser == null) {
@@ -418,8 +462,9 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
                     return;
                 }
 
-                // Create order
-                Integer orderId = orderService.addOrder(
+                // Create order, once per checkout attempt; no ID yet if it was journaled
+                Integer orderId = orderIntakeService.submit(
+                        attemptKey,
                         currentUser.getId(),
                         cart.stream()
                                 .map(item -> new com.foodie.application.dto.ProductListDto(
@@ -432,21 +477,11 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
                         paymentMethodCombo.getValue().toString(),
                         addressField.getValue(),
                         notesField.getValue()
-                );
-
-                // Clear cart
-                cartService.clearCart();
+                ).orElse(null);
 
-                // Show success message
-                Notification success = Notification.show(
-                        "¡Pedido completado exitosamente! Tu número de pedido es: #" + orderId,
-                        5000,
-                        Notification.Position.MIDDLE
-                );
-                success.addThemeVariants(NotificationVariant.LUMO_SUCCESS);
-
-                // Redirect to order confirmation
-                getUI().ifPresent(ui -> ui.navigate("myorders"));
+                onOrderPlaced(orderId, decision.outcome() == OrderAdmissionService.Outcome.QUEUED
+                        ? ". Tiempo de espera estimado: " + formatWait(decision.quotedWait())
+                        : "");
 
             } catch (Exception ex) {
                 Notification.show("Error al procesar el pedido: " + ex.getMessage())
@@ -456,5 +491,49 @@ public class CheckoutView extends VerticalLayout implements BeforeEnterObserver
 
         dialog.open();
     }
-}
 
+    /**
+     * Clears the cart, starts a new checkout attempt and shows the placed order,
+     * whose ID is null while it is being written
+     */
+    private void onOrderPlaced(Integer orderId, String waitText) {
+        // Clear cart
+        cartService.clearCart();
+        checkoutKey = UUID.randomUUID().toString();
+
+        // Show success message
+        Notification success = Notification.show(
+                (orderId != null
+                        ? "¡Pedido completado exitosamente! Tu número de pedido es: #" + orderId
+                        : "¡Pedido recibido! Aparecerá en tus pedidos en unos instantes") + waitText,
+                5000,
+                Notification.Position.MIDDLE
+        );
+        success.addThemeVariants(NotificationVariant.LUMO_SUCCESS);
+
+        // Redirect to order confirmation
+        getUI().ifPresent(ui -> ui.navigate("myorders"));
+    }
+
+    /**
+     * Tells the customer why the order cannot be placed now
+     */
+    private void showRefusal(OrderAdmissionService.Decision decision) {
+        String message = decision.outcome() == OrderAdmissionService.Outcome.CLOSED
+                ? "El establecimiento está cerrado en este momento. Inténtalo dentro del horario de apertura"
+                : "La cocina está saturada en este momento. Inténtalo de nuevo en " + formatWait(decision.quotedWait());
+        Notification.show(message, 5000, Notification.Position.MIDDLE)
+                .addThemeVariants(NotificationVariant.LUMO_WARNING);
+    }
+
+    /**
+     * Formats a wait time in minutes for the customer
+     */
+    private static String formatWait(Duration wait) {
+        long minutes = (wait.toSeconds() + 59) / 60;
+        if (minutes <= 1) {
+            return wait.toSeconds() < 60 ? "unos segundos" : "1 minuto";
+        }
+        return minutes + " minutos";
+    }
+}
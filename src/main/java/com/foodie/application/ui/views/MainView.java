@@ -1,7 +1,10 @@
 package com.foodie.application.ui.views;
 
+import com.foodie.application.dto.EstablishmentDto;
 import com.foodie.application.service.EstablishmentService;
 import com.foodie.application.service.UserService;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.applayout.AppLayout;
 import com.vaadin.flow.component.applayout.DrawerToggle;
@@ -23,6 +26,7 @@ import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouterLink;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
+import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 
 @Route("/")
@@ -32,6 +36,9 @@ public class MainView extends HorizontalLayout implements BeforeEnterObserver {
 
     private final EstablishmentService establishmentService;
     private final UserService userService;
+    private final Paragraph address = new Paragraph();
+    private final Paragraph phone = new Paragraph();
+    private Registration settingsRegistration;
 
     public MainView(EstablishmentService establishmentService, UserService userService) {
         this.establishmentService = establishmentService;
@@ -54,6 +61,26 @@ public class MainView extends HorizontalLayout implements BeforeEnterObserver {
         event.forwardTo("");
     }
 
+    /**
+     * Keeps the contact information up to date while the view is open
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        UI ui = attachEvent.getUI();
+        settingsRegistration = establishmentService.addSettingsListener(settings ->
+                ui.access(() -> showContactInformation(settings)));
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        super.onDetach(detachEvent);
+        if (settingsRegistration != null) {
+            settingsRegistration.remove();
+            settingsRegistration = null;
+        }
+    }
+
     private VerticalLayout createLandingPage() {
         // Hero Section
         VerticalLayout heroSection = new VerticalLayout();
@@ -217,21 +244,15 @@ public class MainView extends HorizontalLayout implements BeforeEnterObserver {
         );
 
         // Get establishment data with default values if not found
-        String addressText = "Dirección no disponible";
-        String phoneText = "Teléfono no disponible";
-
+        EstablishmentDto establishment = null;
         try {
-            var establishment = establishmentService.getEstablishment();
-            addressText = establishment.getAddress() != null ? establishment.getAddress() : addressText;
-            phoneText = establishment.getPhone() != null ? establishment.getPhone() : phoneText;
+            establishment = establishmentService.getEstablishment();
         } catch (Exception e) {
             // Use default values if establishment not found
         }
+        showContactInformation(establishment);
 
-        Paragraph address = new Paragraph("📍 " + addressText);
         address.addClassNames(LumoUtility.TextAlignment.CENTER);
-
-        Paragraph phone = new Paragraph("☎️ " + phoneText);
         phone.addClassNames(LumoUtility.TextAlignment.CENTER);
 
         footerSection.add(footerTitle, address, phone);
@@ -323,4 +344,16 @@ public class MainView extends HorizontalLayout implements BeforeEnterObserver {
         card.add(benefitIcon, benefitTitle, benefitDescription);
         return card;
     }
-}
\ No newline at end of file
+
+    /**
+     * Shows the address and phone of the establishment, or default texts if not available
+     */
+    private void showContactInformation(EstablishmentDto establishment) {
+        String addressText = establishment != null && establishment.getAddress() != null
+                ? establishment.getAddress() : "Dirección no disponible";
+        String phoneText = establishment != null && establishment.getPhone() != null
+                ? establishment.getPhone() : "Teléfono no disponible";
+        address.setText("📍 " + addressText);
+        phone.setText("☎️ " + phoneText);
+    }
+}
@@ -1,10 +1,15 @@
 package com.foodie.application.ui.views;
 
+import com.foodie.application.domain.User;
+import com.foodie.application.dto.BestSellerDto;
 import com.foodie.application.dto.MenuDto;
 import com.foodie.application.dto.MenuItemDisplayDto;
+import com.foodie.application.helper.AllergenIndex;
 import com.foodie.application.ui.MainLayout;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.combobox.MultiSelectComboBox;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.html.*;
 import com.vaadin.flow.component.icon.Icon;
@@ -13,28 +18,143 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.FlexLayout;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.renderer.LitRenderer;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 
 
+import com.foodie.application.service.AllergenService;
+import com.foodie.application.service.BestSellerService;
 import com.foodie.application.service.MenuService;
+import com.foodie.application.service.ProductImageService;
+import com.foodie.application.service.ProductSearchService;
 import com.foodie.application.service.CartService;
+import com.foodie.application.service.UserService;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 import jakarta.annotation.security.RolesAllowed;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Menu page listing the products of every menu.
+ * <p>
+ * Products are not built as server-side components: the menu is a {@link VirtualList}
+ * of rows (menu titles, the trending strip and groups of product cards) drawn in the
+ * browser by a single shared {@link LitRenderer} template, and only the rows near the
+ * viewport are rendered. The session keeps the product data, not a component tree per
+ * card, so memory and first paint do not grow with the size of the catalog.
+ * </p>
+ */
 @PageTitle("Menu")
 @RolesAllowed({"ROLE_USER", "ROLE_ADMIN"})
 @Route(value = "foodmenu", layout = MainLayout.class)
 public class MenuView extends HorizontalLayout {
 
+    private static final int CARDS_PER_ROW = 3;
+
+    // Shared template of every row; cards call back the server by their index in the row
+    private static final String ROW_TEMPLATE = """
+            ${item.kind === 'HEADER' ? html`
+              <h2 style="text-align: center; font-size: 50px; margin: 60px 0 var(--lumo-space-l)">${item.title}</h2>`
+            : item.kind === 'TRENDING' ? html`
+              <div style="text-align: center; margin-bottom: 40px">
+                <h3 style="margin-bottom: var(--lumo-space-s)">${item.title}</h3>
+                <div style="display: flex; flex-wrap: wrap; justify-content: center; gap: var(--lumo-space-m)">
+                  ${item.cards.map(card => html`
+                    <div style="width: 160px; box-sizing: border-box; padding: var(--lumo-space-m); display: flex;
+                                flex-direction: column; align-items: center; box-shadow: 0 2px 6px rgba(0,0,0,0.1);
+                                border-radius: 8px; cursor: pointer"
+                         @click=${() => openDetails(card.index)}>
+                      <img src=${card.image} alt=${card.name} loading="lazy"
+                           style="width: 120px; height: 120px; object-fit: cover; border-radius: 8px">
+                      <span style="font-weight: bold; text-align: center">${card.name}</span>
+                    </div>`)}
+                </div>
+              </div>`
+            : html`
+              <div class="menu-grid" style="display: flex; flex-wrap: wrap; justify-content: center;
+                                            gap: var(--lumo-space-m); padding-bottom: var(--lumo-space-m)">
+                ${item.cards.map(card => html`
+                  <div class="product-card" style="max-width: 400px; box-shadow: 0 2px 6px rgba(0,0,0,0.1);
+                                                   position: relative; cursor: pointer"
+                       @click=${() => openDetails(card.index)}>
+                    ${card.featured ? html`
+                      <div style="position: absolute; top: 10px; right: 10px; background-color: #FFD700; color: #000;
+                                  padding: 5px 10px; border-radius: 5px; font-weight: bold; font-size: 12px;
+                                  z-index: 10">⭐ DESTACADO</div>` : ''}
+                    <img class="product-image" src=${card.image} alt=${card.name} loading="lazy"
+                         style="width: 350px; height: 350px">
+                    <div style="display: flex; flex-direction: column; align-items: center">
+                      <h1 class="product-name" style="text-align: center; font-size: 26px">${card.name}</h1>
+                      <p class="product-description">${card.description}</p>
+                      <div style="display: flex; justify-content: center; align-items: center; gap: var(--lumo-space-m)">
+                        ${card.discount > 0 ? html`
+                          <p style="text-decoration: line-through; color: #999; font-size: 14px; margin: 0">${card.originalPrice}</p>
+                          <p style="font-weight: bold; color: #28a745; font-size: 18px; margin: 0">${card.price}</p>
+                          <span style="background-color: #dc3545; color: white; padding: 3px 8px; border-radius: 3px;
+                                       font-size: 12px; font-weight: bold; margin-left: 10px">${card.discount}% OFF</span>`
+                        : html`<p class="product-price" style="font-weight: bold">${card.price}</p>`}
+                      </div>
+                      <vaadin-button class="add-button"
+                                     @click=${event => { event.stopPropagation(); addToCart(card.index); }}>
+                        Añadir al carrito
+                      </vaadin-button>
+                    </div>
+                  </div>`)}
+              </div>`}
+            """;
+
+    private enum RowKind { HEADER, TRENDING, CARDS }
+
+    /**
+     * A row of the menu list: a menu title, the trending strip or a group of product cards.
+     */
+    private record MenuRow(RowKind kind, Integer menuId, String title, List<MenuItemDisplayDto> items) {
+    }
+
     private final MenuService menuService;
     private final CartService cartService;
-
-    public MenuView(MenuService menuService, CartService cartService) {
+    private final BestSellerService bestSellerService;
+    private final AllergenService allergenService;
+    private final UserService userService;
+    private final ProductSearchService productSearchService;
+    private final Map<Integer, MenuItemDisplayDto> itemsByProduct = new HashMap<>();
+    private final Map<MenuDto, List<MenuItemDisplayDto>> itemsByMenu = new LinkedHashMap<>();
+    private final VirtualList<MenuRow> menuList = new VirtualList<>();
+
+    private List<MenuItemDisplayDto> trendingItems = List.of();
+    private List<MenuRow> rows = List.of();
+    private User currentUser;
+    private AllergenIndex.Profile userAllergies;
+    private boolean hideUnsafeItems;
+    private Set<Integer> searchMatches;
+
+    public MenuView(MenuService menuService, CartService cartService, BestSellerService bestSellerService,
+                    AllergenService allergenService, UserService userService,
+                    ProductSearchService productSearchService) {
         this.menuService = menuService;
         this.cartService = cartService;
+        this.bestSellerService = bestSellerService;
+        this.allergenService = allergenService;
+        this.userService = userService;
+        this.productSearchService = productSearchService;
+        this.currentUser = userService.getCurrentUser();
+        this.userAllergies = allergenService.getAllergyProfile(currentUser != null ? currentUser.getAllergies() : null);
 
         List<MenuDto> menus = menuService.getMenus();
 
@@ -62,10 +182,7 @@ public class MenuView extends HorizontalLayout {
 
         menus.forEach(menu -> {
             Button button = new Button(menu.getName());
-            button.addClickListener(e -> getUI().ifPresent(ui -> ui.getPage().executeJs(
-                        "document.getElementById($0).scrollIntoView({behavior: 'smooth'});",
-                        "menu-" + menu.getId()
-                )));
+            button.addClickListener(e -> scrollToMenu(menu.getId()));
             sidebar.add(button);
         });
 
@@ -75,157 +192,205 @@ public class MenuView extends HorizontalLayout {
     private VerticalLayout createMainContent(List<MenuDto> menus) {
         VerticalLayout mainContent = new VerticalLayout();
         mainContent.setSizeFull();
-        mainContent.getStyle()
-                .set("overflow", "auto")
-                .set("height", "100%");
         mainContent.setPadding(true);
         mainContent.setSpacing(false);
         mainContent.setAlignItems(Alignment.CENTER);
 
         if(menus != null && !menus.isEmpty()){
             menus.forEach(menu -> {
-
-                H2 menuTitle = new H2(menu.getName());
-                menuTitle.getStyle().set("text-align", "center").set("font-size", "50px");
-                menuTitle.getElement().setAttribute("id", "menu-" +  menu.getId());
-
-                FlexLayout cardContainer = new FlexLayout();
-                cardContainer.addClassName("menu-grid");
-                cardContainer.setFlexWrap(FlexLayout.FlexWrap.WRAP);
-                cardContainer.setJustifyContentMode(FlexLayout.JustifyContentMode.CENTER);
-                cardContainer.setWidthFull();
-                cardContainer.addClassNames(LumoUtility.Gap.MEDIUM);
-
                 // Usar el nuevo método que devuelve MenuItemDisplayDto con descuentos
                 List<MenuItemDisplayDto> menuItems = menuService.getMenuItemsForDisplay(menu.getId());
-
-                if (menuItems != null) {
-                    for (MenuItemDisplayDto item : menuItems) {
-                        cardContainer.add(createProductCard(item));
-                    }
+                if (menuItems == null) {
+                    menuItems = List.of();
                 }
-
-                VerticalLayout sectionLayout = new VerticalLayout(menuTitle, cardContainer);
-                sectionLayout.setWidthFull();
-                sectionLayout.setAlignItems(Alignment.CENTER);
-                sectionLayout.getStyle().set("margin-bottom", "100px");
-
-                mainContent.add(sectionLayout);
+                menuItems.forEach(item -> itemsByProduct.putIfAbsent(item.getProductId(), item));
+                itemsByMenu.put(menu, menuItems);
             });
+            trendingItems = findTrendingItems();
+
+            menuList.setRenderer(LitRenderer.<MenuRow>of(ROW_TEMPLATE)
+                    .withProperty("kind", MenuRow::kind)
+                    .withProperty("title", MenuRow::title)
+                    .withProperty("cards", MenuView::toCards)
+                    .withFunction("openDetails", (row, args) -> findItem(row, args).ifPresent(this::openProductDetailsDialog))
+                    .withFunction("addToCart", (row, args) -> findItem(row, args).ifPresent(this::addToCart)));
+            menuList.setWidthFull();
+            applyFilters();
+
+            mainContent.add(createFilterBar(), menuList);
+            mainContent.setFlexGrow(1, menuList);
         }
 
         return mainContent;
     }
 
-    private Div createProductCard(MenuItemDisplayDto item) {
-        Div card = new Div();
-        card.addClassName("product-card");
-        card.getStyle().set("max-width", "400px")
-                .set("box-shadow", "0 2px 6px rgba(0,0,0,0.1)")
-                .set("position", "relative")
-                .set("cursor", "pointer");
+    /**
+     * Creates the filter bar: a product search box and, for logged-in users, their
+     * allergies and a toggle that hides the items containing any of them.
+     * Changes to the allergies are saved to the profile.
+     */
+    private HorizontalLayout createFilterBar() {
+        TextField searchField = new TextField();
+        searchField.setPlaceholder("Buscar platos, ingredientes...");
+        searchField.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
+        searchField.setClearButtonVisible(true);
+        searchField.setWidth("320px");
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.addValueChangeListener(e -> {
+            String query = e.getValue();
+            searchMatches = query == null || query.isBlank()
+                    ? null
+                    : new HashSet<>(productSearchService.search(query, itemsByProduct.size()));
+            applyFilters();
+        });
 
-        // Agregar listener al hacer clic en la tarjeta
-        card.addClickListener(e -> openProductDetailsDialog(item));
+        HorizontalLayout filter = new HorizontalLayout(searchField);
+        filter.setAlignItems(Alignment.BASELINE);
+        filter.setJustifyContentMode(FlexComponent.JustifyContentMode.CENTER);
+        filter.setWidthFull();
+        if (currentUser == null) {
+            return filter;
+        }
 
-        // ...existing code...
-        if (item.getFeatured() != null && item.getFeatured()) {
-            Div badge = new Div("⭐ DESTACADO");
-            badge.getStyle()
-                    .set("position", "absolute")
-                    .set("top", "10px")
-                    .set("right", "10px")
-                    .set("background-color", "#FFD700")
-                    .set("color", "#000")
-                    .set("padding", "5px 10px")
-                    .set("border-radius", "5px")
-                    .set("font-weight", "bold")
-                    .set("font-size", "12px")
-                    .set("z-index", "10");
-            card.add(badge);
+        Set<String> knownAllergens = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        allergenService.getAllAllergens().forEach(allergen -> knownAllergens.add(allergen.getName()));
+        if (currentUser.getAllergies() != null) {
+            knownAllergens.addAll(currentUser.getAllergies());
         }
 
-        Image image = new Image(item.getImageUrl(), item.getProductName());
-        image.addClassName("product-image");
-        image.getStyle().setWidth("350px").setHeight("350px");
+        MultiSelectComboBox<String> allergiesField = new MultiSelectComboBox<>("Mis alergias");
+        allergiesField.setItems(knownAllergens);
+        allergiesField.setAllowCustomValue(false);
+        allergiesField.setWidth("320px");
+        if (currentUser.getAllergies() != null) {
+            allergiesField.setValue(currentUser.getAllergies());
+        }
+        allergiesField.addValueChangeListener(e -> {
+            if (!e.isFromClient()) {
+                return;
+            }
+            Set<String> allergies = new HashSet<>(e.getValue());
+            userService.updateAllergies(currentUser.getId(), allergies);
+            currentUser.setAllergies(allergies);
+            userAllergies = allergenService.getAllergyProfile(allergies);
+            applyFilters();
+        });
 
-        H1 name = new H1(item.getProductName());
-        name.addClassName("product-name");
-        name.getStyle().set("text-align", "center").set("font-size", "26px");
+        Checkbox hideUnsafe = new Checkbox("Ocultar platos con mis alérgenos");
+        hideUnsafe.addValueChangeListener(e -> {
+            hideUnsafeItems = e.getValue();
+            applyFilters();
+        });
 
-        Paragraph desc = new Paragraph(item.getDescription());
-        desc.addClassName("product-description");
+        filter.add(allergiesField, hideUnsafe);
+        return filter;
+    }
 
-        // Sección de precios
-        HorizontalLayout priceLayout = new HorizontalLayout();
-        priceLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.CENTER);
-        priceLayout.setSpacing(true);
+    /**
+     * Rebuilds the rows of the menu list: items must match the search, if any, and
+     * their allergens are compared with the user's allergies. Menus left without
+     * visible items are hidden.
+     */
+    private void applyFilters() {
+        AllergenIndex.Profile allergies = hideUnsafeItems ? userAllergies : AllergenIndex.Profile.NONE;
+        List<MenuRow> filteredRows = new ArrayList<>();
 
-        if (item.getDiscountPercentage() != null && item.getDiscountPercentage() > 0) {
-            // Mostrar precio original tachado
-            Paragraph originalPrice = new Paragraph(String.format("€%.2f", item.getOriginalPrice()));
-            originalPrice.getStyle()
-                    .set("text-decoration", "line-through")
-                    .set("color", "#999")
-                    .set("font-size", "14px")
-                    .set("margin", "0");
+        List<MenuItemDisplayDto> trending = trendingItems.stream().filter(item -> isShown(item, allergies)).toList();
+        if (!trending.isEmpty()) {
+            filteredRows.add(new MenuRow(RowKind.TRENDING, null, "🔥 Lo más pedido ahora", trending));
+        }
+        itemsByMenu.forEach((menu, items) -> {
+            List<MenuItemDisplayDto> shown = items.stream().filter(item -> isShown(item, allergies)).toList();
+            if (!items.isEmpty() && shown.isEmpty()) {
+                return;
+            }
+            filteredRows.add(new MenuRow(RowKind.HEADER, menu.getId(), menu.getName(), List.of()));
+            for (int i = 0; i < shown.size(); i += CARDS_PER_ROW) {
+                filteredRows.add(new MenuRow(RowKind.CARDS, menu.getId(), null,
+                        shown.subList(i, Math.min(i + CARDS_PER_ROW, shown.size()))));
+            }
+        });
 
-            // Mostrar precio con descuento en verde
-            Paragraph discountedPrice = new Paragraph(String.format("€%.2f", item.getDiscountedPrice()));
-            discountedPrice.getStyle()
-                    .set("font-weight", "bold")
-                    .set("color", "#28a745")
-                    .set("font-size", "18px")
-                    .set("margin", "0");
+        rows = filteredRows;
+        menuList.setItems(rows);
+    }
 
-            // Badge de descuento
-            Span discountBadge = new Span(item.getDiscountPercentage() + "% OFF");
-            discountBadge.getStyle()
-                    .set("background-color", "#dc3545")
-                    .set("color", "white")
-                    .set("padding", "3px 8px")
-                    .set("border-radius", "3px")
-                    .set("font-size", "12px")
-                    .set("font-weight", "bold")
-                    .set("margin-left", "10px");
+    private boolean isShown(MenuItemDisplayDto item, AllergenIndex.Profile allergies) {
+        return (searchMatches == null || searchMatches.contains(item.getProductId()))
+                && !allergies.conflictsWith(item.getAllergenMask(), item.getAllergenNames());
+    }
 
-            priceLayout.add(originalPrice, discountedPrice, discountBadge);
-        } else {
-            // Sin descuento, mostrar solo el precio
-            Paragraph price = new Paragraph(String.format("€%.2f", item.getOriginalPrice()));
-            price.addClassName("product-price");
-            price.getStyle().set("font-weight", "bold");
-            priceLayout.add(price);
+    /**
+     * Scrolls the menu list to the title of a menu, if it is not hidden by the filters.
+     *
+     * @param menuId the menu ID
+     */
+    private void scrollToMenu(Integer menuId) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).kind() == RowKind.HEADER && rows.get(i).menuId().equals(menuId)) {
+                menuList.scrollToIndex(i);
+                return;
+            }
         }
+    }
 
-        Button addButton = new Button("Añadir al carrito");
-        addButton.addClickListener(e -> addToCart(item));
-        addButton.addClassName("add-button");
+    /**
+     * Finds the products selling the most in the last 24 hours. Rankings come from
+     * the in-memory best-seller tracker, and only products present in the displayed
+     * menus are shown.
+     */
+    private List<MenuItemDisplayDto> findTrendingItems() {
+        return bestSellerService.getBestSellers(BestSellerService.Window.LAST_DAY, 10).stream()
+                .map(BestSellerDto::getProductId)
+                .map(itemsByProduct::get)
+                .filter(Objects::nonNull)
+                .limit(5)
+                .toList();
+    }
 
-        VerticalLayout content = new VerticalLayout(name, desc, priceLayout, addButton);
-        content.setPadding(false);
-        content.setSpacing(false);
-        content.setAlignItems(Alignment.CENTER);
+    // Finds the item of a row whose card was clicked, by the card index sent from the browser
+    private static Optional<MenuItemDisplayDto> findItem(MenuRow row, JsonArray args) {
+        int index = (int) args.getNumber(0);
+        return index >= 0 && index < row.items().size()
+                ? Optional.of(row.items().get(index))
+                : Optional.empty();
+    }
 
-        card.add(image, content);
-        return card;
+    // Display values of the cards of a row, computed only for the rows being rendered
+    private static JsonArray toCards(MenuRow row) {
+        ProductImageService.Variant variant = row.kind() == RowKind.TRENDING
+                ? ProductImageService.Variant.THUMBNAIL
+                : ProductImageService.Variant.CARD;
+        JsonArray cards = Json.createArray();
+        for (int i = 0; i < row.items().size(); i++) {
+            MenuItemDisplayDto item = row.items().get(i);
+            boolean discounted = item.getDiscountPercentage() != null && item.getDiscountPercentage() > 0;
+
+            JsonObject card = Json.createObject();
+            card.put("index", i);
+            card.put("name", Objects.toString(item.getProductName(), ""));
+            card.put("description", Objects.toString(item.getDescription(), ""));
+            card.put("image", Objects.toString(ProductImageService.variantUrl(item.getImageUrl(), variant), ""));
+            card.put("featured", Boolean.TRUE.equals(item.getFeatured()));
+            card.put("discount", discounted ? item.getDiscountPercentage() : 0);
+            card.put("originalPrice", String.format("€%.2f", item.getOriginalPrice()));
+            card.put("price", String.format("€%.2f", discounted ? item.getDiscountedPrice() : item.getOriginalPrice()));
+            cards.set(i, card);
+        }
+        return cards;
     }
 
     /**
-     * Adds a product to the cart with its discounted price if applicable
+     * Adds a product to the cart with its discounted price if applicable.
+     * The price is only shown to the user: it is checked again at checkout.
      *
      * @param item the MenuItemDisplayDto to add to cart
      */
     private void addToCart(MenuItemDisplayDto item) {
-        // Usar el precio con descuento si existe
-        Double priceToAdd = (item.getDiscountPercentage() != null && item.getDiscountPercentage() > 0)
-                ? item.getDiscountedPrice()
-                : item.getOriginalPrice();
-
         cartService.addToCart(
                 item.getProductId(),
                 item.getProductName(),
-                priceToAdd,
+                item.getDiscountedPrice(),
                 1
         );
 
@@ -258,7 +423,8 @@ public class MenuView extends HorizontalLayout {
         content.setSpacing(true);
 
         // Imagen del producto
-        Image productImage = new Image(item.getImageUrl(), item.getProductName());
+        Image productImage = new Image(ProductImageService.variantUrl(item.getImageUrl(), ProductImageService.Variant.DETAIL),
+                item.getProductName());
         productImage.setWidth("100%");
         productImage.setHeight("400px");
         productImage.getStyle().set("object-fit", "cover");
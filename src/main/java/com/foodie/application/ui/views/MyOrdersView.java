@@ -204,13 +204,8 @@ public class MyOrdersView extends VerticalLayout {
             return;
         }
 
-        // Get all orders as DTOs
-        List<OrderDto> allOrders = orderService.getAllOrdersAsDto();
-
-        // Filter by current user
-        List<OrderDto> userOrders = allOrders.stream()
-                .filter(order -> order.getUsername().equals(currentUser.getUsername()))
-                .toList();
+        // Get the user's live and archived orders as DTOs
+        List<OrderDto> userOrders = orderService.getOrderHistoryByUserId(currentUser.getId());
 
         if (userOrders == null || userOrders.isEmpty()) {
             // Show empty state
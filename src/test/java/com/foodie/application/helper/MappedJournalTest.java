@@ -0,0 +1,164 @@
+package com.foodie.application.helper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link MappedJournal}.
+ */
+class MappedJournalTest {
+
+    private static final String NAME = "orders";
+    // Segment header (8 bytes) plus two records of a 4-byte payload (8 + 4 bytes each)
+    private static final int TWO_RECORD_SEGMENT = 8 + 2 * (8 + 4);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsUncommittedRecordsAfterReopen() {
+        MappedJournal journal = new MappedJournal(directory, NAME, 1024);
+        journal.append(bytes("first"));
+        journal.append(bytes("second"));
+
+        List<MappedJournal.Entry> entries = new MappedJournal(directory, NAME, 1024).readUncommitted();
+
+        assertEquals(List.of("first", "second"), payloads(entries));
+    }
+
+    @Test
+    void committedRecordsAreNotReadAgain() {
+        MappedJournal journal = new MappedJournal(directory, NAME, 1024);
+        long first = journal.append(bytes("first"));
+        journal.append(bytes("second"));
+        journal.commit(first);
+
+        assertEquals(List.of("second"), payloads(new MappedJournal(directory, NAME, 1024).readUncommitted()));
+    }
+
+    @Test
+    void appendsContinueAfterReopenFollowingPartialCommit() {
+        MappedJournal journal = new MappedJournal(directory, NAME, 1024);
+        long first = journal.append(bytes("first"));
+        long second = journal.append(bytes("second"));
+        journal.append(bytes("third"));
+        journal.commit(first);
+
+        MappedJournal reopened = new MappedJournal(directory, NAME, 1024);
+        List<MappedJournal.Entry> entries = reopened.readUncommitted();
+        assertEquals(List.of("second", "third"), payloads(entries));
+        assertEquals(second, entries.get(0).position());
+
+        reopened.append(bytes("fourth"));
+        assertEquals(List.of("second", "third", "fourth"),
+                payloads(new MappedJournal(directory, NAME, 1024).readUncommitted()));
+    }
+
+    @Test
+    void tornRecordIsIgnoredAndOverwritten() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, NAME, 1024);
+        long end = journal.append(bytes("first"));
+
+        // A record whose length was written but whose payload does not match its checksum
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(8 + 4).putInt(4).putInt(0).put(bytes("torn")).flip();
+            channel.write(torn, end);
+        }
+
+        MappedJournal reopened = new MappedJournal(directory, NAME, 1024);
+        assertEquals(List.of("first"), payloads(reopened.readUncommitted()));
+        assertEquals(end + 8 + 6, reopened.append(bytes("second")));
+        assertEquals(List.of("first", "second"), payloads(new MappedJournal(directory, NAME, 1024).readUncommitted()));
+    }
+
+    @Test
+    void rollsToNewSegmentOnlyWhenCurrentIsFull() {
+        MappedJournal journal = new MappedJournal(directory, NAME, TWO_RECORD_SEGMENT);
+        journal.append(bytes("aaaa"));
+        long full = journal.append(bytes("bbbb"));
+
+        assertEquals(TWO_RECORD_SEGMENT, full);
+        assertFalse(Files.exists(segment(1)));
+
+        long next = journal.append(bytes("cccc"));
+        assertTrue(Files.exists(segment(1)));
+        assertEquals(TWO_RECORD_SEGMENT + 8 + 12, next);
+        assertEquals(List.of("aaaa", "bbbb", "cccc"),
+                payloads(new MappedJournal(directory, NAME, TWO_RECORD_SEGMENT).readUncommitted()));
+    }
+
+    @Test
+    void commitAtSegmentBoundaryDeletesProcessedSegment() {
+        MappedJournal journal = new MappedJournal(directory, NAME, TWO_RECORD_SEGMENT);
+        journal.append(bytes("aaaa"));
+        long full = journal.append(bytes("bbbb"));
+        journal.append(bytes("cccc"));
+
+        journal.commit(full);
+
+        assertFalse(Files.exists(segment(0)));
+        assertEquals(List.of("cccc"),
+                payloads(new MappedJournal(directory, NAME, TWO_RECORD_SEGMENT).readUncommitted()));
+    }
+
+    @Test
+    void commitAcrossSegmentsDeletesEarlierSegments() {
+        MappedJournal journal = new MappedJournal(directory, NAME, TWO_RECORD_SEGMENT);
+        journal.append(bytes("aaaa"));
+        journal.append(bytes("bbbb"));
+        long third = journal.append(bytes("cccc"));
+        journal.append(bytes("dddd"));
+
+        journal.commit(third);
+
+        assertFalse(Files.exists(segment(0)));
+        assertTrue(Files.exists(segment(1)));
+        assertEquals(List.of("dddd"),
+                payloads(new MappedJournal(directory, NAME, TWO_RECORD_SEGMENT).readUncommitted()));
+    }
+
+    @Test
+    void rejectsRecordLargerThanSegment() {
+        MappedJournal journal = new MappedJournal(directory, NAME, TWO_RECORD_SEGMENT);
+
+        assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[TWO_RECORD_SEGMENT]));
+    }
+
+    @Test
+    void detectsSegmentsOfTheJournalOnly() throws IOException {
+        assertFalse(MappedJournal.hasSegments(directory, NAME));
+
+        Files.writeString(directory.resolve(NAME + "-dead-letter.jsonl"), "{}\n");
+        assertFalse(MappedJournal.hasSegments(directory, NAME));
+
+        new MappedJournal(directory, NAME, 1024);
+        assertTrue(MappedJournal.hasSegments(directory, NAME));
+        assertFalse(MappedJournal.hasSegments(directory, "other"));
+    }
+
+    private Path segment(long number) {
+        return directory.resolve(String.format("%s-%010d.journal", NAME, number));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<MappedJournal.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}